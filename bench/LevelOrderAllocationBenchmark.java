@@ -0,0 +1,96 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Measures bytes allocated per traversed node by {@link Traversals#collectLevelOrderValues(TreeNode)}
+ * and {@link Traversals#countDistinctValues(TreeNode)}, next to the LinkedList-queue versions they replaced.
+ *
+ * <p>Run from the repository root:
+ * <pre>
+ *   javac -d out $(ls src/*.java | grep -v Test.java) bench/LevelOrderAllocationBenchmark.java
+ *   java -cp out LevelOrderAllocationBenchmark
+ * </pre>
+ */
+public class LevelOrderAllocationBenchmark {
+  private static final int NODES = 1 << 20;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 10;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static volatile Object sink;
+
+  public static void main(String[] args) {
+    TreeNode<Integer> root = balancedTree(NODES);
+
+    report("collectLevelOrderValues (LinkedList)", () -> sink = linkedListLevelOrder(root));
+    report("collectLevelOrderValues (RingQueue)", () -> sink = Traversals.collectLevelOrderValues(root));
+    report("collectLevelOrderValues (presized)", () -> sink = Traversals.collectLevelOrderValues(root, NODES));
+    report("countDistinctValues (LinkedList)", () -> sink = linkedListDistinct(root));
+    report("countDistinctValues (current)", () -> sink = Traversals.countDistinctValues(root));
+  }
+
+  private static void report(String name, Runnable traversal) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      traversal.run();
+    }
+    long threadId = Thread.currentThread().getId();
+    long before = THREADS.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      traversal.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+    System.out.printf("%-40s %8.2f bytes/node %8.2f ns/node%n",
+        name,
+        (double) allocated / MEASURED_ROUNDS / NODES,
+        (double) elapsed / MEASURED_ROUNDS / NODES);
+  }
+
+  private static TreeNode<Integer> balancedTree(int size) {
+    List<TreeNode<Integer>> nodes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      nodes.add(new TreeNode<>(i % 1000));
+    }
+    for (int i = 0; i < size; i++) {
+      if (2 * i + 1 < size) nodes.get(i).left = nodes.get(2 * i + 1);
+      if (2 * i + 2 < size) nodes.get(i).right = nodes.get(2 * i + 2);
+    }
+    return nodes.get(0);
+  }
+
+  // The level-order walks as they were written before the ring buffer, kept for comparison.
+
+  private static <T> List<T> linkedListLevelOrder(TreeNode<T> node) {
+    Queue<TreeNode<T>> queue = new LinkedList<>();
+    List<T> holdVals = new LinkedList<>();
+    queue.add(node);
+    while (!queue.isEmpty()) {
+      TreeNode<T> current = queue.poll();
+      if (current == null) {
+        continue;
+      }
+      holdVals.add(current.value);
+      queue.add(current.left);
+      queue.add(current.right);
+    }
+    return holdVals;
+  }
+
+  private static int linkedListDistinct(TreeNode<Integer> node) {
+    Queue<TreeNode<Integer>> queue = new LinkedList<>();
+    Set<Integer> set = new HashSet<>();
+    queue.offer(node);
+    while (!queue.isEmpty()) {
+      TreeNode<Integer> newNode = queue.poll();
+      if (newNode != null) {
+        set.add(newNode.value);
+        queue.add(newNode.left);
+        queue.add(newNode.right);
+      }
+    }
+    return set.size();
+  }
+}
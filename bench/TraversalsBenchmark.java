@@ -0,0 +1,310 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks for every method in {@link Traversals}, run against each {@link TreeGenerators.Shape}
+ * at sizes from 10^3 to 10^7 nodes. Methods with {@link IntTreeNode}, {@link CompactTree},
+ * {@link CompactIntTree} or {@link MappedTree} overloads are measured on each representation of
+ * the same tree; mapped trees are written to temporary files during setup. Each benchmark reports
+ * throughput and average time; running through {@link #main} also attaches the GC profiler, which
+ * reports bytes allocated per operation as {@code gc.alloc.rate.norm}.
+ *
+ * <p>See the README for how to build and run the suite.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class TraversalsBenchmark {
+
+  @Param({"BALANCED", "SKEWED", "RANDOM", "WIDE"})
+  public TreeGenerators.Shape shape;
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private TreeNode<Integer> tree;
+  private TreeNode<Integer> sameShape;
+  private TreeNode<String> stringTree;
+  private IntTreeNode intTree;
+  private CompactIntTree compactIntTree;
+  private CompactIntTree compactIntSameShape;
+  private CompactTree<Integer> compactTree;
+  private CompactTree<String> compactStringTree;
+  private MappedTree mappedTree;
+  private MappedTree mappedSameShape;
+  private MappedTree mappedStringTree;
+  private Path mappedDir;
+  private StringBuilder postOrderBuilder;
+  private Writer nullWriter;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    tree = TreeGenerators.generate(shape, size, 42);
+    // A second tree of identical shape, so haveSameShape has to walk every node.
+    sameShape = TreeGenerators.generate(shape, size, 42);
+    stringTree = toStrings(tree);
+    intTree = IntTreeNode.from(tree);
+    compactIntTree = CompactIntTree.of(tree);
+    compactIntSameShape = CompactIntTree.of(sameShape);
+    compactTree = CompactTree.of(tree);
+    compactStringTree = CompactTree.of(stringTree);
+    mappedDir = Files.createTempDirectory("traversals-bench");
+    mappedTree = map(tree, "tree");
+    mappedSameShape = map(sameShape, "same-shape");
+    Path stringFile = mappedDir.resolve("strings");
+    MappedTree.writeStrings(stringTree, stringFile);
+    mappedStringTree = MappedTree.open(stringFile);
+    postOrderBuilder = new StringBuilder();
+    nullWriter = Writer.nullWriter();
+  }
+
+  private MappedTree map(TreeNode<Integer> source, String name) throws IOException {
+    Path file = mappedDir.resolve(name);
+    MappedTree.writeInts(source, file);
+    return MappedTree.open(file);
+  }
+
+  /** Deletes the mapped tree files; the mappings stay readable until they are collected. */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    for (String name : new String[] {"tree", "same-shape", "strings"}) {
+      Files.deleteIfExists(mappedDir.resolve(name));
+    }
+    Files.deleteIfExists(mappedDir);
+  }
+
+  private static TreeNode<String> toStrings(TreeNode<Integer> source) {
+    TreeNode<String> root = new TreeNode<>(String.valueOf(source.value));
+    ArrayStack<Object> stack = new ArrayStack<>();
+    stack.push(source);
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      @SuppressWarnings("unchecked")
+      TreeNode<String> target = (TreeNode<String>) stack.pop();
+      @SuppressWarnings("unchecked")
+      TreeNode<Integer> node = (TreeNode<Integer>) stack.pop();
+      if (node.left != null) {
+        target.left = new TreeNode<>(String.valueOf(node.left.value));
+        stack.push(node.left);
+        stack.push(target.left);
+      }
+      if (node.right != null) {
+        target.right = new TreeNode<>(String.valueOf(node.right.value));
+        stack.push(node.right);
+        stack.push(target.right);
+      }
+    }
+    return root;
+  }
+
+  @Benchmark
+  public int sumLeafNodes() {
+    return Traversals.sumLeafNodes(tree);
+  }
+
+  @Benchmark
+  public int sumLeafNodesIntTree() {
+    return Traversals.sumLeafNodes(intTree);
+  }
+
+  @Benchmark
+  public int sumLeafNodesCompact() {
+    return Traversals.sumLeafNodes(compactIntTree);
+  }
+
+  @Benchmark
+  public int sumLeafNodesMapped() {
+    return Traversals.sumLeafNodes(mappedTree);
+  }
+
+  @Benchmark
+  public int countInternalNodes() {
+    return Traversals.countInternalNodes(tree);
+  }
+
+  @Benchmark
+  public int countInternalNodesIntTree() {
+    return Traversals.countInternalNodes(intTree);
+  }
+
+  @Benchmark
+  public int countInternalNodesCompact() {
+    return Traversals.countInternalNodes(compactIntTree);
+  }
+
+  @Benchmark
+  public int countInternalNodesMapped() {
+    return Traversals.countInternalNodes(mappedTree);
+  }
+
+  @Benchmark
+  public String buildPostOrderString() {
+    return Traversals.buildPostOrderString(stringTree);
+  }
+
+  @Benchmark
+  public String buildPostOrderStringCompact() {
+    return Traversals.buildPostOrderString(compactStringTree);
+  }
+
+  @Benchmark
+  public String buildPostOrderStringMapped() {
+    return Traversals.buildPostOrderString(mappedStringTree);
+  }
+
+  /** Appends into a builder reused across invocations, so its capacity is only grown once. */
+  @Benchmark
+  public StringBuilder appendPostOrder() {
+    postOrderBuilder.setLength(0);
+    return Traversals.appendPostOrder(stringTree, postOrderBuilder);
+  }
+
+  /** Streams to a writer that discards its input, so only the traversal and value formatting are measured. */
+  @Benchmark
+  public void writePostOrder() throws IOException {
+    Traversals.writePostOrder(stringTree, nullWriter);
+  }
+
+  @Benchmark
+  public void writePostOrderCompact() throws IOException {
+    Traversals.writePostOrder(compactStringTree, nullWriter);
+  }
+
+  @Benchmark
+  public void writePostOrderMapped() throws IOException {
+    Traversals.writePostOrder(mappedStringTree, nullWriter);
+  }
+
+  @Benchmark
+  public Object collectLevelOrderValues() {
+    return Traversals.collectLevelOrderValues(tree);
+  }
+
+  @Benchmark
+  public Object collectLevelOrderValuesPresized() {
+    return Traversals.collectLevelOrderValues(tree, size);
+  }
+
+  @Benchmark
+  public Object collectLevelOrderValuesCompact() {
+    return Traversals.collectLevelOrderValues(compactTree);
+  }
+
+  @Benchmark
+  public Object collectLevelOrderValuesMapped() {
+    return Traversals.collectLevelOrderValues(mappedTree);
+  }
+
+  /** Hands each level to the blackhole as a reused view, so no per-level list is built. */
+  @Benchmark
+  public int[] forEachLevel(Blackhole blackhole) {
+    return Traversals.forEachLevel(tree, (level, offset, values) -> blackhole.consume(values));
+  }
+
+  @Benchmark
+  public Object collectLevels() {
+    return Traversals.collectLevels(tree);
+  }
+
+  @Benchmark
+  public int countDistinctValues() {
+    return Traversals.countDistinctValues(tree);
+  }
+
+  @Benchmark
+  public int countDistinctValuesIntTree() {
+    return Traversals.countDistinctValues(intTree);
+  }
+
+  @Benchmark
+  public int countDistinctValuesCompact() {
+    return Traversals.countDistinctValues(compactIntTree);
+  }
+
+  @Benchmark
+  public int countDistinctValuesMapped() {
+    return Traversals.countDistinctValues(mappedTree);
+  }
+
+  /** A sketch with about 1% relative error, for comparison with the exact counts above. */
+  @Benchmark
+  public long estimateDistinctValues() {
+    return Traversals.estimateDistinctValues(tree, 0.01);
+  }
+
+  @Benchmark
+  public boolean hasStrictlyIncreasingPath() {
+    return Traversals.hasStrictlyIncreasingPath(tree);
+  }
+
+  @Benchmark
+  public boolean hasStrictlyIncreasingPathIntTree() {
+    return Traversals.hasStrictlyIncreasingPath(intTree);
+  }
+
+  @Benchmark
+  public boolean hasStrictlyIncreasingPathCompact() {
+    return Traversals.hasStrictlyIncreasingPath(compactIntTree);
+  }
+
+  @Benchmark
+  public boolean hasStrictlyIncreasingPathMapped() {
+    return Traversals.hasStrictlyIncreasingPath(mappedTree);
+  }
+
+  @Benchmark
+  public boolean haveSameShape() {
+    return Traversals.haveSameShape(tree, sameShape);
+  }
+
+  @Benchmark
+  public boolean haveSameShapeCompact() {
+    return Traversals.haveSameShape(compactIntTree, compactIntSameShape);
+  }
+
+  @Benchmark
+  public boolean haveSameShapeMapped() {
+    return Traversals.haveSameShape(mappedTree, mappedSameShape);
+  }
+
+  @Benchmark
+  public Object findAllRootToLeafPaths() {
+    return Traversals.findAllRootToLeafPaths(tree);
+  }
+
+  @Benchmark
+  public Object findAllRootToLeafPathsCompact() {
+    return Traversals.findAllRootToLeafPaths(compactTree);
+  }
+
+  @Benchmark
+  public Object findAllRootToLeafPathsMapped() {
+    return Traversals.findAllRootToLeafPaths(mappedTree);
+  }
+
+  @Benchmark
+  public void forEachRootToLeafPath(Blackhole blackhole) {
+    Traversals.forEachRootToLeafPath(tree, blackhole::consume);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(TraversalsBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
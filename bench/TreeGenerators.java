@@ -0,0 +1,141 @@
+import java.util.*;
+
+/**
+ * Builds large trees of integers with the shapes used by the benchmarks. Every generator is
+ * iterative, so sizes up to 10^7 nodes and beyond are built without deep recursion.
+ */
+public class TreeGenerators {
+
+  /** The tree shapes the benchmarks are run against. */
+  public enum Shape {
+    /** A height-balanced binary search tree over 0..n-1. */
+    BALANCED,
+    /** A list-shaped tree with one right child per level. */
+    SKEWED,
+    /** A binary search tree built by inserting values in random order. */
+    RANDOM,
+    /** A complete tree filled level by level, the widest possible tree for its size. */
+    WIDE
+  }
+
+  public static TreeNode<Integer> generate(Shape shape, int size, long seed) {
+    switch (shape) {
+      case BALANCED:
+        return balanced(size);
+      case SKEWED:
+        return skewed(size);
+      case RANDOM:
+        return random(size, seed);
+      case WIDE:
+        return wide(size);
+      default:
+        throw new IllegalArgumentException("unknown shape: " + shape);
+    }
+  }
+
+  /**
+   * Builds a height-balanced binary search tree holding 0..size-1 by repeatedly splitting ranges
+   * at their midpoints. Nodes are allocated in pre-order.
+   */
+  public static TreeNode<Integer> balanced(int size) {
+    if (size <= 0) {
+      return null;
+    }
+    // Each pending range is a (low, high) pair plus the parent slot it fills.
+    ArrayStack<TreeNode<Integer>> parents = new ArrayStack<>();
+    IntStack ranges = new IntStack();
+    TreeNode<Integer> root = new TreeNode<>((size - 1) >>> 1);
+    pushHalves(root, 0, size - 1, parents, ranges);
+    while (!parents.isEmpty()) {
+      TreeNode<Integer> parent = parents.pop();
+      int isLeft = ranges.pop();
+      int high = ranges.pop();
+      int low = ranges.pop();
+      TreeNode<Integer> node = new TreeNode<>((low + high) >>> 1);
+      if (isLeft == 1) {
+        parent.left = node;
+      } else {
+        parent.right = node;
+      }
+      pushHalves(node, low, high, parents, ranges);
+    }
+    return root;
+  }
+
+  private static void pushHalves(TreeNode<Integer> node, int low, int high,
+      ArrayStack<TreeNode<Integer>> parents, IntStack ranges) {
+    int mid = node.value;
+    if (mid < high) {
+      parents.push(node);
+      ranges.push(mid + 1);
+      ranges.push(high);
+      ranges.push(0);
+    }
+    if (low < mid) {
+      parents.push(node);
+      ranges.push(low);
+      ranges.push(mid - 1);
+      ranges.push(1);
+    }
+  }
+
+  /** Builds a right-leaning chain 0 -> 1 -> ... -> size-1. */
+  public static TreeNode<Integer> skewed(int size) {
+    TreeNode<Integer> root = null;
+    for (int i = size - 1; i >= 0; i--) {
+      root = new TreeNode<>(i, null, root);
+    }
+    return root;
+  }
+
+  /**
+   * Builds a binary search tree by inserting random values drawn from a range of size/2,
+   * so that only about 43% of the values are distinct and the rest repeat an earlier value.
+   */
+  public static TreeNode<Integer> random(int size, long seed) {
+    if (size <= 0) {
+      return null;
+    }
+    Random random = new Random(seed);
+    int range = Math.max(1, size / 2);
+    TreeNode<Integer> root = new TreeNode<>(random.nextInt(range));
+    for (int i = 1; i < size; i++) {
+      int value = random.nextInt(range);
+      TreeNode<Integer> current = root;
+      while (true) {
+        if (value < current.value) {
+          if (current.left == null) {
+            current.left = new TreeNode<>(value);
+            break;
+          }
+          current = current.left;
+        } else {
+          if (current.right == null) {
+            current.right = new TreeNode<>(value);
+            break;
+          }
+          current = current.right;
+        }
+      }
+    }
+    return root;
+  }
+
+  /** Builds a complete tree whose values number the nodes 0..size-1 in level order. */
+  public static TreeNode<Integer> wide(int size) {
+    if (size <= 0) {
+      return null;
+    }
+    List<TreeNode<Integer>> nodes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      nodes.add(new TreeNode<>(i));
+    }
+    for (int i = 0; 2 * i + 1 < size; i++) {
+      nodes.get(i).left = nodes.get(2 * i + 1);
+      if (2 * i + 2 < size) {
+        nodes.get(i).right = nodes.get(2 * i + 2);
+      }
+    }
+    return nodes.get(0);
+  }
+}
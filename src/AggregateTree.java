@@ -0,0 +1,306 @@
+import java.util.Objects;
+
+/**
+ * A mutable tree of integers in which every node caches the aggregates of its subtree:
+ * leaf sum, internal node count, height and size. The wrapper mirrors an underlying
+ * {@link TreeNode} tree and keeps it in sync, so {@link Traversals} still works on {@link #root()}.
+ *
+ * <p>All structural and value changes must go through this class. Each one refreshes the cached
+ * aggregates on the path from the changed node up to the root, which is O(depth), and stops early
+ * once an ancestor's aggregates come out unchanged. Queries for the whole tree, or for any subtree,
+ * are then O(1) instead of a full traversal.
+ */
+public class AggregateTree {
+
+  /** A node of an {@link AggregateTree}, holding the cached aggregates of its subtree. */
+  public static class Node {
+    private final TreeNode<Integer> node;
+    private Node parent;
+    private Node left;
+    private Node right;
+    private int leafSum;
+    private int internalCount;
+    private int height;
+    private int size;
+
+    private Node(TreeNode<Integer> node) {
+      this.node = node;
+    }
+
+    /** Returns the underlying tree node. */
+    public TreeNode<Integer> treeNode() {
+      return node;
+    }
+
+    public int value() {
+      return node.value;
+    }
+
+    public Node parent() {
+      return parent;
+    }
+
+    public Node left() {
+      return left;
+    }
+
+    public Node right() {
+      return right;
+    }
+
+    /** Returns the sum of the values of the leaves in this subtree. */
+    public int leafSum() {
+      return leafSum;
+    }
+
+    /** Returns the number of internal nodes in this subtree. */
+    public int internalCount() {
+      return internalCount;
+    }
+
+    /** Returns the number of nodes on the longest path from this node down to a leaf. */
+    public int height() {
+      return height;
+    }
+
+    /** Returns the number of nodes in this subtree. */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Recomputes this node's aggregates from its children's.
+     *
+     * @return true if any aggregate changed
+     */
+    private boolean refresh() {
+      int newLeafSum;
+      int newInternalCount;
+      int newHeight;
+      int newSize;
+      if (left == null && right == null) {
+        newLeafSum = node.value;
+        newInternalCount = 0;
+        newHeight = 1;
+        newSize = 1;
+      } else {
+        newLeafSum = (left == null ? 0 : left.leafSum) + (right == null ? 0 : right.leafSum);
+        newInternalCount = 1 + (left == null ? 0 : left.internalCount) + (right == null ? 0 : right.internalCount);
+        newHeight = 1 + Math.max(left == null ? 0 : left.height, right == null ? 0 : right.height);
+        newSize = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+      }
+      boolean changed = newLeafSum != leafSum || newInternalCount != internalCount
+          || newHeight != height || newSize != size;
+      leafSum = newLeafSum;
+      internalCount = newInternalCount;
+      height = newHeight;
+      size = newSize;
+      return changed;
+    }
+  }
+
+  private Node root;
+
+  private AggregateTree(Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Wraps the given tree, computing every node's aggregates in one post-order pass.
+   * The tree must not be modified directly afterwards. If node is null, the tree is empty.
+   *
+   * @param node the root of the tree to wrap
+   * @return the augmented tree
+   */
+  public static AggregateTree of(TreeNode<Integer> node) {
+    return new AggregateTree(wrap(node));
+  }
+
+  /**
+   * Returns the root node, or null if the tree is empty.
+   */
+  public Node rootNode() {
+    return root;
+  }
+
+  /**
+   * Returns the underlying tree, or null if the tree is empty.
+   */
+  public TreeNode<Integer> root() {
+    return root == null ? null : root.node;
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes, or 0 if the tree is empty, in O(1).
+   */
+  public int sumLeafNodes() {
+    return root == null ? 0 : root.leafSum;
+  }
+
+  /**
+   * Returns the number of internal nodes, or 0 if the tree is empty, in O(1).
+   */
+  public int countInternalNodes() {
+    return root == null ? 0 : root.internalCount;
+  }
+
+  /**
+   * Returns the number of nodes on the longest root-to-leaf path, or 0 if the tree is empty, in O(1).
+   */
+  public int height() {
+    return root == null ? 0 : root.height;
+  }
+
+  /**
+   * Returns the number of nodes, or 0 if the tree is empty, in O(1).
+   */
+  public int size() {
+    return root == null ? 0 : root.size;
+  }
+
+  /**
+   * Changes a node's value and refreshes the aggregates above it.
+   *
+   * @param node  a node of this tree
+   * @param value the new value
+   * @throws IllegalArgumentException if the node is not part of this tree
+   */
+  public void setValue(Node node, int value) {
+    requireAttached(node);
+    node.node.value = value;
+    refreshFrom(node);
+  }
+
+  /**
+   * Attaches a subtree as the left child of the given node.
+   * To remove a child, use {@link #detach} instead.
+   *
+   * @param parent  a node of this tree with no left child
+   * @param subtree the subtree to attach, which must not be null or part of any wrapped tree
+   * @return the node wrapping the subtree's root
+   * @throws NullPointerException     if the subtree is null
+   * @throws IllegalArgumentException if the parent is not part of this tree
+   * @throws IllegalStateException    if the parent already has a left child
+   */
+  public Node attachLeft(Node parent, TreeNode<Integer> subtree) {
+    Objects.requireNonNull(subtree, "subtree to attach must not be null; use detach to remove a child");
+    requireAttached(parent);
+    if (parent.left != null) {
+      throw new IllegalStateException("node already has a left child");
+    }
+    Node child = wrap(subtree);
+    child.parent = parent;
+    parent.left = child;
+    parent.node.left = subtree;
+    refreshFrom(parent);
+    return child;
+  }
+
+  /**
+   * Attaches a subtree as the right child of the given node.
+   * To remove a child, use {@link #detach} instead.
+   *
+   * @param parent  a node of this tree with no right child
+   * @param subtree the subtree to attach, which must not be null or part of any wrapped tree
+   * @return the node wrapping the subtree's root
+   * @throws NullPointerException     if the subtree is null
+   * @throws IllegalArgumentException if the parent is not part of this tree
+   * @throws IllegalStateException    if the parent already has a right child
+   */
+  public Node attachRight(Node parent, TreeNode<Integer> subtree) {
+    Objects.requireNonNull(subtree, "subtree to attach must not be null; use detach to remove a child");
+    requireAttached(parent);
+    if (parent.right != null) {
+      throw new IllegalStateException("node already has a right child");
+    }
+    Node child = wrap(subtree);
+    child.parent = parent;
+    parent.right = child;
+    parent.node.right = subtree;
+    refreshFrom(parent);
+    return child;
+  }
+
+  /**
+   * Removes the subtree rooted at the given node. Detaching the root empties the tree.
+   * Nodes of the removed subtree can no longer be used with this tree.
+   *
+   * @param node a node of this tree
+   * @return the removed subtree
+   * @throws IllegalArgumentException if the node is not part of this tree
+   */
+  public TreeNode<Integer> detach(Node node) {
+    requireAttached(node);
+    Node parent = node.parent;
+    node.parent = null;
+    if (parent == null) {
+      root = null;
+      return node.node;
+    }
+    if (parent.left == node) {
+      parent.left = null;
+      parent.node.left = null;
+    } else {
+      parent.right = null;
+      parent.node.right = null;
+    }
+    refreshFrom(parent);
+    return node.node;
+  }
+
+  private void refreshFrom(Node node) {
+    for (Node current = node; current != null && current.refresh(); current = current.parent) {
+      // keep climbing while aggregates change
+    }
+  }
+
+  private void requireAttached(Node node) {
+    Node top = node;
+    while (top.parent != null) {
+      top = top.parent;
+    }
+    if (top != root) {
+      throw new IllegalArgumentException("node is not part of this tree");
+    }
+  }
+
+  /**
+   * Builds wrapper nodes for a tree bottom-up, so each node's aggregates are computed after its children's.
+   */
+  private static Node wrap(TreeNode<Integer> node) {
+    if (node == null) {
+      return null;
+    }
+
+    ArrayStack<TreeNode<Integer>> stack = new ArrayStack<>();
+    ArrayStack<Node> built = new ArrayStack<>();
+    TreeNode<Integer> current = node;
+    TreeNode<Integer> lastVisited = null;
+
+    while (current != null || !stack.isEmpty()) {
+      if (current != null) {
+        stack.push(current);
+        current = current.left;
+        continue;
+      }
+      TreeNode<Integer> top = stack.peek();
+      if (top.right != null && top.right != lastVisited) {
+        current = top.right;
+        continue;
+      }
+      Node wrapped = new Node(top);
+      if (top.right != null) {
+        wrapped.right = built.pop();
+        wrapped.right.parent = wrapped;
+      }
+      if (top.left != null) {
+        wrapped.left = built.pop();
+        wrapped.left.parent = wrapped;
+      }
+      wrapped.refresh();
+      built.push(wrapped);
+      lastVisited = stack.pop();
+    }
+    return built.pop();
+  }
+}
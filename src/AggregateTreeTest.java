@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregateTreeTest {
+
+    private static void assertMatchesTraversals(AggregateTree tree) {
+        assertEquals(Traversals.sumLeafNodes(tree.root()), tree.sumLeafNodes());
+        assertEquals(Traversals.countInternalNodes(tree.root()), tree.countInternalNodes());
+        assertEquals(TreeStats.of(tree.root()).height(), tree.height());
+        assertEquals(TreeStats.of(tree.root()).nodeCount(), tree.size());
+    }
+
+    @Test
+    void testInitialAggregates() {
+        AggregateTree tree = AggregateTree.of(TestTrees.sample());
+        assertEquals(147, tree.sumLeafNodes());
+        assertEquals(4, tree.countInternalNodes());
+        assertEquals(4, tree.height());
+        assertEquals(8, tree.size());
+        assertEquals(47, tree.rootNode().left().leafSum());
+    }
+
+    @Test
+    void testSetValue() {
+        AggregateTree tree = AggregateTree.of(TestTrees.sample());
+        AggregateTree.Node leaf = tree.rootNode().right().left();
+        tree.setValue(leaf, 1);
+        assertEquals(48, tree.sumLeafNodes());
+        assertEquals(1, tree.root().right.left.value);
+        // Internal values do not contribute to the leaf sum.
+        tree.setValue(tree.rootNode(), 1000);
+        assertEquals(48, tree.sumLeafNodes());
+        assertMatchesTraversals(tree);
+    }
+
+    @Test
+    void testAttachAndDetach() {
+        AggregateTree tree = AggregateTree.of(TestTrees.sample());
+        AggregateTree.Node right = tree.rootNode().right();
+        AggregateTree.Node attached = tree.attachRight(right, new TreeNode<>(5, new TreeNode<>(6), null));
+        assertEquals(147 + 6, tree.sumLeafNodes());
+        assertEquals(5, tree.countInternalNodes());
+        assertMatchesTraversals(tree);
+
+        TreeNode<Integer> removed = tree.detach(tree.rootNode().left());
+        assertEquals(-5, removed.value);
+        assertNull(tree.root().left);
+        assertEquals(100 + 6, tree.sumLeafNodes());
+        assertEquals(4, tree.height());
+        assertMatchesTraversals(tree);
+
+        tree.detach(attached);
+        assertEquals(100, tree.sumLeafNodes());
+        assertMatchesTraversals(tree);
+
+        assertThrows(IllegalStateException.class, () -> tree.attachLeft(right, new TreeNode<>(1)));
+        assertThrows(IllegalArgumentException.class, () -> tree.setValue(attached, 3));
+    }
+
+    @Test
+    void testAttachNullSubtreeIsRejected() {
+        AggregateTree tree = AggregateTree.of(TestTrees.sample());
+        AggregateTree.Node right = tree.rootNode().right();
+        assertThrows(NullPointerException.class, () -> tree.attachLeft(right, null));
+        assertThrows(NullPointerException.class, () -> tree.attachRight(right, null));
+        assertNull(right.right());
+        assertMatchesTraversals(tree);
+        tree.attachRight(right, new TreeNode<>(8));
+        assertMatchesTraversals(tree);
+    }
+
+    @Test
+    void testDetachRootEmptiesTree() {
+        AggregateTree tree = AggregateTree.of(TestTrees.sample());
+        tree.detach(tree.rootNode());
+        assertNull(tree.root());
+        assertEquals(0, tree.sumLeafNodes());
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void testDeepTreeUpdates() {
+        TreeNode<Integer> root = null;
+        for (int i = 1_000_000; i >= 1; i--) {
+            root = new TreeNode<>(i, null, root);
+        }
+        AggregateTree tree = AggregateTree.of(root);
+        assertEquals(1_000_000, tree.height());
+        AggregateTree.Node deepest = tree.rootNode();
+        while (deepest.right() != null) {
+            deepest = deepest.right();
+        }
+        tree.attachLeft(deepest, new TreeNode<>(7));
+        assertEquals(7, tree.sumLeafNodes());
+        assertEquals(1_000_001, tree.height());
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.Arrays;
+
+/**
+ * A growable, array-backed LIFO stack used by the iterative traversals in place of the call stack.
+ * Unlike {@link java.util.Stack} it is unsynchronized, and unlike {@link java.util.ArrayDeque} it
+ * accepts null elements, so callers can push absent children without checking first.
+ * A stack can be cleared and reused across traversals to avoid reallocating its backing array.
+ *
+ * @param <E> the type of elements held in the stack
+ */
+public class ArrayStack<E> {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private Object[] elements;
+  private int size;
+
+  public ArrayStack() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public ArrayStack(int initialCapacity) {
+    elements = new Object[Math.max(1, initialCapacity)];
+  }
+
+  /**
+   * Pushes an element, which may be null, onto the top of the stack.
+   *
+   * @param element the element to push
+   */
+  public void push(E element) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size << 1);
+    }
+    elements[size++] = element;
+  }
+
+  /**
+   * Removes and returns the element on top of the stack.
+   *
+   * @return the top element
+   * @throws IllegalStateException if the stack is empty
+   */
+  @SuppressWarnings("unchecked")
+  public E pop() {
+    if (size == 0) {
+      throw new IllegalStateException("stack is empty");
+    }
+    E element = (E) elements[--size];
+    elements[size] = null;
+    return element;
+  }
+
+  /**
+   * Returns the element on top of the stack without removing it.
+   *
+   * @return the top element
+   * @throws IllegalStateException if the stack is empty
+   */
+  @SuppressWarnings("unchecked")
+  public E peek() {
+    if (size == 0) {
+      throw new IllegalStateException("stack is empty");
+    }
+    return (E) elements[size - 1];
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every element while keeping the backing array for reuse.
+   */
+  public void clear() {
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * A struct-of-arrays copy of a tree of integers, storing values in a primitive {@code int[]}.
+ * It uses the same pre-order layout as {@link CompactTree}: node {@code i} is described by
+ * {@code values[i]}, {@code left[i]} and {@code right[i]}, with -1 marking an absent child.
+ */
+public class CompactIntTree {
+  final int[] values;
+  final int[] left;
+  final int[] right;
+
+  private CompactIntTree(int[] values, int[] left, int[] right) {
+    this.values = values;
+    this.left = left;
+    this.right = right;
+  }
+
+  /**
+   * Builds a compact copy of the given tree, unboxing each value once.
+   * If node is null, returns an empty tree.
+   *
+   * @param node the root of the tree to copy
+   * @return the compact representation of the tree
+   */
+  public static CompactIntTree of(TreeNode<Integer> node) {
+    int size = CompactTree.countNodes(node);
+    int[] values = new int[size];
+    int[] left = new int[size];
+    int[] right = new int[size];
+    CompactTree.layout(node, left, right, (index, value) -> values[index] = value);
+    return new CompactIntTree(values, left, right);
+  }
+
+  /**
+   * Returns the number of nodes in the tree.
+   *
+   * @return the node count
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Returns the value stored at the given node index.
+   *
+   * @param index the node index, from 0 to {@code size() - 1}
+   * @return the node's value
+   */
+  public int value(int index) {
+    return values[index];
+  }
+
+  /**
+   * Returns the index of the left child of the given node, or -1 if it has none.
+   */
+  public int left(int index) {
+    return left[index];
+  }
+
+  /**
+   * Returns the index of the right child of the given node, or -1 if it has none.
+   */
+  public int right(int index) {
+    return right[index];
+  }
+}
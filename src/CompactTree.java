@@ -0,0 +1,143 @@
+/**
+ * A struct-of-arrays copy of a {@link TreeNode} tree. Node {@code i} is described by
+ * {@code values[i]}, {@code left[i]} and {@code right[i]}, where the child entries are indices
+ * into the same arrays, or -1 when the child is absent.
+ *
+ * <p>Nodes are laid out in pre-order, so the root is index 0, a node's left child (if any) is the
+ * next index, and every subtree occupies a contiguous range. Because the layout is determined by
+ * the shape alone, two trees have the same shape exactly when their child arrays are equal.
+ *
+ * @param <T> the type of values stored in the tree
+ */
+public class CompactTree<T> {
+  final Object[] values;
+  final int[] left;
+  final int[] right;
+
+  private CompactTree(Object[] values, int[] left, int[] right) {
+    this.values = values;
+    this.left = left;
+    this.right = right;
+  }
+
+  /**
+   * Builds a compact copy of the given tree. If node is null, returns an empty tree.
+   *
+   * @param node the root of the tree to copy
+   * @param <T>  the type of values stored in the tree
+   * @return the compact representation of the tree
+   */
+  public static <T> CompactTree<T> of(TreeNode<T> node) {
+    int size = countNodes(node);
+    Object[] values = new Object[size];
+    int[] left = new int[size];
+    int[] right = new int[size];
+    layout(node, left, right, (index, value) -> values[index] = value);
+    return new CompactTree<>(values, left, right);
+  }
+
+  /**
+   * Returns the number of nodes in the tree.
+   *
+   * @return the node count
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Returns the value stored at the given node index.
+   *
+   * @param index the node index, from 0 to {@code size() - 1}
+   * @return the node's value
+   */
+  @SuppressWarnings("unchecked")
+  public T value(int index) {
+    return (T) values[index];
+  }
+
+  /**
+   * Returns the index of the left child of the given node, or -1 if it has none.
+   */
+  public int left(int index) {
+    return left[index];
+  }
+
+  /**
+   * Returns the index of the right child of the given node, or -1 if it has none.
+   */
+  public int right(int index) {
+    return right[index];
+  }
+
+  /** Receives each node's value together with the index it was assigned. */
+  interface ValueSink<T> {
+    void accept(int index, T value);
+  }
+
+  static int countNodes(TreeNode<?> node) {
+    if (node == null) {
+      return 0;
+    }
+
+    int count = 0;
+    ArrayStack<TreeNode<?>> stack = new ArrayStack<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      TreeNode<?> current = stack.pop();
+      count++;
+      if (current.right != null) {
+        stack.push(current.right);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Assigns pre-order indices to the nodes of the given tree, filling in the child index arrays
+   * and handing each value to the sink. The arrays must hold at least as many entries as the tree has nodes.
+   */
+  static <T> void layout(TreeNode<T> node, int[] left, int[] right, ValueSink<T> sink) {
+    if (node == null) {
+      return;
+    }
+
+    // Each pending node is paired with the slot it fills: its parent's index for a
+    // left child, or the bitwise complement of that index for a right child.
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    IntStack slots = new IntStack();
+    int next = 0;
+    TreeNode<T> current = node;
+    int slot = 0;
+
+    while (true) {
+      int index = next++;
+      sink.accept(index, current.value);
+      left[index] = -1;
+      right[index] = -1;
+      if (index > 0) {
+        if (slot >= 0) {
+          left[slot] = index;
+        } else {
+          right[~slot] = index;
+        }
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+        slots.push(~index);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+        slots.push(index);
+      }
+      if (stack.isEmpty()) {
+        return;
+      }
+      current = stack.pop();
+      slot = slots.pop();
+    }
+  }
+}
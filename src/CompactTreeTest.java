@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+
+public class CompactTreeTest {
+
+    private static TreeNode<Integer> rightChain(int depth) {
+        TreeNode<Integer> root = null;
+        for (int i = depth; i >= 1; i--) {
+            root = new TreeNode<>(i, null, root);
+        }
+        return root;
+    }
+
+    // ---------------------------------------------------------
+    // Test: layout
+    // ---------------------------------------------------------
+
+    @Test
+    void testLayout_nullTree() {
+        assertEquals(0, CompactTree.of(null).size());
+        assertEquals(0, CompactIntTree.of(null).size());
+    }
+
+    @Test
+    void testLayout_preOrderIndices() {
+        CompactIntTree tree = CompactIntTree.of(TestTrees.sampleWithZero());
+        int[] expectedValues = {13, -5, 9, 0, 31, 9, 42, 100};
+        assertEquals(expectedValues.length, tree.size());
+        for (int i = 0; i < expectedValues.length; i++) {
+            assertEquals(expectedValues[i], tree.value(i));
+        }
+        assertEquals(1, tree.left(0));
+        assertEquals(6, tree.right(0));
+        assertEquals(7, tree.left(6));
+        assertEquals(-1, tree.right(6));
+        assertEquals(-1, tree.left(2));
+    }
+
+    // ---------------------------------------------------------
+    // Test: Traversals overloads
+    // ---------------------------------------------------------
+
+    @Test
+    void testIntMethods_matchLinkedTree() {
+        TreeNode<Integer> root = TestTrees.sampleWithZero();
+        CompactIntTree tree = CompactIntTree.of(root);
+        assertEquals(Traversals.sumLeafNodes(root), Traversals.sumLeafNodes(tree));
+        assertEquals(Traversals.countInternalNodes(root), Traversals.countInternalNodes(tree));
+        assertEquals(Traversals.countDistinctValues(root), Traversals.countDistinctValues(tree));
+        assertTrue(Traversals.hasStrictlyIncreasingPath(tree));
+    }
+
+    @Test
+    void testGenericMethods_matchLinkedTree() {
+        TreeNode<Integer> root = TestTrees.sampleWithZero();
+        CompactTree<Integer> tree = CompactTree.of(root);
+        assertEquals(Traversals.buildPostOrderString(root), Traversals.buildPostOrderString(tree));
+        assertEquals(Traversals.collectLevelOrderValues(root), Traversals.collectLevelOrderValues(tree));
+    }
+
+    @Test
+    void testHasStrictlyIncreasingPath_noPath() {
+        TreeNode<Integer> root = new TreeNode<>(7, new TreeNode<>(6), new TreeNode<>(6, new TreeNode<>(5), new TreeNode<>(4)));
+        assertFalse(Traversals.hasStrictlyIncreasingPath(CompactIntTree.of(root)));
+        assertFalse(Traversals.hasStrictlyIncreasingPath(CompactIntTree.of(null)));
+    }
+
+    @Test
+    void testHaveSameShape() {
+        CompactTree<Integer> a = CompactTree.of(TestTrees.sampleWithZero());
+        CompactTree<Integer> b = CompactTree.of(TestTrees.sampleWithZero());
+        CompactTree<Integer> c = CompactTree.of(new TreeNode<>(1, new TreeNode<>(2), null));
+        assertTrue(Traversals.haveSameShape(a, b));
+        assertFalse(Traversals.haveSameShape(a, c));
+        assertFalse(Traversals.haveSameShape(a, null));
+        assertTrue(Traversals.haveSameShape((CompactTree<Integer>) null, null));
+    }
+
+    @Test
+    void testHaveSameShape_intTrees() {
+        CompactIntTree a = CompactIntTree.of(TestTrees.sampleWithZero());
+        CompactIntTree b = CompactIntTree.of(TestTrees.sampleWithZero());
+        CompactIntTree c = CompactIntTree.of(new TreeNode<>(1, new TreeNode<>(2), null));
+        assertTrue(Traversals.haveSameShape(a, b));
+        assertFalse(Traversals.haveSameShape(a, c));
+        assertFalse(Traversals.haveSameShape(a, null));
+        assertTrue(Traversals.haveSameShape((CompactIntTree) null, null));
+    }
+
+    @Test
+    void testFindAllRootToLeafPaths() {
+        TreeNode<Integer> root = TestTrees.sampleWithZero();
+        assertEquals(Traversals.findAllRootToLeafPaths(root), Traversals.findAllRootToLeafPaths(CompactTree.of(root)));
+        assertEquals(List.of(List.of(13, -5, 9), List.of(13, -5, 0, 31), List.of(13, -5, 0, 9), List.of(13, 42, 100)),
+            Traversals.findAllRootToLeafPaths(CompactTree.of(root)));
+        assertEquals(Collections.emptyList(), Traversals.findAllRootToLeafPaths(CompactTree.of(null)));
+        assertEquals(Collections.emptyList(), Traversals.findAllRootToLeafPaths((CompactTree<Integer>) null));
+        assertEquals(1, Traversals.findAllRootToLeafPaths(CompactTree.of(rightChain(100_000))).size());
+    }
+
+    @Test
+    void testEmptyTree() {
+        CompactTree<String> empty = CompactTree.of(null);
+        assertEquals("", Traversals.buildPostOrderString(empty));
+        assertEquals(Collections.emptyList(), Traversals.collectLevelOrderValues(empty));
+        assertEquals(0, Traversals.sumLeafNodes(CompactIntTree.of(null)));
+    }
+
+    @Test
+    void testDeepTree() {
+        TreeNode<Integer> root = rightChain(1_000_000);
+        CompactIntTree tree = CompactIntTree.of(root);
+        assertEquals(1_000_000, Traversals.sumLeafNodes(tree));
+        assertEquals(999_999, Traversals.countInternalNodes(tree));
+        assertTrue(Traversals.hasStrictlyIncreasingPath(tree));
+        assertTrue(Traversals.buildPostOrderString(CompactTree.of(root)).endsWith("321"));
+    }
+
+    @Test
+    void testCountDistinctValues_sparseAndDenseRanges() {
+        TreeNode<Integer> dense = new TreeNode<>(3, new TreeNode<>(1), new TreeNode<>(3, new TreeNode<>(2), null));
+        TreeNode<Integer> sparse = new TreeNode<>(Integer.MIN_VALUE, new TreeNode<>(Integer.MAX_VALUE), new TreeNode<>(0));
+        assertEquals(3, Traversals.countDistinctValues(CompactIntTree.of(dense)));
+        assertEquals(3, Traversals.countDistinctValues(CompactIntTree.of(sparse)));
+    }
+}
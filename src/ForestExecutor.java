@@ -0,0 +1,471 @@
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a {@link Traversals} operation, or any other function of a tree, over every root of a forest
+ * concurrently. Each tree is traversed on its own virtual thread when the runtime supports them
+ * (Java 21 and later); otherwise a fixed pool of platform threads is used. At most
+ * {@code maxConcurrency} trees are in flight per run, where a tree stays in flight until its result
+ * has been read and its thread has returned, so a slow reader holds back new work instead of letting
+ * results pile up, and a timed-out traversal that ignores its interrupt keeps its slot.
+ * Roots are read lazily, so a forest of any size can be streamed through a run.
+ *
+ * <p>Results are read from a {@link Run}, in either input or completion order. A tree that fails
+ * or exceeds the per-tree timeout yields a result with that status instead of ending the run.
+ * The timeout of a tree starts when its traversal starts, not while it waits for a thread.
+ * A timed-out or cancelled traversal is interrupted; traversals themselves do not check for
+ * interruption, but lazily loaded children that block on I/O usually do.
+ */
+public class ForestExecutor implements AutoCloseable {
+
+  /** The order in which a run hands back results. */
+  public enum Order {
+    /** The order of the roots. A slow tree holds back the results of later trees. */
+    INPUT,
+    /** The order in which trees finish. */
+    COMPLETION
+  }
+
+  /**
+   * The outcome of one tree in a run.
+   *
+   * @param <R> the type of the operation's result
+   */
+  public static final class Result<R> {
+    /** How a tree's traversal ended. */
+    public enum Status {
+      COMPLETED, FAILED, TIMED_OUT
+    }
+
+    private final int index;
+    private final Status status;
+    private final R value;
+    private final Throwable failure;
+    /** Called once the result has been read, to free its tree's slot; null if it holds none. */
+    private Runnable onRead;
+
+    private Result(int index, Status status, R value, Throwable failure) {
+      this.index = index;
+      this.status = status;
+      this.value = value;
+      this.failure = failure;
+    }
+
+    /** Returns the position of the tree's root in the input, starting at 0. */
+    public int index() {
+      return index;
+    }
+
+    public Status status() {
+      return status;
+    }
+
+    /**
+     * Returns the operation's result.
+     *
+     * @return the result, which may be null if the operation returned null
+     * @throws IllegalStateException if the traversal failed or timed out
+     */
+    public R value() {
+      if (status != Status.COMPLETED) {
+        throw new IllegalStateException("tree " + index + " " + status, failure);
+      }
+      return value;
+    }
+
+    /** Returns what the operation threw, or null if it did not fail. */
+    public Throwable failure() {
+      return failure;
+    }
+
+    @Override
+    public String toString() {
+      return "Result[" + index + ", " + status + (status == Status.COMPLETED ? ", " + value : "") + "]";
+    }
+  }
+
+  private final int maxConcurrency;
+  private final boolean virtualThreads;
+  private final ExecutorService executor;
+  private final ScheduledExecutorService timer;
+
+  /**
+   * Creates an executor that traverses up to the given number of trees at once per run.
+   *
+   * @param maxConcurrency the most trees in flight per run
+   * @throws IllegalArgumentException if maxConcurrency is not positive
+   */
+  public ForestExecutor(int maxConcurrency) {
+    if (maxConcurrency <= 0) {
+      throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+    }
+    this.maxConcurrency = maxConcurrency;
+    ExecutorService virtual = newVirtualThreadExecutor();
+    this.virtualThreads = virtual != null;
+    this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(maxConcurrency, daemon("forest-worker"));
+    ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemon("forest-timer"));
+    timer.setRemoveOnCancelPolicy(true);
+    this.timer = timer;
+  }
+
+  /**
+   * Returns {@code Executors.newVirtualThreadPerTaskExecutor()} when the runtime has it.
+   * It is looked up reflectively so the code still compiles and runs on Java 17.
+   */
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static ThreadFactory daemon(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** Returns whether trees are traversed on virtual threads. */
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Starts applying the operation to every root, with no per-tree timeout.
+   *
+   * @param roots     the roots of the forest; null roots are passed to the operation as is
+   * @param operation the operation to apply to each root, such as {@code Traversals::sumLeafNodes}
+   * @param order     the order in which to hand back results
+   * @param <T>       the type of values stored in the trees
+   * @param <R>       the type of the operation's result
+   * @return the run, from which results are read
+   */
+  public <T, R> Run<R> run(Iterable<? extends TreeNode<T>> roots,
+      Function<? super TreeNode<T>, ? extends R> operation, Order order) {
+    return run(roots, operation, order, 0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Starts applying the operation to every root. A tree whose operation has not returned within
+   * the timeout yields a {@link Result.Status#TIMED_OUT} result and its thread is interrupted.
+   *
+   * @param roots     the roots of the forest; null roots are passed to the operation as is
+   * @param operation the operation to apply to each root, such as {@code Traversals::sumLeafNodes}
+   * @param order     the order in which to hand back results
+   * @param timeout   the time allowed per tree, or 0 for no limit
+   * @param unit      the unit of the timeout
+   * @param <T>       the type of values stored in the trees
+   * @param <R>       the type of the operation's result
+   * @return the run, from which results are read
+   */
+  public <T, R> Run<R> run(Iterable<? extends TreeNode<T>> roots,
+      Function<? super TreeNode<T>, ? extends R> operation, Order order, long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must not be negative: " + timeout);
+    }
+    Run<R> run = new Run<>(order);
+    run.start(roots.iterator(), operation, unit.toNanos(timeout));
+    return run;
+  }
+
+  /**
+   * Stops every thread of this executor, interrupting traversals still running. Trees that were
+   * submitted but had not started yield {@link Result.Status#FAILED} results, so readers of open
+   * runs still reach the end of them.
+   */
+  @Override
+  public void close() {
+    for (Runnable dropped : executor.shutdownNow()) {
+      if (dropped instanceof Droppable) {
+        ((Droppable) dropped).drop();
+      }
+    }
+    timer.shutdownNow();
+  }
+
+  /** A submitted task that can be failed without running when the executor shuts down. */
+  private interface Droppable {
+    void drop();
+  }
+
+  /**
+   * The results of one run over a forest, read as an iterator or a stream. A run is read by a single
+   * thread; {@link #next()} blocks until the next result is ready. Closing the run cancels it.
+   *
+   * @param <R> the type of the operation's result
+   */
+  public final class Run<R> implements Iterator<Result<R>>, AutoCloseable {
+    /** Queued by the feeder once every root has been submitted, and by {@link #cancel()}. */
+    private final Result<R> wakeUp = new Result<>(-1, null, null, null);
+
+    private final Order order;
+    private final Semaphore permits = new Semaphore(maxConcurrency);
+    private final BlockingQueue<Result<R>> finished = new LinkedBlockingQueue<>();
+    private final Set<Task<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Result<R>> early = new HashMap<>();
+    private volatile boolean cancelled;
+    private volatile int total = -1;
+    private Thread feeder;
+    private int delivered;
+    private Result<R> ready;
+
+    private Run(Order order) {
+      this.order = order;
+    }
+
+    private <T> void start(Iterator<? extends TreeNode<T>> roots,
+        Function<? super TreeNode<T>, ? extends R> operation, long timeoutNanos) {
+      feeder = daemon("forest-feeder").newThread(() -> {
+        int submitted = 0;
+        try {
+          while (!cancelled && !executor.isShutdown() && roots.hasNext()) {
+            TreeNode<T> root = roots.next();
+            permits.acquire();
+            if (cancelled) {
+              break;
+            }
+            submit(new Task<>(submitted++, root, operation, timeoutNanos));
+          }
+        } catch (InterruptedException e) {
+          // Cancelled while waiting for a permit.
+        } finally {
+          total = submitted;
+          finished.add(wakeUp);
+        }
+      });
+      feeder.start();
+    }
+
+    private void submit(Task<?> task) {
+      inFlight.add(task);
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        task.fail(e);
+      }
+    }
+
+    /**
+     * Applies the operation to one root and reports the first of its result or its timeout.
+     * The task holds its run's permit twice over, once for its thread and once for its result,
+     * and the permit is released when both are given up: when the thread returns, or the task is
+     * dropped before it starts, and when the result has been read.
+     */
+    private final class Task<T> implements Runnable, Droppable {
+      private static final int NEW = 0;
+      private static final int RUNNING = 1;
+      private static final int SKIPPED = 2;
+
+      final int index;
+      final TreeNode<T> root;
+      final Function<? super TreeNode<T>, ? extends R> operation;
+      final long timeoutNanos;
+      final AtomicBoolean done = new AtomicBoolean();
+      final AtomicInteger state = new AtomicInteger(NEW);
+      final AtomicInteger holds = new AtomicInteger(2);
+      /** The thread running the operation, set only while it may be interrupted; guarded by this. */
+      private Thread runner;
+      volatile ScheduledFuture<?> timeout;
+
+      Task(int index, TreeNode<T> root, Function<? super TreeNode<T>, ? extends R> operation, long timeoutNanos) {
+        this.index = index;
+        this.root = root;
+        this.operation = operation;
+        this.timeoutNanos = timeoutNanos;
+      }
+
+      @Override
+      public void run() {
+        if (!state.compareAndSet(NEW, RUNNING)) {
+          return;
+        }
+        synchronized (this) {
+          runner = Thread.currentThread();
+        }
+        try {
+          if (timeoutNanos > 0) {
+            timeout = timer.schedule(() -> {
+              if (complete(new Result<>(index, Result.Status.TIMED_OUT, null, null))) {
+                interrupt();
+              }
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+          }
+          Result<R> result;
+          try {
+            result = new Result<>(index, Result.Status.COMPLETED, operation.apply(root), null);
+          } catch (Throwable e) {
+            result = new Result<>(index, Result.Status.FAILED, null, e);
+          }
+          complete(result);
+        } catch (RejectedExecutionException e) {
+          // The timer was shut down by close() before the timeout could be scheduled.
+          complete(new Result<>(index, Result.Status.FAILED, null, e));
+        } finally {
+          synchronized (this) {
+            runner = null;
+          }
+          // Do not leak a late interrupt into the next task run on a pooled thread.
+          Thread.interrupted();
+          release();
+        }
+      }
+
+      /** Interrupts the operation if it is still running. */
+      synchronized void interrupt() {
+        if (runner != null) {
+          runner.interrupt();
+        }
+      }
+
+      /**
+       * Keeps the task from starting if it has not started yet, giving up its thread's hold.
+       *
+       * @return true if the task will never run
+       */
+      boolean skip() {
+        if (state.compareAndSet(NEW, SKIPPED)) {
+          release();
+          return true;
+        }
+        return false;
+      }
+
+      /** Fails a task that could not be run. */
+      void fail(Throwable cause) {
+        if (skip()) {
+          complete(new Result<>(index, Result.Status.FAILED, null, cause));
+        }
+      }
+
+      @Override
+      public void drop() {
+        fail(new CancellationException("executor closed before tree " + index + " started"));
+      }
+
+      /** Gives up one of the task's two holds on its permit. */
+      void release() {
+        if (holds.decrementAndGet() == 0) {
+          permits.release();
+        }
+      }
+
+      boolean complete(Result<R> result) {
+        if (!done.compareAndSet(false, true)) {
+          return false;
+        }
+        ScheduledFuture<?> pending = timeout;
+        if (pending != null) {
+          pending.cancel(false);
+        }
+        inFlight.remove(this);
+        result.onRead = this::release;
+        finished.add(result);
+        return true;
+      }
+    }
+
+    /**
+     * Returns whether another result will be handed back, blocking until that is known.
+     * Returns false once every root has been handed back or the run was cancelled.
+     */
+    @Override
+    public boolean hasNext() {
+      if (ready == null && !cancelled) {
+        ready = advance();
+      }
+      return ready != null && !cancelled;
+    }
+
+    /**
+     * Returns the next result, blocking until it is ready.
+     *
+     * @throws NoSuchElementException if every result has been handed back or the run was cancelled
+     */
+    @Override
+    public Result<R> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Result<R> result = ready;
+      ready = null;
+      delivered++;
+      result.onRead.run();
+      return result;
+    }
+
+    private Result<R> advance() {
+      while (!cancelled) {
+        if (order == Order.INPUT) {
+          Result<R> next = early.remove(delivered);
+          if (next != null) {
+            return next;
+          }
+        }
+        if (delivered == total) {
+          return null;
+        }
+        Result<R> result;
+        try {
+          result = finished.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          cancel();
+          return null;
+        }
+        if (result == wakeUp) {
+          continue;
+        }
+        if (order == Order.COMPLETION) {
+          return result;
+        }
+        early.put(result.index, result);
+      }
+      return null;
+    }
+
+    /**
+     * Returns the remaining results as a sequential stream. Closing the stream cancels the run.
+     */
+    public Stream<Result<R>> stream() {
+      Spliterator<Result<R>> spliterator =
+          Spliterators.spliteratorUnknownSize(this, Spliterator.NONNULL | Spliterator.ORDERED);
+      return StreamSupport.stream(spliterator, false).onClose(this::cancel);
+    }
+
+    /**
+     * Stops submitting trees and interrupts those still running. Results not yet handed back are
+     * discarded, and {@link #hasNext()} returns false from then on.
+     */
+    public void cancel() {
+      cancelled = true;
+      if (feeder != null) {
+        feeder.interrupt();
+      }
+      for (Task<?> task : inFlight) {
+        if (!task.skip()) {
+          task.interrupt();
+        }
+      }
+      finished.add(wakeUp);
+    }
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public void close() {
+      cancel();
+    }
+  }
+}
@@ -0,0 +1,183 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class ForestExecutorTest {
+
+    private static List<TreeNode<Integer>> forest(int size) {
+        List<TreeNode<Integer>> roots = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            roots.add(new TreeNode<>(i, new TreeNode<>(i), i % 3 == 0 ? null : new TreeNode<>(2 * i)));
+        }
+        return roots;
+    }
+
+    @Test
+    void testInputOrderMatchesSequentialResults() {
+        List<TreeNode<Integer>> roots = forest(500);
+        roots.set(7, null);
+        try (ForestExecutor executor = new ForestExecutor(8)) {
+            List<Integer> results = executor.run(roots, Traversals::sumLeafNodes, ForestExecutor.Order.INPUT)
+                .stream()
+                .map(ForestExecutor.Result::value)
+                .collect(Collectors.toList());
+            List<Integer> expected = roots.stream().map(Traversals::sumLeafNodes).collect(Collectors.toList());
+            assertEquals(expected, results);
+        }
+    }
+
+    @Test
+    void testCompletionOrderReturnsEveryTreeOnce() {
+        List<TreeNode<Integer>> roots = forest(300);
+        try (ForestExecutor executor = new ForestExecutor(4)) {
+            Set<Integer> indices = new HashSet<>();
+            ForestExecutor.Run<Integer> run = executor.run(roots, Traversals::countInternalNodes, ForestExecutor.Order.COMPLETION);
+            while (run.hasNext()) {
+                ForestExecutor.Result<Integer> result = run.next();
+                assertTrue(indices.add(result.index()));
+                assertEquals(1, result.value());
+            }
+            assertEquals(300, indices.size());
+            assertThrows(NoSuchElementException.class, run::next);
+        }
+    }
+
+    @Test
+    void testEmptyForest() {
+        try (ForestExecutor executor = new ForestExecutor(2)) {
+            assertFalse(executor.run(List.<TreeNode<Integer>>of(), Traversals::sumLeafNodes, ForestExecutor.Order.INPUT).hasNext());
+        }
+    }
+
+    @Test
+    void testConcurrencyIsBounded() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        try (ForestExecutor executor = new ForestExecutor(3)) {
+            long completed = executor.run(forest(60), root -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+                return Traversals.sumLeafNodes(root);
+            }, ForestExecutor.Order.COMPLETION).stream().count();
+            assertEquals(60, completed);
+        }
+        assertTrue(peak.get() <= 3, "peak concurrency " + peak.get());
+    }
+
+    @Test
+    void testFailuresAndTimeoutsAreReportedPerTree() {
+        List<TreeNode<Integer>> roots = forest(20);
+        try (ForestExecutor executor = new ForestExecutor(4)) {
+            List<ForestExecutor.Result<Integer>> results = executor.run(roots, root -> {
+                if (root.value == 5) {
+                    throw new IllegalArgumentException("bad tree");
+                }
+                if (root.value == 9) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return Traversals.sumLeafNodes(root);
+            }, ForestExecutor.Order.INPUT, 100, TimeUnit.MILLISECONDS).stream().collect(Collectors.toList());
+
+            assertEquals(20, results.size());
+            assertEquals(ForestExecutor.Result.Status.FAILED, results.get(5).status());
+            assertTrue(results.get(5).failure() instanceof IllegalArgumentException);
+            assertThrows(IllegalStateException.class, results.get(5)::value);
+            assertEquals(ForestExecutor.Result.Status.TIMED_OUT, results.get(9).status());
+            assertEquals(ForestExecutor.Result.Status.COMPLETED, results.get(10).status());
+            assertEquals(30, results.get(10).value());
+        }
+    }
+
+    @Test
+    void testCancelStopsTheRun() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+        try (ForestExecutor executor = new ForestExecutor(2)) {
+            ForestExecutor.Run<Integer> run = executor.run(forest(1000), root -> {
+                if (root.value == 1) {
+                    blocked.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.incrementAndGet();
+                    }
+                }
+                return 0;
+            }, ForestExecutor.Order.INPUT);
+            assertTrue(run.hasNext());
+            run.next();
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            run.cancel();
+            assertTrue(run.isCancelled());
+            assertFalse(run.hasNext());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (interrupted.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, interrupted.get());
+    }
+
+    @Test
+    void testTimeoutStartsWhenTheTreeStarts() {
+        // Tree 0 ignores its interrupt and keeps the only thread for a second after timing out.
+        try (ForestExecutor executor = new ForestExecutor(1)) {
+            List<ForestExecutor.Result<Integer>> results = executor.run(forest(4), root -> {
+                if (root.value == 0) {
+                    long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return Traversals.sumLeafNodes(root);
+            }, ForestExecutor.Order.INPUT, 200, TimeUnit.MILLISECONDS).stream().collect(Collectors.toList());
+
+            assertEquals(ForestExecutor.Result.Status.TIMED_OUT, results.get(0).status());
+            for (int i = 1; i < 4; i++) {
+                assertEquals(ForestExecutor.Result.Status.COMPLETED, results.get(i).status(), "tree " + i);
+            }
+        }
+    }
+
+    @Test
+    void testCloseFailsTreesThatNeverStarted() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        ForestExecutor executor = new ForestExecutor(1);
+        executor.run(forest(1), root -> {
+            blocked.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }, ForestExecutor.Order.INPUT);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // The only thread is busy, so this run's tree waits in the pool's queue.
+        ForestExecutor.Run<Integer> queued = executor.run(forest(1), Traversals::sumLeafNodes, ForestExecutor.Order.INPUT);
+        List<ForestExecutor.Result<Integer>> results = Collections.synchronizedList(new ArrayList<>());
+        Thread reader = new Thread(() -> queued.forEachRemaining(results::add));
+        reader.start();
+        Thread.sleep(100);
+        executor.close();
+        reader.join(5_000);
+        assertFalse(reader.isAlive());
+        assertEquals(1, results.size());
+        assertEquals(ForestExecutor.Result.Status.FAILED, results.get(0).status());
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * A HyperLogLog sketch that estimates the number of distinct {@code int}s added to it in a fixed
+ * amount of memory: one byte per register, with {@code 2^precision} registers. The relative
+ * standard error of the estimate is about {@code 1.04 / sqrt(2^precision)}.
+ *
+ * <p>Sketches with the same precision can be merged, and the merged sketch estimates the distinct
+ * count of the union of their inputs, so a count can be split across threads and combined.
+ */
+public class HyperLogLog {
+  /** The smallest supported precision, 16 registers. */
+  public static final int MIN_PRECISION = 4;
+  /** The largest supported precision, 256 KiB of registers. */
+  public static final int MAX_PRECISION = 18;
+
+  private final int precision;
+  private final byte[] registers;
+
+  /**
+   * Creates an empty sketch with {@code 2^precision} registers.
+   *
+   * @param precision the number of index bits, from {@link #MIN_PRECISION} to {@link #MAX_PRECISION}
+   * @throws IllegalArgumentException if the precision is out of range
+   */
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("precision must be between " + MIN_PRECISION
+          + " and " + MAX_PRECISION + ": " + precision);
+    }
+    this.precision = precision;
+    registers = new byte[1 << precision];
+  }
+
+  /**
+   * Creates an empty sketch with the fewest registers whose relative standard error is at most
+   * the given bound, or with {@link #MAX_PRECISION} if the bound is tighter than that allows.
+   *
+   * @param relativeError the target relative standard error, such as 0.01 for 1%
+   * @return a new sketch
+   * @throws IllegalArgumentException if the bound is not positive
+   */
+  public static HyperLogLog withRelativeError(double relativeError) {
+    if (!(relativeError > 0)) {
+      throw new IllegalArgumentException("relative error must be positive: " + relativeError);
+    }
+    double registersNeeded = Math.pow(1.04 / relativeError, 2);
+    int precision = MIN_PRECISION;
+    while (precision < MAX_PRECISION && (1 << precision) < registersNeeded) {
+      precision++;
+    }
+    return new HyperLogLog(precision);
+  }
+
+  public int precision() {
+    return precision;
+  }
+
+  /**
+   * Records a value in the sketch.
+   *
+   * @param value the value to add
+   */
+  public void add(int value) {
+    long hash = mix(value);
+    int index = (int) (hash >>> (64 - precision));
+    // A sentinel bit below the remaining hash bits caps the rank for an all-zero remainder.
+    long rest = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * Folds another sketch into this one, so this sketch estimates the union of both inputs.
+   *
+   * @param other a sketch with the same precision
+   * @throws IllegalArgumentException if the precisions differ
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+    }
+    for (int i = 0; i < registers.length; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * Returns the estimated number of distinct values added so far.
+   *
+   * @return the estimate, rounded to the nearest whole number
+   */
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double raw = alpha(m) * m * m / sum;
+    // Small cardinalities are estimated more accurately by linear counting of empty registers.
+    if (raw <= 2.5 * m && zeros > 0) {
+      return Math.round(m * Math.log((double) m / zeros));
+    }
+    return Math.round(raw);
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / m);
+    }
+  }
+
+  private static long mix(int value) {
+    long z = value * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
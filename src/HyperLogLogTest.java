@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    void testEmptySketch() {
+        assertEquals(0, new HyperLogLog(10).estimate());
+    }
+
+    @Test
+    void testEstimateWithinErrorBound() {
+        HyperLogLog sketch = HyperLogLog.withRelativeError(0.01);
+        int distinct = 1_000_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(i * 7919);
+            sketch.add(i * 7919);
+        }
+        // Allow four standard errors of slack.
+        assertEquals(distinct, sketch.estimate(), distinct * 0.04);
+    }
+
+    @Test
+    void testSmallCountsAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int i = -50; i < 50; i++) {
+            sketch.add(i);
+        }
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    void testMergeEstimatesUnion() {
+        HyperLogLog a = new HyperLogLog(14);
+        HyperLogLog b = new HyperLogLog(14);
+        for (int i = 0; i < 60_000; i++) {
+            a.add(i);
+            b.add(i + 40_000);
+        }
+        a.merge(b);
+        assertEquals(100_000, a.estimate(), 100_000 * 0.04);
+        assertThrows(IllegalArgumentException.class, () -> a.merge(new HyperLogLog(12)));
+    }
+
+    @Test
+    void testPrecisionFromErrorBound() {
+        assertEquals(14, HyperLogLog.withRelativeError(0.01).precision());
+        assertEquals(HyperLogLog.MAX_PRECISION, HyperLogLog.withRelativeError(1e-6).precision());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.withRelativeError(0));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * A set of {@code int}s drawn from a fixed range {@code [min, max]}, stored as one bit per
+ * possible value. When the range is dense relative to the number of values it is smaller and
+ * faster than a hash set, since adding a value is a single bit operation with no probing.
+ */
+public class IntBitmap {
+  private final long[] words;
+  private final int min;
+  private final int max;
+  private int size;
+
+  /**
+   * Creates an empty bitmap covering the given inclusive range.
+   *
+   * @param min the smallest value the bitmap can hold
+   * @param max the largest value the bitmap can hold
+   * @throws IllegalArgumentException if the range is empty or wider than 2^31 values
+   */
+  public IntBitmap(int min, int max) {
+    long range = (long) max - min + 1;
+    if (range <= 0 || range > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("unsupported range [" + min + ", " + max + "]");
+    }
+    this.min = min;
+    this.max = max;
+    words = new long[(int) ((range + 63) >>> 6)];
+  }
+
+  /**
+   * Returns whether a bitmap over the given range would use no more memory than an
+   * {@link IntHashSet} holding the given number of values, which needs at least eight bytes per value.
+   *
+   * @param min   the smallest value in the range
+   * @param max   the largest value in the range
+   * @param count the number of values to be added
+   * @return true if a bitmap is the smaller representation
+   */
+  public static boolean fits(int min, int max, int count) {
+    long range = (long) max - min + 1;
+    return range > 0 && range <= Integer.MAX_VALUE && range <= 64L * count;
+  }
+
+  /**
+   * Adds a value to the set.
+   *
+   * @param value the value to add
+   * @return true if the value was not already present
+   * @throws IllegalArgumentException if the value is outside the bitmap's range
+   */
+  public boolean add(int value) {
+    if (value < min || value > max) {
+      throw new IllegalArgumentException(value + " is outside [" + min + ", " + max + "]");
+    }
+    int bit = value - min;
+    long mask = 1L << bit;
+    long word = words[bit >>> 6];
+    if ((word & mask) != 0) {
+      return false;
+    }
+    words[bit >>> 6] = word | mask;
+    size++;
+    return true;
+  }
+
+  public boolean contains(int value) {
+    if (value < min || value > max) {
+      return false;
+    }
+    int bit = value - min;
+    return (words[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  public int size() {
+    return size;
+  }
+}
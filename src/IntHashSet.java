@@ -0,0 +1,165 @@
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash set of primitive {@code int}s with linear probing.
+ * Values are stored directly in an {@code int[]}, so adding a value never allocates a node or a box.
+ * Zero is used as the empty-slot marker and is tracked with a separate flag.
+ */
+public class IntHashSet {
+  private static final int DEFAULT_CAPACITY = 16;
+  /** The largest power-of-two array length; the set stops growing once it is reached. */
+  private static final int MAX_CAPACITY = 1 << 30;
+  /** Tables up to this length are always cleared with one fill, which beats visiting the used slots. */
+  private static final int SPARSE_CLEAR_THRESHOLD = 1 << 10;
+
+  private int[] slots;
+  private int mask;
+  private int size;
+  private boolean containsZero;
+  /** The indices of the occupied slots, in the first {@code size} (less the zero) entries; grown on demand. */
+  private int[] used = new int[DEFAULT_CAPACITY / 2];
+
+  public IntHashSet() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a set sized to hold the given number of values without rehashing.
+   *
+   * Sizes beyond what the largest table can hold at half load are clamped to that table.
+   *
+   * @param expectedSize the number of values expected to be added
+   */
+  public IntHashSet(int expectedSize) {
+    int capacity = (int) Math.min(MAX_CAPACITY, Long.highestOneBit(Math.max(4L, expectedSize) * 2 - 1) << 1);
+    slots = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Adds a value to the set.
+   *
+   * @param value the value to add
+   * @return true if the value was not already present
+   * @throws IllegalStateException if the value is new and the set is at its maximum capacity
+   */
+  public boolean add(int value) {
+    if (value == 0) {
+      if (containsZero) {
+        return false;
+      }
+      containsZero = true;
+      size++;
+      return true;
+    }
+
+    int i = mix(value) & mask;
+    while (slots[i] != 0) {
+      if (slots[i] == value) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    // At maximum capacity the table fills past half load, but one slot is kept empty so probes end.
+    int stored = containsZero ? size - 1 : size;
+    if (stored == slots.length - 1) {
+      throw new IllegalStateException("set is full at " + size + " values");
+    }
+    slots[i] = value;
+    markUsed(i, stored);
+    size++;
+    // Keep the load factor at or below one half so probe sequences stay short.
+    if ((long) size * 2 > slots.length && slots.length < MAX_CAPACITY) {
+      rehash(slots.length << 1);
+    }
+    return true;
+  }
+
+  /**
+   * Adds every value of another set to this one.
+   *
+   * @param other the set whose values are added
+   */
+  public void addAll(IntHashSet other) {
+    if (other.containsZero) {
+      add(0);
+    }
+    for (int value : other.slots) {
+      if (value != 0) {
+        add(value);
+      }
+    }
+  }
+
+  public boolean contains(int value) {
+    if (value == 0) {
+      return containsZero;
+    }
+    int i = mix(value) & mask;
+    while (slots[i] != 0) {
+      if (slots[i] == value) {
+        return true;
+      }
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes every value. The backing array is kept at its size, so a set reused for batches of
+   * mixed sizes allocates nothing once it has grown to fit the largest. When the set holds few
+   * values for its capacity, as after one large batch followed by small ones, only the slots they
+   * occupy are cleared, so clearing costs time in proportion to the values removed rather than to
+   * the largest size the set ever reached.
+   */
+  public void clear() {
+    int stored = containsZero ? size - 1 : size;
+    if (slots.length > SPARSE_CLEAR_THRESHOLD && (long) stored * 8 < slots.length) {
+      for (int k = 0; k < stored; k++) {
+        slots[used[k]] = 0;
+      }
+    } else {
+      Arrays.fill(slots, 0);
+    }
+    size = 0;
+    containsZero = false;
+  }
+
+  private void rehash(int capacity) {
+    int[] old = slots;
+    slots = new int[capacity];
+    mask = capacity - 1;
+    int stored = 0;
+    for (int value : old) {
+      if (value != 0) {
+        int i = mix(value) & mask;
+        while (slots[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        markUsed(i, stored++);
+      }
+    }
+  }
+
+  /** Records that slot {@code index} holds the {@code n}th stored value, growing the record if needed. */
+  private void markUsed(int index, int n) {
+    if (n == used.length) {
+      used = Arrays.copyOf(used, Math.min(MAX_CAPACITY, n * 2));
+    }
+    used[n] = index;
+  }
+
+  private static int mix(int value) {
+    int h = value * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,65 @@
+import java.util.Arrays;
+
+/**
+ * A growable LIFO stack of primitive {@code int}s, used alongside {@link ArrayStack}
+ * to carry per-node state such as parent values or indices without boxing.
+ */
+public class IntStack {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] elements;
+  private int size;
+
+  public IntStack() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public IntStack(int initialCapacity) {
+    elements = new int[Math.max(1, initialCapacity)];
+  }
+
+  public void push(int element) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size << 1);
+    }
+    elements[size++] = element;
+  }
+
+  /**
+   * Removes and returns the element on top of the stack.
+   *
+   * @return the top element
+   * @throws IllegalStateException if the stack is empty
+   */
+  public int pop() {
+    if (size == 0) {
+      throw new IllegalStateException("stack is empty");
+    }
+    return elements[--size];
+  }
+
+  /**
+   * Returns the element on top of the stack without removing it.
+   *
+   * @return the top element
+   * @throws IllegalStateException if the stack is empty
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new IllegalStateException("stack is empty");
+    }
+    return elements[size - 1];
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+}
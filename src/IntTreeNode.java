@@ -0,0 +1,57 @@
+/**
+ * A binary tree node that stores a primitive {@code int} value.
+ * It mirrors {@link TreeNode} for integer trees without boxing each value into an {@link Integer},
+ * which roughly halves the heap used per node and lets traversals read values without unboxing.
+ */
+public class IntTreeNode {
+  int value;
+  IntTreeNode left;
+  IntTreeNode right;
+
+  public IntTreeNode(int data, IntTreeNode left, IntTreeNode right) {
+    value = data;
+    this.left = left;
+    this.right = right;
+  }
+
+  public IntTreeNode(int data) {
+    this(data, null, null);
+  }
+
+  /**
+   * Converts a tree of boxed integers into an equivalent tree of {@code IntTreeNode}s,
+   * unboxing each value exactly once. The conversion is iterative, so it works on trees of any depth.
+   * If node is null, returns null.
+   *
+   * @param node the root of the tree to convert
+   * @return the root of the converted tree, or null if the tree is null
+   */
+  public static IntTreeNode from(TreeNode<Integer> node) {
+    if (node == null) {
+      return null;
+    }
+
+    IntTreeNode root = new IntTreeNode(node.value);
+    // Source and target nodes are pushed in pairs so both trees are built in lockstep.
+    ArrayStack<Object> stack = new ArrayStack<>();
+    stack.push(node);
+    stack.push(root);
+
+    while (!stack.isEmpty()) {
+      IntTreeNode target = (IntTreeNode) stack.pop();
+      @SuppressWarnings("unchecked")
+      TreeNode<Integer> source = (TreeNode<Integer>) stack.pop();
+      if (source.left != null) {
+        target.left = new IntTreeNode(source.left.value);
+        stack.push(source.left);
+        stack.push(target.left);
+      }
+      if (source.right != null) {
+        target.right = new IntTreeNode(source.right.value);
+        stack.push(source.right);
+        stack.push(target.right);
+      }
+    }
+    return root;
+  }
+}
@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A region of a file mapped into memory as a series of {@link MappedByteBuffer} segments, so that
+ * regions larger than the 2 GiB limit of a single buffer can be addressed with {@code long} offsets.
+ * Values are stored little-endian. Reads and writes that straddle a segment boundary are assembled
+ * byte by byte; all others go straight to the underlying buffer.
+ */
+class MappedRegion {
+  private static final int SEGMENT_SHIFT = 30;
+  private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+  private static final int SEGMENT_MASK = (int) (SEGMENT_SIZE - 1);
+
+  private final MappedByteBuffer[] segments;
+  private final long size;
+
+  MappedRegion(FileChannel channel, FileChannel.MapMode mode, long position, long size) throws IOException {
+    this.size = size;
+    int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+    segments = new MappedByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      long offset = (long) i << SEGMENT_SHIFT;
+      segments[i] = channel.map(mode, position + offset, Math.min(SEGMENT_SIZE, size - offset));
+      segments[i].order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  byte get(long offset) {
+    return segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) offset & SEGMENT_MASK);
+  }
+
+  int getInt(long offset) {
+    int within = (int) offset & SEGMENT_MASK;
+    if (within <= SEGMENT_SIZE - Integer.BYTES) {
+      return segments[(int) (offset >>> SEGMENT_SHIFT)].getInt(within);
+    }
+    int value = 0;
+    for (int i = Integer.BYTES - 1; i >= 0; i--) {
+      value = (value << 8) | (get(offset + i) & 0xFF);
+    }
+    return value;
+  }
+
+  long getLong(long offset) {
+    int within = (int) offset & SEGMENT_MASK;
+    if (within <= SEGMENT_SIZE - Long.BYTES) {
+      return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong(within);
+    }
+    return (getInt(offset) & 0xFFFFFFFFL) | ((long) getInt(offset + Integer.BYTES) << 32);
+  }
+
+  void get(long offset, byte[] destination) {
+    for (int i = 0; i < destination.length; ) {
+      long position = offset + i;
+      MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+      int within = (int) position & SEGMENT_MASK;
+      int length = Math.min(destination.length - i, segment.limit() - within);
+      segment.get(within, destination, i, length);
+      i += length;
+    }
+  }
+
+  void putInt(long offset, int value) {
+    int within = (int) offset & SEGMENT_MASK;
+    if (within <= SEGMENT_SIZE - Integer.BYTES) {
+      segments[(int) (offset >>> SEGMENT_SHIFT)].putInt(within, value);
+      return;
+    }
+    for (int i = 0; i < Integer.BYTES; i++) {
+      segments[(int) ((offset + i) >>> SEGMENT_SHIFT)].put((int) (offset + i) & SEGMENT_MASK, (byte) (value >>> (8 * i)));
+    }
+  }
+
+  void putLong(long offset, long value) {
+    putInt(offset, (int) value);
+    putInt(offset + Integer.BYTES, (int) (value >>> 32));
+  }
+}
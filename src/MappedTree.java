@@ -0,0 +1,321 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+/**
+ * A tree stored in a binary file and read through a memory mapping, so its nodes never occupy
+ * the Java heap and opening it costs only the mapping. Nodes use the same pre-order layout as
+ * {@link CompactTree}: node {@code i} has a fixed-size record holding its left and right child
+ * indices (-1 when absent) and its value, the root is record 0, and every subtree is a contiguous
+ * range of records.
+ *
+ * <p>File layout, little-endian:
+ * <pre>
+ *   header   magic, version, value kind, record size (4 ints), node count, heap size (2 longs)
+ *   records  INT kind:    left, right, value (3 ints)
+ *            STRING kind: left, right (2 ints), heap offset (long)
+ *   heap     STRING kind only: for each value, its UTF-8 length (int, -1 for null) and bytes
+ * </pre>
+ *
+ * <p>Integer trees are written with {@link #writeInts}; strings, and any other values through a
+ * string encoding of the caller's choice, with {@link #writeStrings}. {@link Traversals} runs
+ * directly over the mapped records.
+ *
+ * <p>Opening checks only the header, so records are validated as they are read: a child index
+ * must be greater than its parent's and less than the node count. A walk over a corrupt file
+ * therefore fails with an {@link IllegalStateException} instead of reading out of bounds or
+ * looping forever.
+ */
+public class MappedTree {
+  static final int MAGIC = 0x45455254; // "TREE" in little-endian byte order
+  static final int VERSION = 1;
+  static final int KIND_INT = 0;
+  static final int KIND_STRING = 1;
+  static final int HEADER_SIZE = 32;
+  private static final int INT_RECORD_SIZE = 12;
+  private static final int STRING_RECORD_SIZE = 16;
+
+  private final MappedRegion records;
+  private final MappedRegion heap;
+  private final int kind;
+  private final int recordSize;
+  private final int size;
+
+  private MappedTree(MappedRegion records, MappedRegion heap, int kind, int recordSize, int size) {
+    this.records = records;
+    this.heap = heap;
+    this.kind = kind;
+    this.recordSize = recordSize;
+    this.size = size;
+  }
+
+  /**
+   * Maps a tree file written by this class. The mapping stays valid after this method returns;
+   * no node is read until a traversal asks for it.
+   *
+   * @param path the file to open
+   * @return the mapped tree
+   * @throws IOException if the file cannot be read, is not a tree file, or its header does not
+   *                     describe a tree that fits in the file
+   */
+  public static MappedTree open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // keep reading until the header is complete or the file ends
+      }
+      header.flip();
+      if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+        throw new IOException("not a tree file: " + path);
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException("unsupported tree file version " + version + ": " + path);
+      }
+      int kind = header.getInt();
+      int recordSize = header.getInt();
+      long nodeCount = header.getLong();
+      long heapSize = header.getLong();
+      int expectedRecordSize;
+      if (kind == KIND_INT) {
+        expectedRecordSize = INT_RECORD_SIZE;
+      } else if (kind == KIND_STRING) {
+        expectedRecordSize = STRING_RECORD_SIZE;
+      } else {
+        throw new IOException("unknown value kind " + kind + ": " + path);
+      }
+      if (recordSize != expectedRecordSize) {
+        throw new IOException("bad record size " + recordSize + " for value kind " + kind + ": " + path);
+      }
+      if (nodeCount < 0 || nodeCount > Integer.MAX_VALUE || heapSize < 0) {
+        throw new IOException("corrupt tree header: " + path);
+      }
+      // Neither product can overflow: nodeCount fits in an int and recordSize is at most 16.
+      long recordsSize = nodeCount * recordSize;
+      if (channel.size() - HEADER_SIZE < recordsSize || channel.size() - HEADER_SIZE - recordsSize < heapSize) {
+        throw new IOException("truncated tree file: " + path);
+      }
+
+      MappedRegion records = new MappedRegion(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, recordsSize);
+      MappedRegion heap = kind == KIND_STRING
+          ? new MappedRegion(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE + recordsSize, heapSize)
+          : null;
+      return new MappedTree(records, heap, kind, recordSize, (int) nodeCount);
+    }
+  }
+
+  /**
+   * Writes a tree of integers to the given file, replacing it if it exists.
+   *
+   * @param node the root of the tree, or null for an empty tree
+   * @param path the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void writeInts(TreeNode<Integer> node, Path path) throws IOException {
+    int size = CompactTree.countNodes(node);
+    try (FileChannel channel = create(path)) {
+      writeHeader(channel, KIND_INT, INT_RECORD_SIZE, size, 0);
+      MappedRegion records = new MappedRegion(channel, FileChannel.MapMode.READ_WRITE,
+          HEADER_SIZE, (long) size * INT_RECORD_SIZE);
+      writeRecords(node, records, INT_RECORD_SIZE, (offset, value) -> records.putInt(offset, value));
+    }
+  }
+
+  /**
+   * Writes a tree of strings to the given file, replacing it if it exists.
+   *
+   * @param node the root of the tree, or null for an empty tree
+   * @param path the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void writeStrings(TreeNode<String> node, Path path) throws IOException {
+    writeStrings(node, path, Function.identity());
+  }
+
+  /**
+   * Writes a tree to the given file, storing each value as the string produced by the encoder.
+   * The tree can be read back with {@link #stringValue(int)} and decoded by the caller.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param path    the file to write
+   * @param encoder turns a value into the string stored for it; may return null
+   * @param <T>     the type of values stored in the tree
+   * @throws IOException if the file cannot be written
+   */
+  public static <T> void writeStrings(TreeNode<T> node, Path path, Function<? super T, String> encoder)
+      throws IOException {
+    int size = CompactTree.countNodes(node);
+    long recordsSize = (long) size * STRING_RECORD_SIZE;
+    try (FileChannel channel = create(path)) {
+      MappedRegion records = new MappedRegion(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, recordsSize);
+      // The heap is appended after the records, in the same pre-order as the nodes.
+      channel.position(HEADER_SIZE + recordsSize);
+      OutputStream heap = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+      long[] heapSize = {0};
+      writeRecords(node, records, STRING_RECORD_SIZE, (offset, value) -> {
+        records.putLong(offset, heapSize[0]);
+        String encoded = encoder.apply(value);
+        byte[] bytes = encoded == null ? null : encoded.getBytes(StandardCharsets.UTF_8);
+        int length = bytes == null ? -1 : bytes.length;
+        for (int shift = 0; shift < 32; shift += 8) {
+          heap.write(length >>> shift);
+        }
+        if (bytes != null) {
+          heap.write(bytes);
+        }
+        heapSize[0] += Integer.BYTES + Math.max(0, length);
+      });
+      heap.flush();
+      writeHeader(channel, KIND_STRING, STRING_RECORD_SIZE, size, heapSize[0]);
+    }
+  }
+
+  /** Stores a node's value at the given record offset. */
+  private interface ValueWriter<T> {
+    void write(long offset, T value) throws IOException;
+  }
+
+  /**
+   * Writes one record per node in pre-order. Each record is written with both children absent,
+   * and a child's index is patched into its parent's record once the child is numbered.
+   */
+  private static <T> void writeRecords(TreeNode<T> node, MappedRegion records, int recordSize,
+      ValueWriter<T> values) throws IOException {
+    if (node == null) {
+      return;
+    }
+    // As in CompactTree.layout, a pending node carries its parent's index for a left child
+    // and the complement of that index for a right child.
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    IntStack slots = new IntStack();
+    int next = 0;
+    TreeNode<T> current = node;
+    int slot = 0;
+
+    while (true) {
+      int index = next++;
+      long offset = (long) index * recordSize;
+      records.putInt(offset, -1);
+      records.putInt(offset + Integer.BYTES, -1);
+      values.write(offset + 2 * Integer.BYTES, current.value);
+      if (index > 0) {
+        if (slot >= 0) {
+          records.putInt((long) slot * recordSize, index);
+        } else {
+          records.putInt((long) ~slot * recordSize + Integer.BYTES, index);
+        }
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+        slots.push(~index);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+        slots.push(index);
+      }
+      if (stack.isEmpty()) {
+        return;
+      }
+      current = stack.pop();
+      slot = slots.pop();
+    }
+  }
+
+  private static FileChannel create(Path path) throws IOException {
+    return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  private static void writeHeader(FileChannel channel, int kind, int recordSize, long nodeCount, long heapSize)
+      throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(recordSize).putLong(nodeCount).putLong(heapSize);
+    header.flip();
+    long position = 0;
+    while (header.hasRemaining()) {
+      position += channel.write(header, position);
+    }
+  }
+
+  /**
+   * Returns the number of nodes in the tree.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns true if the tree stores integer values, false if it stores strings.
+   */
+  public boolean isIntTree() {
+    return kind == KIND_INT;
+  }
+
+  /**
+   * Returns the index of the left child of the given node, or -1 if it has none.
+   *
+   * @throws IllegalStateException if the stored index is not after the node's and within the tree
+   */
+  public int left(int index) {
+    return checkChild(index, records.getInt((long) index * recordSize));
+  }
+
+  /**
+   * Returns the index of the right child of the given node, or -1 if it has none.
+   *
+   * @throws IllegalStateException if the stored index is not after the node's and within the tree
+   */
+  public int right(int index) {
+    return checkChild(index, records.getInt((long) index * recordSize + Integer.BYTES));
+  }
+
+  /**
+   * Returns the child index read for the given node if it is -1 or lies after the node and within
+   * the tree. Children always follow their parent in pre-order, so this also rules out cycles.
+   */
+  private int checkChild(int index, int child) {
+    if (child != -1 && (child <= index || child >= size)) {
+      throw new IllegalStateException("corrupt tree file: node " + index + " has child " + child
+          + " in a tree of " + size + " nodes");
+    }
+    return child;
+  }
+
+  /**
+   * Returns the integer value of the given node.
+   *
+   * @throws IllegalStateException if the tree stores strings
+   */
+  public int intValue(int index) {
+    if (kind != KIND_INT) {
+      throw new IllegalStateException("tree does not store integers");
+    }
+    return records.getInt((long) index * recordSize + 2 * Integer.BYTES);
+  }
+
+  /**
+   * Returns the value of the given node as a string: the decimal form of an integer value,
+   * or the stored string, which may be null.
+   */
+  public String stringValue(int index) {
+    if (kind == KIND_INT) {
+      return Integer.toString(intValue(index));
+    }
+    long offset = records.getLong((long) index * recordSize + 2 * Integer.BYTES);
+    int length = heap.getInt(offset);
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    heap.get(offset + Integer.BYTES, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
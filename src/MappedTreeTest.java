@@ -0,0 +1,175 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class MappedTreeTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testIntTree_matchesLinkedTree() throws IOException {
+        TreeNode<Integer> root = TestTrees.sampleWithZero();
+        Path file = dir.resolve("ints.tree");
+        MappedTree.writeInts(root, file);
+        MappedTree tree = MappedTree.open(file);
+
+        assertTrue(tree.isIntTree());
+        assertEquals(8, tree.size());
+        assertEquals(13, tree.intValue(0));
+        assertEquals(Traversals.sumLeafNodes(root), Traversals.sumLeafNodes(tree));
+        assertEquals(Traversals.countInternalNodes(root), Traversals.countInternalNodes(tree));
+        assertEquals(Traversals.countDistinctValues(root), Traversals.countDistinctValues(tree));
+        assertEquals(Traversals.hasStrictlyIncreasingPath(root), Traversals.hasStrictlyIncreasingPath(tree));
+        assertEquals(Traversals.buildPostOrderString(root), Traversals.buildPostOrderString(tree));
+        assertEquals(List.of("13", "-5", "42", "9", "0", "100", "31", "9"), Traversals.collectLevelOrderValues(tree));
+    }
+
+    @Test
+    void testStringTree_roundTrip() throws IOException {
+        TreeNode<String> root = new TreeNode<>(
+            "A1",
+            new TreeNode<>("Bb2", new TreeNode<>("Xx9"), new TreeNode<>(null)),
+            new TreeNode<>("C3C", null, new TreeNode<>("Z\u00e9"))
+        );
+        Path file = dir.resolve("strings.tree");
+        MappedTree.writeStrings(root, file);
+        MappedTree tree = MappedTree.open(file);
+
+        assertFalse(tree.isIntTree());
+        assertEquals("Xx9nullBb2Z\u00e9C3CA1", Traversals.buildPostOrderString(tree));
+        assertEquals(Traversals.buildPostOrderString(root), Traversals.buildPostOrderString(tree));
+        assertNull(tree.stringValue(3));
+        assertThrows(IllegalStateException.class, () -> tree.intValue(0));
+    }
+
+    @Test
+    void testEncodedValues() throws IOException {
+        TreeNode<Double> root = new TreeNode<>(1.5, new TreeNode<>(-2.25), null);
+        Path file = dir.resolve("doubles.tree");
+        MappedTree.writeStrings(root, file, d -> Double.toString(d));
+        MappedTree tree = MappedTree.open(file);
+        assertEquals(-2.25, Double.parseDouble(tree.stringValue(tree.left(0))));
+    }
+
+    @Test
+    void testHaveSameShape() throws IOException {
+        MappedTree.writeInts(TestTrees.sampleWithZero(), dir.resolve("a.tree"));
+        MappedTree.writeStrings(new TreeNode<>("x", new TreeNode<>("y"), null), dir.resolve("b.tree"));
+        MappedTree.writeInts(TestTrees.sampleWithZero(), dir.resolve("c.tree"));
+        MappedTree a = MappedTree.open(dir.resolve("a.tree"));
+        assertTrue(Traversals.haveSameShape(a, MappedTree.open(dir.resolve("c.tree"))));
+        assertFalse(Traversals.haveSameShape(a, MappedTree.open(dir.resolve("b.tree"))));
+    }
+
+    @Test
+    void testFindAllRootToLeafPaths() throws IOException {
+        Path file = dir.resolve("paths.tree");
+        MappedTree.writeInts(TestTrees.sampleWithZero(), file);
+        MappedTree tree = MappedTree.open(file);
+        assertEquals(
+            List.of(List.of("13", "-5", "9"), List.of("13", "-5", "0", "31"), List.of("13", "-5", "0", "9"),
+                List.of("13", "42", "100")),
+            Traversals.findAllRootToLeafPaths(tree));
+
+        MappedTree.writeStrings(new TreeNode<>("a", null, new TreeNode<>(null)), file);
+        assertEquals(Arrays.asList(Arrays.asList("a", null)), Traversals.findAllRootToLeafPaths(MappedTree.open(file)));
+    }
+
+    @Test
+    void testEmptyTree() throws IOException {
+        Path file = dir.resolve("empty.tree");
+        MappedTree.writeInts(null, file);
+        MappedTree tree = MappedTree.open(file);
+        assertEquals(0, tree.size());
+        assertEquals(0, Traversals.sumLeafNodes(tree));
+        assertEquals("", Traversals.buildPostOrderString(tree));
+        assertFalse(Traversals.hasStrictlyIncreasingPath(tree));
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("not.tree");
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> MappedTree.open(file));
+    }
+
+    @Test
+    void testRejectsCorruptHeaders() throws IOException {
+        Path file = dir.resolve("corrupt.tree");
+        byte[] records = new byte[64];
+        // unknown value kind
+        Files.write(file, concat(header(7, 12, 1, 0), records));
+        assertThrows(IOException.class, () -> MappedTree.open(file));
+        // record size that does not match the kind
+        Files.write(file, concat(header(MappedTree.KIND_INT, 16, 1, 0), records));
+        assertThrows(IOException.class, () -> MappedTree.open(file));
+        // negative and oversized node counts
+        Files.write(file, concat(header(MappedTree.KIND_INT, 12, -1, 0), records));
+        assertThrows(IOException.class, () -> MappedTree.open(file));
+        Files.write(file, concat(header(MappedTree.KIND_INT, 12, 1L << 31, 0), records));
+        assertThrows(IOException.class, () -> MappedTree.open(file));
+        // records that run past the end of the file
+        Files.write(file, concat(header(MappedTree.KIND_INT, 12, 6, 0), records));
+        assertThrows(IOException.class, () -> MappedTree.open(file));
+        // a heap size that would overflow the length check
+        Files.write(file, concat(header(MappedTree.KIND_STRING, 16, 1, Long.MAX_VALUE), records));
+        assertThrows(IOException.class, () -> MappedTree.open(file));
+    }
+
+    @Test
+    void testRejectsCorruptChildIndices() throws IOException {
+        Path file = dir.resolve("corrupt-children.tree");
+        // node 1 points back at the root, which would loop forever
+        Files.write(file, concat(header(MappedTree.KIND_INT, 12, 2, 0), records(1, -1, 5, 0, -1, 6)));
+        MappedTree cycle = MappedTree.open(file);
+        assertThrows(IllegalStateException.class, () -> Traversals.hasStrictlyIncreasingPath(cycle));
+        assertThrows(IllegalStateException.class, () -> Traversals.buildPostOrderString(cycle));
+        assertThrows(IllegalStateException.class, () -> Traversals.collectLevelOrderValues(cycle));
+        // the root's right child lies past the last node
+        Files.write(file, concat(header(MappedTree.KIND_INT, 12, 2, 0), records(1, 7, 5, -1, -1, 6)));
+        MappedTree outOfRange = MappedTree.open(file);
+        assertThrows(IllegalStateException.class, () -> Traversals.hasStrictlyIncreasingPath(outOfRange));
+        assertThrows(IllegalStateException.class, () -> Traversals.collectLevelOrderValues(outOfRange));
+    }
+
+    private static byte[] records(int... fields) {
+        ByteBuffer buffer = ByteBuffer.allocate(fields.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int field : fields) {
+            buffer.putInt(field);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] header(int kind, int recordSize, long nodeCount, long heapSize) {
+        return ByteBuffer.allocate(MappedTree.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(MappedTree.MAGIC).putInt(MappedTree.VERSION).putInt(kind).putInt(recordSize)
+            .putLong(nodeCount).putLong(heapSize).array();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    @Test
+    void testDeepTree() throws IOException {
+        TreeNode<Integer> root = null;
+        for (int i = 1_000_000; i >= 1; i--) {
+            root = new TreeNode<>(i, null, root);
+        }
+        Path file = dir.resolve("deep.tree");
+        MappedTree.writeInts(root, file);
+        MappedTree tree = MappedTree.open(file);
+        assertEquals(1_000_000, Traversals.sumLeafNodes(tree));
+        assertEquals(999_999, Traversals.countInternalNodes(tree));
+        assertTrue(Traversals.hasStrictlyIncreasingPath(tree));
+    }
+}
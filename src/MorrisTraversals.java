@@ -0,0 +1,331 @@
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Depth-first traversals that use O(1) extra space, for memory-constrained workers.
+ * Instead of a stack, Morris traversal temporarily points the empty right link of each node's
+ * in-order predecessor back at the node ("threading"), and follows those links to climb back up.
+ * Every thread is removed on the way back, so the tree's links are exactly as they were once a
+ * traversal returns. Each traversal runs in O(n) time.
+ *
+ * <p>Because links are rewritten during the walk, the tree must not be read or modified by anyone
+ * else, including the visitor, until the traversal returns, and two traversals must not run on the
+ * same tree at once. If the visitor throws, the walk continues without visiting so that every link is
+ * restored, and the exception is rethrown afterwards.
+ *
+ * <p>Level order has no constant-space equivalent and is not offered here.
+ */
+public class MorrisTraversals {
+
+  /** Receives visited values; may throw so that output sinks can report I/O errors. */
+  private interface Visitor<T> {
+    void visit(T value) throws IOException;
+  }
+
+  /**
+   * Calls a visitor until it first throws, then remembers the failure and ignores later visits,
+   * so that a traversal can finish restoring the tree before the failure is reported.
+   */
+  private static class GuardedVisitor<T> {
+    private final Visitor<T> visitor;
+    private Throwable failure;
+
+    GuardedVisitor(Visitor<T> visitor) {
+      this.visitor = visitor;
+    }
+
+    void visit(T value) {
+      if (failure != null) {
+        return;
+      }
+      try {
+        visitor.visit(value);
+      } catch (IOException | RuntimeException | Error e) {
+        failure = e;
+      }
+    }
+
+    void rethrow() throws IOException {
+      if (failure instanceof IOException) {
+        throw (IOException) failure;
+      }
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      }
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+    }
+  }
+
+  /**
+   * Passes the tree's values to the action in pre-order, using O(1) extra space.
+   * If node is null, the action is never called.
+   *
+   * @param node   the root of the tree
+   * @param action the action to run on each value
+   * @param <T>    the type of values stored in the tree
+   */
+  public static <T> void preOrder(TreeNode<T> node, Consumer<? super T> action) {
+    GuardedVisitor<T> guard = new GuardedVisitor<>(action::accept);
+    TreeNode<T> current = node;
+    while (current != null) {
+      if (current.left == null) {
+        guard.visit(current.value);
+        current = current.right;
+        continue;
+      }
+      TreeNode<T> predecessor = predecessor(current);
+      if (predecessor.right == null) {
+        guard.visit(current.value);
+        predecessor.right = current;
+        current = current.left;
+      } else {
+        predecessor.right = null;
+        current = current.right;
+      }
+    }
+    rethrowUnchecked(guard);
+  }
+
+  /**
+   * Passes the tree's values to the action in in-order, using O(1) extra space.
+   * If node is null, the action is never called.
+   *
+   * @param node   the root of the tree
+   * @param action the action to run on each value
+   * @param <T>    the type of values stored in the tree
+   */
+  public static <T> void inOrder(TreeNode<T> node, Consumer<? super T> action) {
+    GuardedVisitor<T> guard = new GuardedVisitor<>(action::accept);
+    TreeNode<T> current = node;
+    while (current != null) {
+      if (current.left == null) {
+        guard.visit(current.value);
+        current = current.right;
+        continue;
+      }
+      TreeNode<T> predecessor = predecessor(current);
+      if (predecessor.right == null) {
+        predecessor.right = current;
+        current = current.left;
+      } else {
+        predecessor.right = null;
+        guard.visit(current.value);
+        current = current.right;
+      }
+    }
+    rethrowUnchecked(guard);
+  }
+
+  /**
+   * Passes the tree's values to the action in post-order, using O(1) extra space.
+   * If node is null, the action is never called.
+   *
+   * @param node   the root of the tree
+   * @param action the action to run on each value
+   * @param <T>    the type of values stored in the tree
+   */
+  public static <T> void postOrder(TreeNode<T> node, Consumer<? super T> action) {
+    GuardedVisitor<T> guard = new GuardedVisitor<>(action::accept);
+    postOrder(node, guard);
+    rethrowUnchecked(guard);
+  }
+
+  /**
+   * Writes the string representation of each node's value, in post-order, to the given sink,
+   * using O(1) extra space. If node is null, nothing is written.
+   *
+   * @param node the root of the tree
+   * @param out  the sink to write to
+   * @param <T>  the type of values stored in the tree
+   * @throws IOException if the sink throws; the tree is restored first
+   */
+  public static <T> void writePostOrder(TreeNode<T> node, Appendable out) throws IOException {
+    GuardedVisitor<T> guard = new GuardedVisitor<>(value -> out.append(String.valueOf(value)));
+    postOrder(node, guard);
+    guard.rethrow();
+  }
+
+  /**
+   * Creates the post-order string of {@link Traversals#buildPostOrderString(TreeNode)},
+   * walking the tree with O(1) extra space beyond the result itself.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return a post-order traversal string, or an empty string if the tree is null
+   */
+  public static <T> String buildPostOrderString(TreeNode<T> node) {
+    StringBuilder result = new StringBuilder();
+    postOrder(node, value -> result.append(value));
+    return result.toString();
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes, using O(1) extra space.
+   * If node is null, this method returns 0.
+   *
+   * @param node the root of the tree
+   * @return the sum of leaf node values, or 0 if the tree is null
+   * @throws NullPointerException if a leaf's value is null; the walk still finishes first, so the
+   *                              tree's links are restored
+   */
+  public static int sumLeafNodes(TreeNode<Integer> node) {
+    return leafSumAndInternalCount(node, true);
+  }
+
+  /**
+   * Counts the internal nodes, using O(1) extra space.
+   * If node is null, this method returns 0.
+   *
+   * @param node the root of the tree
+   * @return the count of internal nodes, or 0 if the tree is null
+   */
+  public static int countInternalNodes(TreeNode<Integer> node) {
+    return leafSumAndInternalCount(node, false);
+  }
+
+  /**
+   * In-order Morris walk that tells leaves from internal nodes. A node with no left child may
+   * be a leaf whose right link is currently a thread. Such a node is held as pending; if the very
+   * next step removes the thread it set, the node had no real right child and is a leaf.
+   * Leaf values are only read for the sum. A null value cannot be unboxed while threads are live,
+   * so, as with {@link GuardedVisitor}, it is noted and reported once the walk has restored the tree.
+   */
+  private static int leafSumAndInternalCount(TreeNode<Integer> node, boolean wantLeafSum) {
+    boolean nullLeaf = false;
+    int leafSum = 0;
+    int internalCount = 0;
+    TreeNode<Integer> pending = null;
+    TreeNode<Integer> current = node;
+
+    while (current != null) {
+      if (current.left == null) {
+        if (pending != null) {
+          internalCount++;
+        }
+        pending = null;
+        if (current.right == null) {
+          if (wantLeafSum) {
+            if (current.value == null) {
+              nullLeaf = true;
+            } else {
+              leafSum += current.value;
+            }
+          }
+        } else {
+          pending = current;
+        }
+        current = current.right;
+        continue;
+      }
+
+      TreeNode<Integer> predecessor = predecessor(current);
+      if (predecessor.right == null) {
+        if (pending != null) {
+          internalCount++;
+          pending = null;
+        }
+        internalCount++;
+        predecessor.right = current;
+        current = current.left;
+      } else {
+        // Removing the thread set by the pending node: it was a leaf.
+        if (pending != null) {
+          if (wantLeafSum) {
+            if (pending.value == null) {
+              nullLeaf = true;
+            } else {
+              leafSum += pending.value;
+            }
+          }
+          pending = null;
+        }
+        predecessor.right = null;
+        current = current.right;
+      }
+    }
+    if (nullLeaf) {
+      throw new NullPointerException("leaf value is null");
+    }
+    return wantLeafSum ? leafSum : internalCount;
+  }
+
+  /**
+   * Post-order Morris walk. A temporary root whose left child is the tree lets every node be
+   * reached as part of some left subtree; when a left subtree is finished, the right-link chain
+   * from its root down to the predecessor is reversed, visited, and reversed back.
+   */
+  private static <T> void postOrder(TreeNode<T> node, GuardedVisitor<T> guard) {
+    if (node == null) {
+      return;
+    }
+
+    TreeNode<T> top = new TreeNode<>(null, node, null);
+    TreeNode<T> current = top;
+    while (current != null) {
+      if (current.left == null) {
+        current = current.right;
+        continue;
+      }
+      TreeNode<T> predecessor = predecessor(current);
+      if (predecessor.right == null) {
+        predecessor.right = current;
+        current = current.left;
+      } else {
+        visitReversed(current.left, predecessor, guard);
+        predecessor.right = null;
+        current = current.right;
+      }
+    }
+  }
+
+  /**
+   * Visits the right-link chain from {@code from} to {@code to} bottom-up. Reversing the chain and
+   * back leaves every link as it was except {@code to.right}, which the caller then clears.
+   */
+  private static <T> void visitReversed(TreeNode<T> from, TreeNode<T> to, GuardedVisitor<T> guard) {
+    reverse(from, to);
+    for (TreeNode<T> node = to; ; node = node.right) {
+      guard.visit(node.value);
+      if (node == from) {
+        break;
+      }
+    }
+    reverse(to, from);
+  }
+
+  private static <T> void reverse(TreeNode<T> from, TreeNode<T> to) {
+    if (from == to) {
+      return;
+    }
+    TreeNode<T> previous = from;
+    TreeNode<T> current = from.right;
+    while (previous != to) {
+      TreeNode<T> next = current.right;
+      current.right = previous;
+      previous = current;
+      current = next;
+    }
+  }
+
+  /**
+   * Returns the in-order predecessor of a node with a left child: the rightmost node of its left
+   * subtree, or the node whose right link is already threaded back to it.
+   */
+  private static <T> TreeNode<T> predecessor(TreeNode<T> node) {
+    TreeNode<T> predecessor = node.left;
+    while (predecessor.right != null && predecessor.right != node) {
+      predecessor = predecessor.right;
+    }
+    return predecessor;
+  }
+
+  private static void rethrowUnchecked(GuardedVisitor<?> guard) {
+    try {
+      guard.rethrow();
+    } catch (IOException e) {
+      throw new AssertionError("consumers do not throw IOException", e);
+    }
+  }
+}
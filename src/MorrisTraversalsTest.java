@@ -0,0 +1,168 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class MorrisTraversalsTest {
+
+    private static TreeNode<Integer> randomTree(int size, long seed) {
+        Random random = new Random(seed);
+        List<TreeNode<Integer>> open = new ArrayList<>();
+        TreeNode<Integer> root = new TreeNode<>(random.nextInt(100) - 50);
+        open.add(root);
+        for (int i = 1; i < size; i++) {
+            TreeNode<Integer> parent = open.get(random.nextInt(open.size()));
+            TreeNode<Integer> child = new TreeNode<>(random.nextInt(100) - 50);
+            if (parent.left == null && (parent.right != null || random.nextBoolean())) {
+                parent.left = child;
+            } else {
+                parent.right = child;
+            }
+            if (parent.left != null && parent.right != null) {
+                open.remove(parent);
+            }
+            open.add(child);
+        }
+        return root;
+    }
+
+    /** Records every node's children by identity so tests can check the links were restored. */
+    private static Map<TreeNode<Integer>, List<TreeNode<Integer>>> links(TreeNode<Integer> root) {
+        Map<TreeNode<Integer>, List<TreeNode<Integer>>> links = new IdentityHashMap<>();
+        Deque<TreeNode<Integer>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            TreeNode<Integer> node = pending.pop();
+            links.put(node, Arrays.asList(node.left, node.right));
+            if (node.left != null) pending.push(node.left);
+            if (node.right != null) pending.push(node.right);
+        }
+        return links;
+    }
+
+    private static void assertLinksEqual(Map<TreeNode<Integer>, List<TreeNode<Integer>>> expected) {
+        for (Map.Entry<TreeNode<Integer>, List<TreeNode<Integer>>> entry : expected.entrySet()) {
+            TreeNode<Integer> node = entry.getKey();
+            assertSame(entry.getValue().get(0), node.left);
+            assertSame(entry.getValue().get(1), node.right);
+        }
+    }
+
+    private static List<Integer> collect(TreeNode<Integer> root, String order) {
+        List<Integer> values = new ArrayList<>();
+        switch (order) {
+            case "pre": MorrisTraversals.preOrder(root, values::add); break;
+            case "in": MorrisTraversals.inOrder(root, values::add); break;
+            default: MorrisTraversals.postOrder(root, values::add); break;
+        }
+        return values;
+    }
+
+    @Test
+    void testOrdersMatchStackTraversalsAndRestoreLinks() {
+        for (long seed = 0; seed < 20; seed++) {
+            TreeNode<Integer> root = randomTree(1 + (int) seed * 37, seed);
+            Map<TreeNode<Integer>, List<TreeNode<Integer>>> before = links(root);
+
+            assertEquals(TreeStreams.preOrder(root).collect(Collectors.toList()), collect(root, "pre"));
+            assertEquals(TreeStreams.inOrder(root).collect(Collectors.toList()), collect(root, "in"));
+            assertEquals(TreeStreams.postOrder(root).collect(Collectors.toList()), collect(root, "post"));
+            assertLinksEqual(before);
+        }
+    }
+
+    @Test
+    void testAggregationsMatchTraversals() {
+        for (long seed = 0; seed < 20; seed++) {
+            TreeNode<Integer> root = randomTree(1 + (int) seed * 53, seed);
+            Map<TreeNode<Integer>, List<TreeNode<Integer>>> before = links(root);
+
+            assertEquals(Traversals.sumLeafNodes(root), MorrisTraversals.sumLeafNodes(root));
+            assertEquals(Traversals.countInternalNodes(root), MorrisTraversals.countInternalNodes(root));
+            assertEquals(Traversals.buildPostOrderString(root), MorrisTraversals.buildPostOrderString(root));
+            assertLinksEqual(before);
+        }
+    }
+
+    @Test
+    void testNullTree() {
+        assertEquals(0, MorrisTraversals.sumLeafNodes(null));
+        assertEquals(0, MorrisTraversals.countInternalNodes(null));
+        assertEquals("", MorrisTraversals.buildPostOrderString(null));
+        assertTrue(collect(null, "pre").isEmpty());
+        assertTrue(collect(null, "in").isEmpty());
+        assertTrue(collect(null, "post").isEmpty());
+    }
+
+    @Test
+    void testDeepChains() {
+        int depth = 1_000_000;
+        TreeNode<Integer> right = null;
+        TreeNode<Integer> left = null;
+        for (int i = depth; i >= 1; i--) {
+            right = new TreeNode<>(i, null, right);
+            left = new TreeNode<>(i, left, null);
+        }
+        assertEquals(depth, MorrisTraversals.sumLeafNodes(right));
+        assertEquals(depth - 1, MorrisTraversals.countInternalNodes(left));
+        assertEquals(depth, MorrisTraversals.sumLeafNodes(left));
+        assertEquals(depth - 1, MorrisTraversals.countInternalNodes(right));
+    }
+
+    @Test
+    void testThrowingVisitorStillRestoresLinks() {
+        TreeNode<Integer> root = randomTree(200, 7);
+        Map<TreeNode<Integer>, List<TreeNode<Integer>>> before = links(root);
+        int[] seen = new int[1];
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+            MorrisTraversals.postOrder(root, value -> {
+                if (++seen[0] == 50) throw new IllegalStateException("stop");
+            }));
+        assertEquals("stop", thrown.getMessage());
+        assertEquals(50, seen[0]);
+        assertLinksEqual(before);
+
+        seen[0] = 0;
+        assertThrows(IllegalStateException.class, () ->
+            MorrisTraversals.inOrder(root, value -> {
+                if (++seen[0] == 120) throw new IllegalStateException("stop");
+            }));
+        assertLinksEqual(before);
+    }
+
+    @Test
+    void testNullLeafValueStillRestoresLinks() {
+        TreeNode<Integer> root = randomTree(200, 11);
+        TreeNode<Integer> leaf = root;
+        while (leaf.left != null || leaf.right != null) {
+            leaf = leaf.left != null ? leaf.left : leaf.right;
+        }
+        leaf.value = null;
+        Map<TreeNode<Integer>, List<TreeNode<Integer>>> before = links(root);
+
+        assertThrows(NullPointerException.class, () -> MorrisTraversals.sumLeafNodes(root));
+        assertLinksEqual(before);
+        assertEquals(Traversals.countInternalNodes(root), MorrisTraversals.countInternalNodes(root));
+        assertLinksEqual(before);
+
+        TreeNode<Integer> single = new TreeNode<>(null);
+        assertThrows(NullPointerException.class, () -> MorrisTraversals.sumLeafNodes(single));
+    }
+
+    @Test
+    void testWritePostOrderPropagatesIOExceptionAfterRestoring() {
+        TreeNode<Integer> root = randomTree(100, 3);
+        Map<TreeNode<Integer>, List<TreeNode<Integer>>> before = links(root);
+        Appendable failing = new Appendable() {
+            public Appendable append(CharSequence csq) throws IOException { throw new IOException("disk full"); }
+            public Appendable append(CharSequence csq, int start, int end) throws IOException { return append(csq); }
+            public Appendable append(char c) throws IOException { return append(""); }
+        };
+
+        IOException thrown = assertThrows(IOException.class, () -> MorrisTraversals.writePostOrder(root, failing));
+        assertEquals("disk full", thrown.getMessage());
+        assertLinksEqual(before);
+    }
+}
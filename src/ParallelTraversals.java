@@ -0,0 +1,411 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fork/join variants of the associative aggregations in {@link Traversals}.
+ * Each task forks its left subtree and computes its right subtree in place, so work is split
+ * at subtree boundaries. Below a split depth, once the worker already has enough queued work, or
+ * when the subtree is too small to repay a fork, a task falls back to the sequential iterative
+ * traversal for the rest of its subtree. Subtree sizes are not stored on the nodes, so the size
+ * cutoff is checked with a walk that stops after {@value #SEQUENTIAL_THRESHOLD} nodes; it costs at
+ * most that much per split and keeps a lopsided tree from being split into tiny tasks.
+ * Results are identical to the sequential methods.
+ */
+public class ParallelTraversals {
+  /** A worker with more than this many queued tasks stops splitting and runs sequentially. */
+  private static final int SURPLUS_TASK_LIMIT = 3;
+  /** A subtree with fewer nodes than this is always traversed sequentially. */
+  static final int SEQUENTIAL_THRESHOLD = 1 << 10;
+
+  /**
+   * Returns the sum of the values of all leaf nodes, computed in parallel on the common pool.
+   * If node is null, this method returns 0.
+   *
+   * @param node the node of the tree
+   * @return the sum of leaf node values, or 0 if the tree is null
+   */
+  public static int sumLeafNodes(TreeNode<Integer> node) {
+    return sumLeafNodes(node, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes, computed in parallel on the given pool.
+   * If node is null, this method returns 0.
+   *
+   * @param node the node of the tree
+   * @param pool the pool to run on
+   * @return the sum of leaf node values, or 0 if the tree is null
+   */
+  public static int sumLeafNodes(TreeNode<Integer> node, ForkJoinPool pool) {
+    if (node == null) {
+      return 0;
+    }
+    return pool.invoke(new SumLeafTask(node, splitDepth(pool)));
+  }
+
+  /**
+   * Counts the internal nodes of the tree in parallel on the common pool.
+   * If node is null, this method returns 0.
+   *
+   * @param node the node of the tree
+   * @return the count of internal nodes, or 0 if the tree is null
+   */
+  public static int countInternalNodes(TreeNode<Integer> node) {
+    return countInternalNodes(node, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Counts the internal nodes of the tree in parallel on the given pool.
+   * If node is null, this method returns 0.
+   *
+   * @param node the node of the tree
+   * @param pool the pool to run on
+   * @return the count of internal nodes, or 0 if the tree is null
+   */
+  public static int countInternalNodes(TreeNode<Integer> node, ForkJoinPool pool) {
+    if (node == null) {
+      return 0;
+    }
+    return pool.invoke(new InternalCountTask(node, splitDepth(pool)));
+  }
+
+  /**
+   * Counts the distinct values in the tree in parallel on the common pool.
+   * If node is null, returns 0.
+   *
+   * @param node the node of the tree
+   * @return the number of unique values in the tree, or 0 if the tree is null
+   */
+  public static int countDistinctValues(TreeNode<Integer> node) {
+    return countDistinctValues(node, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Counts the distinct values in the tree in parallel on the given pool.
+   * Each task collects its subtree into its own set and the sets are merged on join,
+   * so no set is shared or locked. If node is null, returns 0.
+   *
+   * @param node the node of the tree
+   * @param pool the pool to run on
+   * @return the number of unique values in the tree, or 0 if the tree is null
+   */
+  public static int countDistinctValues(TreeNode<Integer> node, ForkJoinPool pool) {
+    if (node == null) {
+      return 0;
+    }
+    return pool.invoke(new DistinctTask(node, splitDepth(pool))).size();
+  }
+
+  /**
+   * Estimates the number of distinct values in parallel on the common pool.
+   * If node is null, returns 0.
+   *
+   * @param node          the node of the tree
+   * @param relativeError the target relative standard error of the estimate
+   * @return the estimated number of unique values in the tree
+   */
+  public static long estimateDistinctValues(TreeNode<Integer> node, double relativeError) {
+    return estimateDistinctValues(node, relativeError, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Estimates the number of distinct values in parallel on the given pool. Each task fills its own
+   * {@link HyperLogLog} sketch and sketches are merged on join, so memory per task is fixed.
+   * If node is null, returns 0.
+   *
+   * @param node          the node of the tree
+   * @param relativeError the target relative standard error of the estimate
+   * @param pool          the pool to run on
+   * @return the estimated number of unique values in the tree
+   */
+  public static long estimateDistinctValues(TreeNode<Integer> node, double relativeError, ForkJoinPool pool) {
+    int precision = HyperLogLog.withRelativeError(relativeError).precision();
+    if (node == null) {
+      return 0;
+    }
+    return pool.invoke(new SketchTask(node, precision, splitDepth(pool))).estimate();
+  }
+
+  /**
+   * Determines in parallel, on the common pool, whether there is a strictly increasing
+   * root-to-leaf path. If node is null, returns false.
+   *
+   * @param node the node of the tree
+   * @return true if there exists a strictly increasing root-to-leaf path, false otherwise
+   */
+  public static boolean hasStrictlyIncreasingPath(TreeNode<Integer> node) {
+    return hasStrictlyIncreasingPath(node, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Determines in parallel, on the given pool, whether there is a strictly increasing
+   * root-to-leaf path. Subtrees are searched concurrently; the first task to reach a qualifying
+   * leaf raises a shared flag, and every other task stops as soon as it sees the flag.
+   * If node is null, returns false.
+   *
+   * @param node the node of the tree
+   * @param pool the pool to run on
+   * @return true if there exists a strictly increasing root-to-leaf path, false otherwise
+   */
+  public static boolean hasStrictlyIncreasingPath(TreeNode<Integer> node, ForkJoinPool pool) {
+    if (node == null) {
+      return false;
+    }
+    return pool.invoke(new IncreasingPathTask(node, splitDepth(pool), new AtomicBoolean()));
+  }
+
+  /**
+   * Returns how many levels of subtrees to split before running sequentially.
+   * A balanced tree split this deep yields about sixteen tasks per worker.
+   */
+  static int splitDepth(ForkJoinPool pool) {
+    return 32 - Integer.numberOfLeadingZeros(pool.getParallelism()) + 4;
+  }
+
+  static boolean shouldSplit(int remainingSplits) {
+    return remainingSplits > 0 && RecursiveTask.getSurplusQueuedTaskCount() <= SURPLUS_TASK_LIMIT;
+  }
+
+  /**
+   * Returns whether a task should split at the given node: it has splits left, its worker is
+   * short of queued work, and the subtree has at least {@link #SEQUENTIAL_THRESHOLD} nodes.
+   */
+  static boolean shouldSplit(TreeNode<?> node, int remainingSplits) {
+    return shouldSplit(remainingSplits) && !smallerThan(node, SEQUENTIAL_THRESHOLD);
+  }
+
+  /**
+   * Returns whether the given subtree has fewer than {@code limit} nodes, visiting at most
+   * {@code limit} of them.
+   */
+  static boolean smallerThan(TreeNode<?> node, int limit) {
+    ArrayStack<TreeNode<?>> stack = new ArrayStack<>();
+    stack.push(node);
+    int count = 0;
+    while (!stack.isEmpty()) {
+      if (++count >= limit) {
+        return false;
+      }
+      TreeNode<?> current = stack.pop();
+      if (current.right != null) {
+        stack.push(current.right);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Follows single-child links down from the given node and returns the first node that is
+   * either a leaf or has two children. Nodes on such a chain are internal and offer nothing to split.
+   */
+  private static TreeNode<Integer> skipChain(TreeNode<Integer> node) {
+    TreeNode<Integer> current = node;
+    while ((current.left == null) != (current.right == null)) {
+      current = current.left != null ? current.left : current.right;
+    }
+    return current;
+  }
+
+  @SuppressWarnings("serial")
+  private static class SumLeafTask extends RecursiveTask<Integer> {
+    private final TreeNode<Integer> node;
+    private final int remainingSplits;
+
+    SumLeafTask(TreeNode<Integer> node, int remainingSplits) {
+      this.node = node;
+      this.remainingSplits = remainingSplits;
+    }
+
+    @Override
+    protected Integer compute() {
+      TreeNode<Integer> current = skipChain(node);
+      if (current.left == null || !shouldSplit(current, remainingSplits)) {
+        return Traversals.sumLeafNodes(current, new TreeFold.Cursor<>(TreeFold.Order.PRE, null));
+      }
+      SumLeafTask leftTask = new SumLeafTask(current.left, remainingSplits - 1);
+      leftTask.fork();
+      int rightSum = new SumLeafTask(current.right, remainingSplits - 1).compute();
+      return leftTask.join() + rightSum;
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static class InternalCountTask extends RecursiveTask<Integer> {
+    private final TreeNode<Integer> node;
+    private final int remainingSplits;
+
+    InternalCountTask(TreeNode<Integer> node, int remainingSplits) {
+      this.node = node;
+      this.remainingSplits = remainingSplits;
+    }
+
+    @Override
+    protected Integer compute() {
+      int chainLength = 0;
+      TreeNode<Integer> current = node;
+      while ((current.left == null) != (current.right == null)) {
+        current = current.left != null ? current.left : current.right;
+        chainLength++;
+      }
+      if (current.left == null || !shouldSplit(current, remainingSplits)) {
+        return chainLength + Traversals.countInternalNodes(current, new TreeFold.Cursor<>(TreeFold.Order.PRE, null));
+      }
+      InternalCountTask leftTask = new InternalCountTask(current.left, remainingSplits - 1);
+      leftTask.fork();
+      int rightCount = new InternalCountTask(current.right, remainingSplits - 1).compute();
+      return chainLength + 1 + leftTask.join() + rightCount;
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static class IncreasingPathTask extends RecursiveTask<Boolean> {
+    /** A node already known to end a strictly increasing path from the root. */
+    private final TreeNode<Integer> node;
+    private final int remainingSplits;
+    private final AtomicBoolean found;
+
+    IncreasingPathTask(TreeNode<Integer> node, int remainingSplits, AtomicBoolean found) {
+      this.node = node;
+      this.remainingSplits = remainingSplits;
+      this.found = found;
+    }
+
+    @Override
+    protected Boolean compute() {
+      if (found.get()) {
+        return false;
+      }
+      TreeNode<Integer> current = node;
+      while ((current.left == null) != (current.right == null)) {
+        TreeNode<Integer> child = current.left != null ? current.left : current.right;
+        if (child.value <= current.value) {
+          return false;
+        }
+        current = child;
+      }
+      if (current.left != null && shouldSplit(current, remainingSplits)) {
+        return split(current);
+      }
+      if (Traversals.hasStrictlyIncreasingPathFrom(current, found)) {
+        found.set(true);
+        return true;
+      }
+      return false;
+    }
+
+    private boolean split(TreeNode<Integer> current) {
+      boolean leftOpen = current.left.value > current.value;
+      boolean rightOpen = current.right.value > current.value;
+      if (!leftOpen && !rightOpen) {
+        return false;
+      }
+      if (!leftOpen || !rightOpen) {
+        TreeNode<Integer> open = leftOpen ? current.left : current.right;
+        return new IncreasingPathTask(open, remainingSplits - 1, found).compute();
+      }
+
+      IncreasingPathTask leftTask = new IncreasingPathTask(current.left, remainingSplits - 1, found);
+      leftTask.fork();
+      if (new IncreasingPathTask(current.right, remainingSplits - 1, found).compute()) {
+        // The left search is no longer needed; if it has not started it never will.
+        leftTask.cancel(false);
+        return true;
+      }
+      return leftTask.join();
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static class DistinctTask extends RecursiveTask<IntHashSet> {
+    private final TreeNode<Integer> node;
+    private final int remainingSplits;
+
+    DistinctTask(TreeNode<Integer> node, int remainingSplits) {
+      this.node = node;
+      this.remainingSplits = remainingSplits;
+    }
+
+    @Override
+    protected IntHashSet compute() {
+      if (!shouldSplit(node, remainingSplits)) {
+        return collectDistinct(node);
+      }
+      IntHashSet chainValues = new IntHashSet();
+      TreeNode<Integer> current = node;
+      while ((current.left == null) != (current.right == null)) {
+        chainValues.add(current.value);
+        current = current.left != null ? current.left : current.right;
+      }
+      if (current.left == null) {
+        chainValues.add(current.value);
+        return chainValues;
+      }
+      chainValues.add(current.value);
+
+      DistinctTask leftTask = new DistinctTask(current.left, remainingSplits - 1);
+      leftTask.fork();
+      IntHashSet rightSet = new DistinctTask(current.right, remainingSplits - 1).compute();
+      IntHashSet leftSet = leftTask.join();
+      // Merge the smaller sets into the largest one to minimize rehashing.
+      IntHashSet merged = leftSet.size() >= rightSet.size() ? leftSet : rightSet;
+      merged.addAll(merged == leftSet ? rightSet : leftSet);
+      merged.addAll(chainValues);
+      return merged;
+    }
+
+    private static IntHashSet collectDistinct(TreeNode<Integer> node) {
+      IntHashSet set = new IntHashSet();
+      ArrayStack<TreeNode<Integer>> stack = new ArrayStack<>();
+      stack.push(node);
+      while (!stack.isEmpty()) {
+        TreeNode<Integer> current = stack.pop();
+        set.add(current.value);
+        if (current.right != null) {
+          stack.push(current.right);
+        }
+        if (current.left != null) {
+          stack.push(current.left);
+        }
+      }
+      return set;
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static class SketchTask extends RecursiveTask<HyperLogLog> {
+    private final TreeNode<Integer> node;
+    private final int precision;
+    private final int remainingSplits;
+
+    SketchTask(TreeNode<Integer> node, int precision, int remainingSplits) {
+      this.node = node;
+      this.precision = precision;
+      this.remainingSplits = remainingSplits;
+    }
+
+    @Override
+    protected HyperLogLog compute() {
+      HyperLogLog sketch = new HyperLogLog(precision);
+      TreeNode<Integer> current = node;
+      while ((current.left == null) != (current.right == null)) {
+        sketch.add(current.value);
+        current = current.left != null ? current.left : current.right;
+      }
+      if (current.left == null || !shouldSplit(current, remainingSplits)) {
+        Traversals.addToSketch(current, sketch);
+        return sketch;
+      }
+      sketch.add(current.value);
+
+      SketchTask leftTask = new SketchTask(current.left, precision, remainingSplits - 1);
+      leftTask.fork();
+      sketch.merge(new SketchTask(current.right, precision, remainingSplits - 1).compute());
+      sketch.merge(leftTask.join());
+      return sketch;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelTraversalsTest {
+
+    /*
+     * Builds a random binary search tree by inserting values in random order.
+     * Values are drawn from a small range so that duplicates are common.
+     */
+    private static TreeNode<Integer> randomTree(int size, long seed) {
+        Random random = new Random(seed);
+        TreeNode<Integer> root = new TreeNode<>(random.nextInt(size / 4) - size / 8);
+        for (int i = 1; i < size; i++) {
+            int value = random.nextInt(size / 4) - size / 8;
+            TreeNode<Integer> current = root;
+            while (true) {
+                if (value < current.value) {
+                    if (current.left == null) {
+                        current.left = new TreeNode<>(value);
+                        break;
+                    }
+                    current = current.left;
+                } else {
+                    if (current.right == null) {
+                        current.right = new TreeNode<>(value);
+                        break;
+                    }
+                    current = current.right;
+                }
+            }
+        }
+        return root;
+    }
+
+    @Test
+    void testNullTree() {
+        assertEquals(0, ParallelTraversals.sumLeafNodes(null));
+        assertEquals(0, ParallelTraversals.countInternalNodes(null));
+        assertEquals(0, ParallelTraversals.countDistinctValues(null));
+        assertFalse(ParallelTraversals.hasStrictlyIncreasingPath(null));
+    }
+
+    @Test
+    void testRandomTree_matchesSequential() {
+        TreeNode<Integer> root = randomTree(200_000, 42);
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            assertEquals(Traversals.sumLeafNodes(root), ParallelTraversals.sumLeafNodes(root, pool));
+            assertEquals(Traversals.countInternalNodes(root), ParallelTraversals.countInternalNodes(root, pool));
+            assertEquals(Traversals.countDistinctValues(root), ParallelTraversals.countDistinctValues(root, pool));
+            assertEquals(Traversals.estimateDistinctValues(root, 0.02),
+                ParallelTraversals.estimateDistinctValues(root, 0.02, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testChainAboveBalancedSubtrees_matchesSequential() {
+        /*
+         * A long single-child chain with a random subtree hanging off its end.
+         */
+        TreeNode<Integer> root = randomTree(50_000, 7);
+        for (int i = 0; i < 10_000; i++) {
+            root = i % 2 == 0 ? new TreeNode<>(i, root, null) : new TreeNode<>(i, null, root);
+        }
+        assertEquals(Traversals.sumLeafNodes(root), ParallelTraversals.sumLeafNodes(root));
+        assertEquals(Traversals.countInternalNodes(root), ParallelTraversals.countInternalNodes(root));
+        assertEquals(Traversals.countDistinctValues(root), ParallelTraversals.countDistinctValues(root));
+    }
+
+    @Test
+    void testHasStrictlyIncreasingPath_matchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            for (long seed = 0; seed < 50; seed++) {
+                TreeNode<Integer> root = randomTree(2_000, seed);
+                assertEquals(Traversals.hasStrictlyIncreasingPath(root),
+                    ParallelTraversals.hasStrictlyIncreasingPath(root, pool), "seed " + seed);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testHasStrictlyIncreasingPath_onlyDeepPathQualifies() {
+        /*
+         * A complete tree of decreasing values with a single increasing path grafted
+         * onto its rightmost leaf.
+         */
+        int size = 1 << 16;
+        List<TreeNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add(new TreeNode<>(size - i));
+        }
+        for (int i = 0; 2 * i + 2 < size; i++) {
+            nodes.get(i).left = nodes.get(2 * i + 1);
+            nodes.get(i).right = nodes.get(2 * i + 2);
+        }
+        TreeNode<Integer> root = nodes.get(0);
+        assertFalse(ParallelTraversals.hasStrictlyIncreasingPath(root));
+
+        root.value = Integer.MIN_VALUE;
+        TreeNode<Integer> current = root;
+        while (current.right != null) {
+            current = current.right;
+            current.value = -current.value;
+        }
+        assertTrue(Traversals.hasStrictlyIncreasingPath(root));
+        assertTrue(ParallelTraversals.hasStrictlyIncreasingPath(root));
+    }
+
+    @Test
+    void testSizeCutoffStopsAtThreshold() {
+        int limit = ParallelTraversals.SEQUENTIAL_THRESHOLD;
+        TreeNode<Integer> root = randomTree(limit - 1, 3);
+        assertTrue(ParallelTraversals.smallerThan(root, limit));
+        assertFalse(ParallelTraversals.smallerThan(randomTree(limit, 3), limit));
+        assertFalse(ParallelTraversals.smallerThan(randomTree(100_000, 3), limit));
+        assertEquals(Traversals.sumLeafNodes(root), ParallelTraversals.sumLeafNodes(root));
+        assertEquals(Traversals.countDistinctValues(root), ParallelTraversals.countDistinctValues(root));
+    }
+}
@@ -0,0 +1,410 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A pre-order serialization of a tree that can be produced and consumed as a stream, for trees far
+ * larger than the heap. Each node is written as it is visited, with flags saying which children
+ * follow, so a {@link Reader} can pull nodes one at a time from a {@link ReadableByteChannel}
+ * while holding only O(depth) state and never building the tree. {@link #sumLeafNodes},
+ * {@link #countInternalNodes} and {@link #writePostOrder} run over a stream in one sequential pass.
+ *
+ * <p>Stream layout, little-endian:
+ * <pre>
+ *   header  magic, version, value kind, 1 if there is a root or 0 for an empty tree (4 ints)
+ *   nodes   in pre-order: flags (1 byte; 1 = has left child, 2 = has right child), then the value:
+ *           INT kind:    the value (int)
+ *           STRING kind: its UTF-8 length (int, -1 for null) and bytes
+ * </pre>
+ */
+public class PreOrderStream {
+  static final int MAGIC = 0x50455254; // "TREP" in little-endian byte order
+  static final int VERSION = 1;
+  static final int KIND_INT = 0;
+  static final int KIND_STRING = 1;
+  static final int HEADER_SIZE = 16;
+  private static final int HAS_LEFT = 1;
+  private static final int HAS_RIGHT = 2;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Writes a tree of integers to the given channel. The channel is not closed.
+   *
+   * @param node the root of the tree, or null for an empty tree
+   * @param out  the channel to write to
+   * @throws IOException if the channel cannot be written
+   */
+  public static void writeInts(TreeNode<Integer> node, WritableByteChannel out) throws IOException {
+    write(node, out, KIND_INT, null);
+  }
+
+  /**
+   * Writes a tree of strings to the given channel. The channel is not closed.
+   *
+   * @param node the root of the tree, or null for an empty tree
+   * @param out  the channel to write to
+   * @throws IOException if the channel cannot be written
+   */
+  public static void writeStrings(TreeNode<String> node, WritableByteChannel out) throws IOException {
+    writeStrings(node, out, Function.identity());
+  }
+
+  /**
+   * Writes a tree to the given channel, storing each value as the string produced by the encoder.
+   * The channel is not closed.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param out     the channel to write to
+   * @param encoder turns a value into the string stored for it; may return null
+   * @param <T>     the type of values stored in the tree
+   * @throws IOException if the channel cannot be written
+   */
+  public static <T> void writeStrings(TreeNode<T> node, WritableByteChannel out, Function<? super T, String> encoder)
+      throws IOException {
+    write(node, out, KIND_STRING, encoder);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void write(TreeNode<T> node, WritableByteChannel out, int kind,
+      Function<? super T, String> encoder) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(node == null ? 0 : 1);
+
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    if (node != null) {
+      stack.push(node);
+    }
+    while (!stack.isEmpty()) {
+      TreeNode<T> current = stack.pop();
+      int flags = (current.left != null ? HAS_LEFT : 0) | (current.right != null ? HAS_RIGHT : 0);
+      if (kind == KIND_INT) {
+        ensureSpace(buffer, out, 1 + Integer.BYTES);
+        buffer.put((byte) flags).putInt(((TreeNode<Integer>) current).value);
+      } else {
+        String value = encoder.apply(current.value);
+        byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        ensureSpace(buffer, out, 1 + Integer.BYTES);
+        buffer.put((byte) flags).putInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null) {
+          // Values longer than the buffer are copied through it in chunks.
+          for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+              flush(buffer, out);
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+          }
+        }
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+      }
+    }
+    flush(buffer, out);
+  }
+
+  private static void ensureSpace(ByteBuffer buffer, WritableByteChannel out, int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush(buffer, out);
+    }
+  }
+
+  private static void flush(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes of a streamed integer tree.
+   * An empty tree sums to 0. The channel is not closed, but as with {@link Reader}, bytes after
+   * the end of the tree may be consumed from it.
+   *
+   * @param in the channel holding the stream
+   * @return the sum of leaf node values
+   * @throws IOException if the channel cannot be read or does not hold a valid stream
+   * @throws IllegalStateException if the stream holds strings
+   */
+  public static int sumLeafNodes(ReadableByteChannel in) throws IOException {
+    Reader reader = Reader.open(in);
+    int sum = 0;
+    while (reader.next()) {
+      if (reader.isLeaf()) {
+        sum += reader.intValue();
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Counts the internal nodes of a streamed tree. An empty tree has none.
+   * The channel is not closed, but as with {@link Reader}, bytes after the end of the tree may be
+   * consumed from it.
+   *
+   * @param in the channel holding the stream
+   * @return the count of internal nodes
+   * @throws IOException if the channel cannot be read or does not hold a valid stream
+   */
+  public static int countInternalNodes(ReadableByteChannel in) throws IOException {
+    Reader reader = Reader.open(in);
+    int count = 0;
+    while (reader.next()) {
+      if (!reader.isLeaf()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Writes the string representation of each value of a streamed tree, in post-order, to the
+   * given sink, producing the same output as {@link Traversals#writePostOrder(TreeNode, Appendable)}
+   * on the materialized tree. A node is written as soon as its last descendant has been read, so
+   * only the values of the current node's ancestors are held. The channel is not closed, but as
+   * with {@link Reader}, bytes after the end of the tree may be consumed from it.
+   *
+   * @param in  the channel holding the stream
+   * @param out the sink to write to
+   * @throws IOException if the channel cannot be read, does not hold a valid stream, or the sink throws
+   */
+  public static void writePostOrder(ReadableByteChannel in, Appendable out) throws IOException {
+    Reader reader = Reader.open(in);
+    // For each ancestor of the current node: its value and how many of its children are still unread.
+    ArrayStack<String> values = new ArrayStack<>();
+    IntStack unread = new IntStack();
+    while (reader.next()) {
+      String value = reader.stringValue();
+      int children = reader.childCount();
+      if (children > 0) {
+        values.push(value);
+        unread.push(children);
+        continue;
+      }
+      out.append(String.valueOf(value));
+      while (!unread.isEmpty()) {
+        int remaining = unread.pop() - 1;
+        if (remaining > 0) {
+          unread.push(remaining);
+          break;
+        }
+        out.append(String.valueOf(values.pop()));
+      }
+    }
+  }
+
+  /**
+   * Creates the post-order string of a streamed tree, as {@link Traversals#buildPostOrderString(TreeNode)}
+   * would for the materialized tree. The channel is not closed, but as with {@link Reader}, bytes
+   * after the end of the tree may be consumed from it.
+   *
+   * @param in the channel holding the stream
+   * @return a post-order traversal string, or an empty string for an empty tree
+   * @throws IOException if the channel cannot be read or does not hold a valid stream
+   */
+  public static String buildPostOrderString(ReadableByteChannel in) throws IOException {
+    StringBuilder result = new StringBuilder();
+    writePostOrder(in, result);
+    return result.toString();
+  }
+
+  /**
+   * A pull parser over a pre-order stream. Each call to {@link #next()} reads one node, whose value,
+   * children and depth can then be queried until the next call. The parser keeps one small read
+   * buffer and, for each ancestor of the current node, the number of its children not yet read.
+   *
+   * <p>The channel is read in blocks of up to 64 KiB, so the parser may consume bytes that follow
+   * the end of the tree. A tree that shares its channel with other data must be framed by the
+   * caller, for example with a length prefix and a bounded channel.
+   */
+  public static final class Reader implements Closeable {
+    private final ReadableByteChannel in;
+    private final ByteBuffer buffer;
+    private final int kind;
+    /** Unread children of each ancestor of the next node; zeros are popped before each read. */
+    private final IntStack unread = new IntStack();
+    private boolean rootPending;
+    private int flags;
+    private int depth;
+    private int intValue;
+    private String stringValue;
+
+    private Reader(ReadableByteChannel in, ByteBuffer buffer, int kind, boolean rootPending) {
+      this.in = in;
+      this.buffer = buffer;
+      this.kind = kind;
+      this.rootPending = rootPending;
+    }
+
+    /**
+     * Reads the stream header from the given channel.
+     *
+     * @param in the channel holding the stream
+     * @return a parser positioned before the root
+     * @throws IOException if the channel cannot be read or does not start with a stream header
+     */
+    public static Reader open(ReadableByteChannel in) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.flip();
+      if (!fill(in, buffer, HEADER_SIZE) || buffer.getInt() != MAGIC) {
+        throw new IOException("not a pre-order tree stream");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IOException("unsupported pre-order tree stream version " + version);
+      }
+      int kind = buffer.getInt();
+      if (kind != KIND_INT && kind != KIND_STRING) {
+        throw new IOException("unknown value kind " + kind);
+      }
+      return new Reader(in, buffer, kind, buffer.getInt() != 0);
+    }
+
+    /**
+     * Reads the next node in pre-order.
+     *
+     * @return true if a node was read, false once the whole tree has been read
+     * @throws IOException if the channel cannot be read or the stream ends inside the tree
+     */
+    public boolean next() throws IOException {
+      if (rootPending) {
+        rootPending = false;
+        depth = 0;
+      } else {
+        while (!unread.isEmpty() && unread.peek() == 0) {
+          unread.pop();
+        }
+        if (unread.isEmpty()) {
+          return false;
+        }
+        unread.push(unread.pop() - 1);
+        depth = unread.size();
+      }
+
+      if (!fill(in, buffer, 1 + Integer.BYTES)) {
+        throw new EOFException("pre-order tree stream ends inside the tree");
+      }
+      flags = buffer.get() & 0xFF;
+      if ((flags & ~(HAS_LEFT | HAS_RIGHT)) != 0) {
+        throw new IOException("corrupt node flags " + flags);
+      }
+      if (kind == KIND_INT) {
+        intValue = buffer.getInt();
+      } else {
+        stringValue = readString(buffer.getInt());
+      }
+      unread.push(childCount());
+      return true;
+    }
+
+    /**
+     * Reads a string of the given UTF-8 length. The byte array grows with the bytes actually read
+     * rather than being sized from the length up front, so a corrupt length fails with an
+     * {@link EOFException} when the stream runs out instead of with a huge allocation.
+     */
+    private String readString(int length) throws IOException {
+      if (length == -1) {
+        return null;
+      }
+      if (length < 0) {
+        throw new IOException("corrupt value length " + length);
+      }
+      byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+      for (int offset = 0; offset < length; ) {
+        if (!buffer.hasRemaining() && !fill(in, buffer, 1)) {
+          throw new EOFException("pre-order tree stream ends inside a value");
+        }
+        if (offset == bytes.length) {
+          bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+        }
+        int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.get(bytes, offset, chunk);
+        offset += chunk;
+      }
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Reads until at least the given number of bytes are buffered, returning false if the channel ends first. */
+    private static boolean fill(ReadableByteChannel in, ByteBuffer buffer, int bytes) throws IOException {
+      if (buffer.remaining() >= bytes) {
+        return true;
+      }
+      buffer.compact();
+      try {
+        while (buffer.position() < bytes) {
+          if (in.read(buffer) < 0) {
+            return false;
+          }
+        }
+      } finally {
+        buffer.flip();
+      }
+      return true;
+    }
+
+    /** Returns whether the stream holds integers. */
+    public boolean isIntTree() {
+      return kind == KIND_INT;
+    }
+
+    /** Returns the current node's depth, with the root at depth 0. */
+    public int depth() {
+      return depth;
+    }
+
+    public boolean hasLeft() {
+      return (flags & HAS_LEFT) != 0;
+    }
+
+    public boolean hasRight() {
+      return (flags & HAS_RIGHT) != 0;
+    }
+
+    /** Returns the number of children of the current node. */
+    public int childCount() {
+      return (flags & HAS_LEFT) + (flags >> 1);
+    }
+
+    public boolean isLeaf() {
+      return flags == 0;
+    }
+
+    /**
+     * Returns the current node's integer value.
+     *
+     * @throws IllegalStateException if the stream holds strings
+     */
+    public int intValue() {
+      if (kind != KIND_INT) {
+        throw new IllegalStateException("stream does not store integers");
+      }
+      return intValue;
+    }
+
+    /**
+     * Returns the current node's value as a string: the decimal form of an integer value,
+     * or the stored string, which may be null.
+     */
+    public String stringValue() {
+      return kind == KIND_INT ? Integer.toString(intValue) : stringValue;
+    }
+
+    /** Closes the underlying channel. */
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.*;
+
+public class PreOrderStreamTest {
+
+    private static byte[] ints(TreeNode<Integer> node) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PreOrderStream.writeInts(node, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static ReadableByteChannel channel(byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void testAggregatesMatchTraversals() throws IOException {
+        byte[] bytes = ints(TestTrees.sample());
+        assertEquals(Traversals.sumLeafNodes(TestTrees.sample()), PreOrderStream.sumLeafNodes(channel(bytes)));
+        assertEquals(Traversals.countInternalNodes(TestTrees.sample()), PreOrderStream.countInternalNodes(channel(bytes)));
+        assertEquals(Traversals.buildPostOrderString(TestTrees.sample()), PreOrderStream.buildPostOrderString(channel(bytes)));
+    }
+
+    @Test
+    void testEmptyTree() throws IOException {
+        byte[] bytes = ints(null);
+        assertEquals(0, PreOrderStream.sumLeafNodes(channel(bytes)));
+        assertEquals(0, PreOrderStream.countInternalNodes(channel(bytes)));
+        assertEquals("", PreOrderStream.buildPostOrderString(channel(bytes)));
+    }
+
+    @Test
+    void testReaderReportsNodesInPreOrder() throws IOException {
+        PreOrderStream.Reader reader = PreOrderStream.Reader.open(channel(ints(TestTrees.sample())));
+        assertTrue(reader.isIntTree());
+        List<String> nodes = new ArrayList<>();
+        while (reader.next()) {
+            nodes.add(reader.intValue() + "@" + reader.depth() + (reader.hasLeft() ? "L" : "") + (reader.hasRight() ? "R" : ""));
+        }
+        assertEquals(List.of("13@0LR", "-5@1LR", "9@2", "9@2LR", "31@3", "7@3", "42@1L", "100@2"), nodes);
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void testStringsAreStreamedThroughSmallAndLargeValues() throws IOException {
+        char[] large = new char[200_000];
+        Arrays.fill(large, '\u00e9');
+        TreeNode<String> root = new TreeNode<>("a",
+            new TreeNode<>(new String(large)),
+            new TreeNode<>(null, new TreeNode<>("b"), null));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PreOrderStream.writeStrings(root, Channels.newChannel(bytes));
+
+        assertEquals(Traversals.buildPostOrderString(root), PreOrderStream.buildPostOrderString(channel(bytes.toByteArray())));
+        assertEquals(2, PreOrderStream.countInternalNodes(channel(bytes.toByteArray())));
+        assertThrows(IllegalStateException.class, () -> PreOrderStream.sumLeafNodes(channel(bytes.toByteArray())));
+    }
+
+    @Test
+    void testEncoderWritesOtherValueTypes() throws IOException {
+        TreeNode<Double> root = new TreeNode<>(1.5, new TreeNode<>(2.0), null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PreOrderStream.writeStrings(root, Channels.newChannel(bytes), value -> Double.toString(value * 2));
+        assertEquals("4.03.0", PreOrderStream.buildPostOrderString(channel(bytes.toByteArray())));
+    }
+
+    @Test
+    void testRejectsInvalidStreams() throws IOException {
+        assertThrows(IOException.class, () -> PreOrderStream.sumLeafNodes(channel(new byte[] {1, 2, 3})));
+        byte[] bytes = ints(TestTrees.sample());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThrows(EOFException.class, () -> PreOrderStream.sumLeafNodes(channel(truncated)));
+    }
+
+    @Test
+    void testRejectsCorruptValueLengths() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PreOrderStream.writeStrings(new TreeNode<>("abc"), Channels.newChannel(out));
+        byte[] bytes = out.toByteArray();
+        // The root's length field follows the header and the root's flags byte.
+        ByteBuffer length = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        length.putInt(PreOrderStream.HEADER_SIZE + 1, Integer.MAX_VALUE);
+        assertThrows(EOFException.class, () -> PreOrderStream.buildPostOrderString(channel(bytes)));
+        length.putInt(PreOrderStream.HEADER_SIZE + 1, -2);
+        assertThrows(IOException.class, () -> PreOrderStream.buildPostOrderString(channel(bytes)));
+    }
+
+    @Test
+    void testDeepTreeStreamsWithoutMaterializing() throws IOException {
+        int depth = 1_000_000;
+        TreeNode<Integer> root = null;
+        for (int i = depth; i >= 1; i--) {
+            root = new TreeNode<>(i, i % 2 == 0 ? new TreeNode<>(-i) : null, root);
+        }
+        byte[] bytes = ints(root);
+        assertEquals(Traversals.sumLeafNodes(root), PreOrderStream.sumLeafNodes(channel(bytes)));
+        assertEquals(Traversals.countInternalNodes(root), PreOrderStream.countInternalNodes(channel(bytes)));
+        assertEquals(Traversals.buildPostOrderString(root), PreOrderStream.buildPostOrderString(channel(bytes)));
+    }
+}
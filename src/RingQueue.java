@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+/**
+ * A growable FIFO queue backed by a circular array, used by the level-order traversals.
+ * Enqueuing never allocates beyond the occasional doubling of the backing array, unlike
+ * {@link java.util.LinkedList}, which allocates a list node per element. A queue can be cleared
+ * and reused across traversals.
+ *
+ * @param <E> the type of elements held in the queue
+ */
+public class RingQueue<E> {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private Object[] elements;
+  private int head;
+  private int size;
+
+  public RingQueue() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public RingQueue(int initialCapacity) {
+    // The capacity is kept at a power of two so indices wrap with a mask.
+    elements = new Object[Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1];
+  }
+
+  /**
+   * Adds an element to the tail of the queue.
+   *
+   * @param element the element to add
+   * @throws NullPointerException if the element is null
+   */
+  public void add(E element) {
+    if (element == null) {
+      throw new NullPointerException("null elements are not allowed");
+    }
+    if (size == elements.length) {
+      grow();
+    }
+    elements[(head + size) & (elements.length - 1)] = element;
+    size++;
+  }
+
+  /**
+   * Removes and returns the element at the head of the queue.
+   *
+   * @return the head element, or null if the queue is empty
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    if (size == 0) {
+      return null;
+    }
+    E element = (E) elements[head];
+    elements[head] = null;
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return element;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every element while keeping the backing array for reuse.
+   */
+  public void clear() {
+    while (size > 0) {
+      poll();
+    }
+    head = 0;
+  }
+
+  private void grow() {
+    Object[] grown = new Object[elements.length << 1];
+    int firstPart = elements.length - head;
+    System.arraycopy(elements, head, grown, 0, firstPart);
+    System.arraycopy(elements, 0, grown, firstPart, head);
+    elements = grown;
+    head = 0;
+  }
+}
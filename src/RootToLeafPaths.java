@@ -0,0 +1,130 @@
+import java.util.*;
+
+/**
+ * All root-to-leaf paths of a tree, stored so that paths share their common prefixes.
+ * Every tree node is recorded once, in pre-order, with the index of its parent; a path is
+ * identified by the index of its leaf and is recovered by following parent links back to the root.
+ * Memory use is O(nodes) no matter how long or numerous the paths are, whereas materializing
+ * every path as its own list costs O(leaves x depth).
+ *
+ * @param <T> the type of values stored in the tree
+ */
+public class RootToLeafPaths<T> {
+  private final Object[] values;
+  private final int[] parents;
+  private final int[] leaves;
+
+  private RootToLeafPaths(Object[] values, int[] parents, int[] leaves) {
+    this.values = values;
+    this.parents = parents;
+    this.leaves = leaves;
+  }
+
+  /**
+   * Records the root-to-leaf paths of the given tree. Paths are numbered in pre-order,
+   * matching the order of {@link Traversals#findAllRootToLeafPaths(TreeNode)}.
+   * If node is null, there are no paths.
+   *
+   * @param node the root node of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return the paths of the tree
+   */
+  public static <T> RootToLeafPaths<T> of(TreeNode<T> node) {
+    int size = CompactTree.countNodes(node);
+    Object[] values = new Object[size];
+    int[] parents = new int[size];
+    int[] leaves = new int[size];
+    int leafCount = 0;
+    int next = 0;
+
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    IntStack parentIndices = new IntStack();
+    if (node != null) {
+      stack.push(node);
+      parentIndices.push(-1);
+    }
+    while (!stack.isEmpty()) {
+      TreeNode<T> current = stack.pop();
+      int index = next++;
+      values[index] = current.value;
+      parents[index] = parentIndices.pop();
+      if (current.left == null && current.right == null) {
+        leaves[leafCount++] = index;
+        continue;
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+        parentIndices.push(index);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+        parentIndices.push(index);
+      }
+    }
+    return new RootToLeafPaths<>(values, parents, Arrays.copyOf(leaves, leafCount));
+  }
+
+  /**
+   * Returns the number of root-to-leaf paths, which is the number of leaves in the tree.
+   *
+   * @return the path count
+   */
+  public int size() {
+    return leaves.length;
+  }
+
+  /**
+   * Returns the number of nodes on the given path, including the root and the leaf.
+   *
+   * @param pathIndex the path index, from 0 to {@code size() - 1}
+   * @return the path length
+   */
+  public int length(int pathIndex) {
+    int length = 0;
+    for (int i = leaves[pathIndex]; i >= 0; i = parents[i]) {
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * Returns the value of the leaf that ends the given path.
+   *
+   * @param pathIndex the path index, from 0 to {@code size() - 1}
+   * @return the leaf value
+   */
+  @SuppressWarnings("unchecked")
+  public T leaf(int pathIndex) {
+    return (T) values[leaves[pathIndex]];
+  }
+
+  /**
+   * Materializes the given path as a new list of values from root to leaf.
+   *
+   * @param pathIndex the path index, from 0 to {@code size() - 1}
+   * @return the values on the path
+   */
+  @SuppressWarnings("unchecked")
+  public List<T> path(int pathIndex) {
+    Object[] path = new Object[length(pathIndex)];
+    int position = path.length;
+    for (int i = leaves[pathIndex]; i >= 0; i = parents[i]) {
+      path[--position] = values[i];
+    }
+    return (List<T>) Arrays.asList(path);
+  }
+
+  /**
+   * Materializes every path. This costs O(leaves x depth) memory, so prefer
+   * {@link #path(int)} or {@link Traversals#forEachRootToLeafPath} for large trees.
+   *
+   * @return a list of lists, where each inner list represents a root-to-leaf path in pre-order
+   */
+  public List<List<T>> toLists() {
+    List<List<T>> paths = new ArrayList<>(leaves.length);
+    for (int i = 0; i < leaves.length; i++) {
+      paths.add(path(i));
+    }
+    return paths;
+  }
+}
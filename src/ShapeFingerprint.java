@@ -0,0 +1,176 @@
+import java.util.*;
+
+/**
+ * A cached, Merkle-style hash of a tree's shape, ignoring its values. Each node's hash combines
+ * the hashes of its two subtrees, with a fixed constant standing in for an absent child, so trees
+ * of the same shape always have the same fingerprint. Computing a fingerprint walks the tree once;
+ * after that, comparing two fingerprints that differ is O(1), and only matching fingerprints fall
+ * back to {@link Traversals#haveSameShape} to rule out a hash collision.
+ *
+ * <p>A fingerprint describes the tree as it was when it was computed; it must be recomputed
+ * if the tree's structure changes.
+ *
+ * @param <T> the type of values stored in the tree
+ */
+public class ShapeFingerprint<T> {
+  static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+
+  private final TreeNode<T> root;
+  private final long hash;
+  private final int size;
+
+  private ShapeFingerprint(TreeNode<T> root, long hash, int size) {
+    this.root = root;
+    this.hash = hash;
+    this.size = size;
+  }
+
+  /**
+   * Computes the shape fingerprint of the given tree. If node is null, returns the fingerprint
+   * of the empty tree.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return the fingerprint of the tree's shape
+   */
+  public static <T> ShapeFingerprint<T> of(TreeNode<T> node) {
+    if (node == null) {
+      return new ShapeFingerprint<>(null, NULL_HASH, 0);
+    }
+
+    // Post-order walk: a node's hash is computed once both of its subtree hashes are on the stack.
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    long[] hashes = new long[16];
+    int hashCount = 0;
+    int size = 0;
+    TreeNode<T> current = node;
+    TreeNode<T> lastVisited = null;
+
+    while (current != null || !stack.isEmpty()) {
+      if (current != null) {
+        stack.push(current);
+        current = current.left;
+        continue;
+      }
+      TreeNode<T> top = stack.peek();
+      if (top.right != null && top.right != lastVisited) {
+        current = top.right;
+        continue;
+      }
+      long rightHash = top.right == null ? NULL_HASH : hashes[--hashCount];
+      long leftHash = top.left == null ? NULL_HASH : hashes[--hashCount];
+      if (hashCount == hashes.length) {
+        hashes = Arrays.copyOf(hashes, hashCount << 1);
+      }
+      hashes[hashCount++] = combine(leftHash, rightHash);
+      size++;
+      lastVisited = stack.pop();
+    }
+    return new ShapeFingerprint<>(node, hashes[0], size);
+  }
+
+  /**
+   * Returns the tree this fingerprint was computed from.
+   */
+  public TreeNode<T> root() {
+    return root;
+  }
+
+  /**
+   * Returns the 64-bit shape hash.
+   */
+  public long hash() {
+    return hash;
+  }
+
+  /**
+   * Returns the number of nodes in the tree.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if the fingerprinted trees have the same shape. Differing hashes or sizes answer in O(1);
+   * equal ones are confirmed with a structural walk.
+   *
+   * @param other the fingerprint of the other tree
+   * @return true if the trees have the same shape, false otherwise
+   */
+  public boolean sameShapeAs(ShapeFingerprint<?> other) {
+    if (hash != other.hash || size != other.size) {
+      return false;
+    }
+    @SuppressWarnings("unchecked")
+    TreeNode<Object> a = (TreeNode<Object>) root;
+    @SuppressWarnings("unchecked")
+    TreeNode<Object> b = (TreeNode<Object>) other.root;
+    return Traversals.haveSameShape(a, b);
+  }
+
+  /**
+   * Groups trees into classes of equal shape, preserving the input order within each class and
+   * ordering classes by their first member. Shapes are hash-consed: every distinct (left, right)
+   * pair of subtree shapes seen across all trees is assigned a small integer id, so two trees share
+   * a shape exactly when their roots get the same id. This takes expected O(total nodes) time and
+   * needs no pairwise comparisons or collision checks.
+   *
+   * @param trees the roots of the trees to group; null entries stand for empty trees
+   * @param <T>   the type of values stored in the trees
+   * @return the shape-equivalence classes
+   */
+  public static <T> List<List<TreeNode<T>>> groupByShape(Collection<TreeNode<T>> trees) {
+    Map<Long, Integer> shapeIds = new HashMap<>();
+    Map<Integer, List<TreeNode<T>>> groups = new LinkedHashMap<>();
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    IntStack ids = new IntStack();
+
+    for (TreeNode<T> tree : trees) {
+      int id = tree == null ? 0 : shapeId(tree, shapeIds, stack, ids);
+      groups.computeIfAbsent(id, key -> new ArrayList<>()).add(tree);
+    }
+    return new ArrayList<>(groups.values());
+  }
+
+  /**
+   * Returns the hash-consed id of the given tree's shape, interning any new subtree shapes.
+   * Id 0 is reserved for the empty tree.
+   */
+  private static <T> int shapeId(TreeNode<T> node, Map<Long, Integer> shapeIds,
+      ArrayStack<TreeNode<T>> stack, IntStack ids) {
+    TreeNode<T> current = node;
+    TreeNode<T> lastVisited = null;
+
+    while (current != null || !stack.isEmpty()) {
+      if (current != null) {
+        stack.push(current);
+        current = current.left;
+        continue;
+      }
+      TreeNode<T> top = stack.peek();
+      if (top.right != null && top.right != lastVisited) {
+        current = top.right;
+        continue;
+      }
+      int rightId = top.right == null ? 0 : ids.pop();
+      int leftId = top.left == null ? 0 : ids.pop();
+      long key = ((long) leftId << 32) | (rightId & 0xFFFFFFFFL);
+      Integer id = shapeIds.get(key);
+      if (id == null) {
+        id = shapeIds.size() + 1;
+        shapeIds.put(key, id);
+      }
+      ids.push(id);
+      lastVisited = stack.pop();
+    }
+    return ids.pop();
+  }
+
+  static long combine(long leftHash, long rightHash) {
+    // Asymmetric in its arguments, so mirrored shapes hash differently.
+    long h = leftHash * 0xBF58476D1CE4E5B9L + Long.rotateLeft(rightHash, 31) * 0x94D049BB133111EBL;
+    h ^= h >>> 29;
+    h *= 0xBF58476D1CE4E5B9L;
+    return h ^ (h >>> 32);
+  }
+}
@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+
+public class ShapeFingerprintTest {
+
+    @Test
+    void testSameShapeDifferentValues() {
+        /*
+         * Tree A:            5               Tree B:            99
+         *                  /    \                             /    \
+         *                3       10                          100    0
+         *                       /                                   /
+         *                      8                                   8
+         */
+        ShapeFingerprint<Integer> a = ShapeFingerprint.of(
+            new TreeNode<>(5, new TreeNode<>(3), new TreeNode<>(10, new TreeNode<>(8), null)));
+        ShapeFingerprint<Integer> b = ShapeFingerprint.of(
+            new TreeNode<>(99, new TreeNode<>(100), new TreeNode<>(0, new TreeNode<>(8), null)));
+        assertEquals(a.hash(), b.hash());
+        assertEquals(4, a.size());
+        assertTrue(a.sameShapeAs(b));
+    }
+
+    @Test
+    void testMirroredShapesDiffer() {
+        ShapeFingerprint<Integer> left = ShapeFingerprint.of(new TreeNode<>(1, new TreeNode<>(2), null));
+        ShapeFingerprint<Integer> right = ShapeFingerprint.of(new TreeNode<>(1, null, new TreeNode<>(2)));
+        assertNotEquals(left.hash(), right.hash());
+        assertFalse(left.sameShapeAs(right));
+    }
+
+    @Test
+    void testEmptyTrees() {
+        ShapeFingerprint<Integer> empty = ShapeFingerprint.of(null);
+        assertEquals(0, empty.size());
+        assertTrue(empty.sameShapeAs(ShapeFingerprint.of(null)));
+        assertFalse(empty.sameShapeAs(ShapeFingerprint.of(new TreeNode<>(1))));
+    }
+
+    @Test
+    void testDeepTree() {
+        TreeNode<Integer> a = null;
+        TreeNode<Integer> b = null;
+        for (int i = 0; i < 1_000_000; i++) {
+            a = new TreeNode<>(i, a, null);
+            b = new TreeNode<>(-i, b, null);
+        }
+        assertTrue(ShapeFingerprint.of(a).sameShapeAs(ShapeFingerprint.of(b)));
+    }
+
+    @Test
+    void testGroupByShape() {
+        TreeNode<Integer> leaf = new TreeNode<>(1);
+        TreeNode<Integer> leftPair = new TreeNode<>(2, new TreeNode<>(3), null);
+        TreeNode<Integer> rightPair = new TreeNode<>(4, null, new TreeNode<>(5));
+        TreeNode<Integer> otherLeaf = new TreeNode<>(6);
+        TreeNode<Integer> otherLeftPair = new TreeNode<>(7, new TreeNode<>(8), null);
+
+        List<List<TreeNode<Integer>>> groups = ShapeFingerprint.groupByShape(
+            Arrays.asList(leaf, leftPair, null, rightPair, otherLeaf, otherLeftPair, null));
+
+        assertEquals(4, groups.size());
+        assertEquals(List.of(leaf, otherLeaf), groups.get(0));
+        assertEquals(List.of(leftPair, otherLeftPair), groups.get(1));
+        assertEquals(Arrays.asList(null, null), groups.get(2));
+        assertEquals(List.of(rightPair), groups.get(3));
+    }
+}
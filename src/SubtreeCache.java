@@ -0,0 +1,313 @@
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * An opt-in cache of aggregation results for subtrees of integer trees, for callers that ask about
+ * overlapping subtrees of the same tree again and again. Results are keyed by the identity of the
+ * subtree's root node, hold that node only weakly, and are evicted least-recently-used once the
+ * cache is full.
+ *
+ * <p>Leaf sums and internal counts add up across subtrees, so when a query walks the tree it stops
+ * at every descendant whose result is already cached and adds that result in, instead of walking
+ * the descendant's subtree again. Distinct counts do not combine that way and are only reused for
+ * the exact subtree they were computed for.
+ *
+ * <p>The cache cannot see changes to the tree. After changing a node, call
+ * {@link #invalidatePath(TreeNode, TreeNode)} to drop the results of the node and its ancestors,
+ * or {@link #invalidateAll()}. The cache is safe to share between threads.
+ */
+public class SubtreeCache {
+
+  /** The cached results for one subtree, tagged with {@link TreeStats} masks for those present. */
+  private static final class Entry {
+    int computed;
+    int leafSum;
+    int internalCount;
+    int distinctCount;
+  }
+
+  /** Weak map key comparing referents by identity; the hash is kept so cleared keys can be removed. */
+  private static final class WeakKey extends WeakReference<TreeNode<?>> {
+    private final int hash;
+
+    WeakKey(TreeNode<?> node, ReferenceQueue<TreeNode<?>> queue) {
+      super(node, queue);
+      hash = System.identityHashCode(node);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      TreeNode<?> node = get();
+      return node != null && other instanceof WeakKey && ((WeakKey) other).get() == node;
+    }
+  }
+
+  /**
+   * Reusable strong key for lookups, so a query does not allocate a weak reference per node.
+   * {@link HashMap} calls equals on the key being looked up, which compares against stored keys.
+   */
+  private static final class LookupKey {
+    TreeNode<?> node;
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(node);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof WeakKey && ((WeakKey) other).get() == node;
+    }
+  }
+
+  private final int maxEntries;
+  private final ReferenceQueue<TreeNode<?>> cleared = new ReferenceQueue<>();
+  private final LookupKey lookup = new LookupKey();
+  private final Map<Object, Entry> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates a cache holding results for at most the given number of subtrees.
+   *
+   * @param maxEntries the most subtrees to hold results for
+   * @throws IllegalArgumentException if maxEntries is not positive
+   */
+  public SubtreeCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+        if (size() > SubtreeCache.this.maxEntries) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes, reusing cached results for the tree and
+   * any of its subtrees. If node is null, this method returns 0.
+   *
+   * @param node the root of the tree
+   * @return the sum of leaf node values, or 0 if the tree is null
+   */
+  public synchronized int sumLeafNodes(TreeNode<Integer> node) {
+    return additive(node, TreeStats.LEAF_SUM);
+  }
+
+  /**
+   * Counts the internal nodes, reusing cached results for the tree and any of its subtrees.
+   * If node is null, this method returns 0.
+   *
+   * @param node the root of the tree
+   * @return the count of internal nodes, or 0 if the tree is null
+   */
+  public synchronized int countInternalNodes(TreeNode<Integer> node) {
+    return additive(node, TreeStats.INTERNAL_COUNT);
+  }
+
+  /**
+   * Counts the distinct values, reusing a cached result for this exact tree.
+   * If node is null, returns 0.
+   *
+   * @param node the root of the tree
+   * @return the number of unique values in the tree, or 0 if the tree is null
+   */
+  public synchronized int countDistinctValues(TreeNode<Integer> node) {
+    if (node == null) {
+      return 0;
+    }
+    Entry entry = find(node);
+    if (entry != null && (entry.computed & TreeStats.DISTINCT_COUNT) != 0) {
+      hits++;
+      return entry.distinctCount;
+    }
+    misses++;
+    int count = Traversals.countDistinctValues(node);
+    entry = entry != null ? entry : insert(node);
+    entry.distinctCount = count;
+    entry.computed |= TreeStats.DISTINCT_COUNT;
+    return count;
+  }
+
+  /**
+   * Pre-order walk that adds each node's own contribution, and the cached total of any cached
+   * descendant in place of walking its subtree. The root's total is cached afterwards.
+   */
+  private int additive(TreeNode<Integer> node, int aggregate) {
+    if (node == null) {
+      return 0;
+    }
+    Entry entry = find(node);
+    if (entry != null && (entry.computed & aggregate) != 0) {
+      hits++;
+      return read(entry, aggregate);
+    }
+    misses++;
+
+    int total = 0;
+    ArrayStack<TreeNode<Integer>> stack = new ArrayStack<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      TreeNode<Integer> current = stack.pop();
+      if (current != node) {
+        Entry cached = find(current);
+        if (cached != null && (cached.computed & aggregate) != 0) {
+          hits++;
+          total += read(cached, aggregate);
+          continue;
+        }
+      }
+      if (current.left == null && current.right == null) {
+        if (aggregate == TreeStats.LEAF_SUM) {
+          total += current.value;
+        }
+        continue;
+      }
+      if (aggregate == TreeStats.INTERNAL_COUNT) {
+        total++;
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+      }
+    }
+
+    entry = entry != null ? entry : insert(node);
+    if (aggregate == TreeStats.LEAF_SUM) {
+      entry.leafSum = total;
+    } else {
+      entry.internalCount = total;
+    }
+    entry.computed |= aggregate;
+    return total;
+  }
+
+  private static int read(Entry entry, int aggregate) {
+    return aggregate == TreeStats.LEAF_SUM ? entry.leafSum : entry.internalCount;
+  }
+
+  private Entry find(TreeNode<?> node) {
+    expungeCleared();
+    lookup.node = node;
+    Entry entry = entries.get(lookup);
+    lookup.node = null;
+    return entry;
+  }
+
+  private Entry insert(TreeNode<?> node) {
+    Entry entry = new Entry();
+    entries.put(new WeakKey(node, cleared), entry);
+    return entry;
+  }
+
+  /** Drops the entries of subtrees whose root nodes have been garbage collected. */
+  private void expungeCleared() {
+    for (Object key = cleared.poll(); key != null; key = cleared.poll()) {
+      entries.remove(key);
+    }
+  }
+
+  /**
+   * Drops the cached results of the given subtree root. Its ancestors' results are kept;
+   * use {@link #invalidatePath(TreeNode, TreeNode)} when they are affected too.
+   *
+   * @param node the subtree root whose results to drop
+   */
+  public synchronized void invalidate(TreeNode<?> node) {
+    expungeCleared();
+    lookup.node = node;
+    entries.remove(lookup);
+    lookup.node = null;
+  }
+
+  /**
+   * Drops the cached results of a changed node and of every ancestor of it below and including
+   * root, which are exactly the subtrees whose results the change can affect. Finding the node
+   * walks the tree from root.
+   *
+   * @param root    the root of the tree containing the changed node
+   * @param changed the node that was changed, or whose children were replaced
+   * @param <T>     the type of values stored in the tree
+   * @return true if the node was found under root
+   */
+  public synchronized <T> boolean invalidatePath(TreeNode<T> root, TreeNode<?> changed) {
+    if (root == null) {
+      return false;
+    }
+    // Each pending node is paired with its depth so the current path can be kept as a prefix.
+    List<TreeNode<T>> path = new ArrayList<>();
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    IntStack depths = new IntStack();
+    stack.push(root);
+    depths.push(0);
+    while (!stack.isEmpty()) {
+      TreeNode<T> current = stack.pop();
+      int depth = depths.pop();
+      path.subList(depth, path.size()).clear();
+      path.add(current);
+      if (current == changed) {
+        for (TreeNode<T> node : path) {
+          invalidate(node);
+        }
+        return true;
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+        depths.push(depth + 1);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+        depths.push(depth + 1);
+      }
+    }
+    return false;
+  }
+
+  /** Drops every cached result. Hit and miss counts are kept. */
+  public synchronized void invalidateAll() {
+    entries.clear();
+    while (cleared.poll() != null) {
+      // Keys of the removed entries; nothing left to remove.
+    }
+  }
+
+  /** Returns the number of subtrees with cached results. */
+  public synchronized int size() {
+    expungeCleared();
+    return entries.size();
+  }
+
+  /** Returns the number of cached results used, for whole queries and for subtrees within them. */
+  public synchronized long hitCount() {
+    return hits;
+  }
+
+  /** Returns the number of queries that had to walk their tree. */
+  public synchronized long missCount() {
+    return misses;
+  }
+
+  /** Returns the number of entries dropped to stay within the size bound. */
+  public synchronized long evictionCount() {
+    return evictions;
+  }
+}
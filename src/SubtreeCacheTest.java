@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+
+public class SubtreeCacheTest {
+
+    @Test
+    void testResultsMatchTraversals() {
+        SubtreeCache cache = new SubtreeCache(100);
+        TreeNode<Integer> root = TestTrees.sample();
+        for (int i = 0; i < 2; i++) {
+            assertEquals(147, cache.sumLeafNodes(root));
+            assertEquals(4, cache.countInternalNodes(root));
+            assertEquals(7, cache.countDistinctValues(root));
+        }
+        assertEquals(3, cache.missCount());
+        assertEquals(3, cache.hitCount());
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.sumLeafNodes(null));
+    }
+
+    @Test
+    void testParentReusesCachedChildResults() {
+        SubtreeCache cache = new SubtreeCache(100);
+        TreeNode<Integer> root = TestTrees.sample();
+        assertEquals(47, cache.sumLeafNodes(root.left));
+        assertEquals(100, cache.sumLeafNodes(root.right));
+        assertEquals(2, cache.missCount());
+
+        // Walking the root stops at both cached children.
+        assertEquals(147, cache.sumLeafNodes(root));
+        assertEquals(3, cache.missCount());
+        assertEquals(2, cache.hitCount());
+
+        assertEquals(2, cache.countInternalNodes(root.left));
+        assertEquals(4, cache.countInternalNodes(root));
+        assertEquals(3, cache.hitCount());
+    }
+
+    @Test
+    void testInvalidatePathDropsChangedNodeAndAncestors() {
+        SubtreeCache cache = new SubtreeCache(100);
+        TreeNode<Integer> root = TestTrees.sample();
+        TreeNode<Integer> changed = root.left.right;
+        assertEquals(38, cache.sumLeafNodes(changed));
+        assertEquals(47, cache.sumLeafNodes(root.left));
+        assertEquals(100, cache.sumLeafNodes(root.right));
+        assertEquals(147, cache.sumLeafNodes(root));
+
+        changed.left.value = 1031;
+        assertTrue(cache.invalidatePath(root, changed.left));
+        assertEquals(1, cache.size());
+        assertEquals(1147, cache.sumLeafNodes(root));
+        assertFalse(cache.invalidatePath(root, new TreeNode<>(0)));
+
+        cache.invalidate(root.right);
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() {
+        SubtreeCache cache = new SubtreeCache(2);
+        TreeNode<Integer> a = new TreeNode<>(1);
+        TreeNode<Integer> b = new TreeNode<>(2);
+        TreeNode<Integer> c = new TreeNode<>(3);
+        cache.sumLeafNodes(a);
+        cache.sumLeafNodes(b);
+        cache.sumLeafNodes(a);
+        cache.sumLeafNodes(c);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+
+        long hits = cache.hitCount();
+        cache.sumLeafNodes(a);
+        assertEquals(hits + 1, cache.hitCount());
+        cache.sumLeafNodes(b);
+        assertEquals(hits + 1, cache.hitCount());
+    }
+
+    @Test
+    void testEntriesDoNotKeepTreesAlive() throws InterruptedException {
+        SubtreeCache cache = new SubtreeCache(1000);
+        for (int i = 0; i < 100; i++) {
+            cache.sumLeafNodes(new TreeNode<>(i, new TreeNode<>(i), null));
+        }
+        for (int attempt = 0; attempt < 50 && cache.size() > 0; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDeepTree() {
+        TreeNode<Integer> root = null;
+        for (int i = 1_000_000; i >= 1; i--) {
+            root = new TreeNode<>(i, null, root);
+        }
+        SubtreeCache cache = new SubtreeCache(10);
+        assertEquals(1_000_000, cache.sumLeafNodes(root));
+        assertEquals(999_999, cache.countInternalNodes(root));
+    }
+}
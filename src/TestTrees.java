@@ -0,0 +1,45 @@
+/**
+ * Sample trees shared by the tests. Each call builds a fresh tree, so a test may modify it.
+ */
+final class TestTrees {
+
+    private TestTrees() {
+    }
+
+    /*
+     *            13
+     *           /  \
+     *         -5    42
+     *         / \   /
+     *       9   9  100
+     *          / \
+     *         31  7
+     */
+    static TreeNode<Integer> sample() {
+        return new TreeNode<>(
+            13,
+            new TreeNode<>(-5, new TreeNode<>(9), new TreeNode<>(9, new TreeNode<>(31), new TreeNode<>(7))),
+            new TreeNode<>(42, new TreeNode<>(100), null)
+        );
+    }
+
+    /*
+     * The same shape with a zero value, which primitive sets store out of band, and with the
+     * duplicate 9 moved to a leaf.
+     *
+     *            13
+     *           /  \
+     *         -5    42
+     *         / \   /
+     *       9   0  100
+     *          / \
+     *         31  9
+     */
+    static TreeNode<Integer> sampleWithZero() {
+        return new TreeNode<>(
+            13,
+            new TreeNode<>(-5, new TreeNode<>(9), new TreeNode<>(0, new TreeNode<>(31), new TreeNode<>(9))),
+            new TreeNode<>(42, new TreeNode<>(100), null)
+        );
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Reusable scratch space for running many traversals back to back, such as over millions of
+ * small trees. The cursors, stacks, primitive set and path buffer that {@link Traversals} would
+ * allocate on every call are created once here and handed to the same package-private cores the
+ * static methods run on. Every call clears the scratch it uses before starting, so a call that
+ * throws, for example from an action or on a null value, leaves the context usable. Once the
+ * scratch has grown to fit the largest tree seen, the traversal methods allocate nothing, and the
+ * batch methods write their results into caller-supplied primitive arrays.
+ *
+ * <p>A context is not thread-safe; use one per thread.
+ */
+public class TraversalContext {
+  private final TreeFold.Cursor<Integer> preOrder = new TreeFold.Cursor<>(TreeFold.Order.PRE, null);
+  private final TreeFold.Cursor<Object> postOrder = new TreeFold.Cursor<>(TreeFold.Order.POST, null);
+  private final TreeFold.Cursor<Object> levelOrder = new TreeFold.Cursor<>(TreeFold.Order.LEVEL, null);
+  private final ArrayStack<TreeNode<?>> stack = new ArrayStack<>();
+  private final IntStack ints = new IntStack();
+  private final IntHashSet set = new IntHashSet();
+  private final List<Object> path = new ArrayList<>();
+  private final List<Object> pathView = Collections.unmodifiableList(path);
+
+  /**
+   * Returns the sum of the values of all leaf nodes in the given tree, or 0 if it is null.
+   *
+   * @param node the node of the tree
+   * @return the sum of leaf node values
+   */
+  public int sumLeafNodes(TreeNode<Integer> node) {
+    return Traversals.sumLeafNodes(node, preOrder);
+  }
+
+  /**
+   * Counts the internal nodes in the given tree, or returns 0 if it is null.
+   *
+   * @param node the node of the tree
+   * @return the count of internal nodes
+   */
+  public int countInternalNodes(TreeNode<Integer> node) {
+    return Traversals.countInternalNodes(node, preOrder);
+  }
+
+  /**
+   * Counts the distinct values in the given tree, or returns 0 if it is null.
+   *
+   * @param node the node of the tree
+   * @return the number of unique values
+   */
+  public int countDistinctValues(TreeNode<Integer> node) {
+    set.clear();
+    preOrder.reset(node);
+    for (TreeNode<Integer> current = preOrder.next(); current != null; current = preOrder.next()) {
+      set.add(current.value);
+    }
+    return set.size();
+  }
+
+  /**
+   * Determines whether the given tree has a strictly increasing root-to-leaf path.
+   * If node is null, returns false.
+   *
+   * @param node the node of the tree
+   * @return true if there exists a strictly increasing root-to-leaf path
+   */
+  public boolean hasStrictlyIncreasingPath(TreeNode<Integer> node) {
+    if (node == null) {
+      return false;
+    }
+    return Traversals.hasStrictlyIncreasingPathFrom(node, null, null, scratchStack(), ints);
+  }
+
+  /**
+   * Appends the string representation of each node's value, in post-order, to the given builder.
+   *
+   * @param node the node of the tree
+   * @param out  the builder to append to
+   * @param <T>  the type of values stored in the tree
+   * @return the given builder
+   */
+  public <T> StringBuilder appendPostOrder(TreeNode<T> node, StringBuilder out) {
+    try {
+      Traversals.writePostOrder(node, out, cursor(postOrder), null);
+    } catch (IOException e) {
+      throw new AssertionError("StringBuilder does not throw IOException", e);
+    }
+    return out;
+  }
+
+  /**
+   * Adds the values of the given tree, level by level from top to bottom, to the given list.
+   *
+   * @param node the node of the tree
+   * @param out  the list to add to
+   * @param <T>  the type of values stored in the tree
+   */
+  public <T> void collectLevelOrderValues(TreeNode<T> node, List<? super T> out) {
+    if (node == null) {
+      return;
+    }
+    Traversals.collectLevelOrderValues(node, cursor(levelOrder), out);
+  }
+
+  /**
+   * Passes every root-to-leaf path of the given tree to the action, in pre-order, through the
+   * context's shared path buffer. As with {@link Traversals#forEachRootToLeafPath}, the list is a
+   * read-only view that is only valid during the call.
+   *
+   * @param node   the root node of the tree
+   * @param action the action to run on each path
+   * @param <T>    the type of values stored in the tree
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void forEachRootToLeafPath(TreeNode<T> node, Consumer<? super List<T>> action) {
+    if (node == null) {
+      return;
+    }
+    Traversals.forEachRootToLeafPath(node, action, this.<T>scratchStack(), ints, (List<T>) path,
+        (List<T>) pathView, null);
+  }
+
+  /**
+   * Computes {@link #sumLeafNodes} for each root, storing the result for {@code roots.get(i)} in {@code out[i]}.
+   *
+   * @param roots the roots of the trees; null entries are empty trees
+   * @param out   the array receiving one result per root
+   * @throws IllegalArgumentException if the array is shorter than the list
+   */
+  public void sumLeafNodes(List<TreeNode<Integer>> roots, int[] out) {
+    requireCapacity(roots, out.length);
+    for (int i = 0; i < roots.size(); i++) {
+      out[i] = sumLeafNodes(roots.get(i));
+    }
+  }
+
+  /**
+   * Computes {@link #countInternalNodes} for each root, storing the result for {@code roots.get(i)} in {@code out[i]}.
+   *
+   * @param roots the roots of the trees; null entries are empty trees
+   * @param out   the array receiving one result per root
+   * @throws IllegalArgumentException if the array is shorter than the list
+   */
+  public void countInternalNodes(List<TreeNode<Integer>> roots, int[] out) {
+    requireCapacity(roots, out.length);
+    for (int i = 0; i < roots.size(); i++) {
+      out[i] = countInternalNodes(roots.get(i));
+    }
+  }
+
+  /**
+   * Computes {@link #countDistinctValues} for each root, storing the result for {@code roots.get(i)} in {@code out[i]}.
+   *
+   * @param roots the roots of the trees; null entries are empty trees
+   * @param out   the array receiving one result per root
+   * @throws IllegalArgumentException if the array is shorter than the list
+   */
+  public void countDistinctValues(List<TreeNode<Integer>> roots, int[] out) {
+    requireCapacity(roots, out.length);
+    for (int i = 0; i < roots.size(); i++) {
+      out[i] = countDistinctValues(roots.get(i));
+    }
+  }
+
+  /**
+   * Computes {@link #hasStrictlyIncreasingPath} for each root, storing the result for {@code roots.get(i)} in {@code out[i]}.
+   *
+   * @param roots the roots of the trees; null entries are empty trees
+   * @param out   the array receiving one result per root
+   * @throws IllegalArgumentException if the array is shorter than the list
+   */
+  public void hasStrictlyIncreasingPath(List<TreeNode<Integer>> roots, boolean[] out) {
+    requireCapacity(roots, out.length);
+    for (int i = 0; i < roots.size(); i++) {
+      out[i] = hasStrictlyIncreasingPath(roots.get(i));
+    }
+  }
+
+  private static void requireCapacity(List<?> roots, int length) {
+    if (length < roots.size()) {
+      throw new IllegalArgumentException("output holds " + length + " results but there are " + roots.size() + " roots");
+    }
+  }
+
+  /**
+   * Returns the shared stack typed for the tree at hand. Every walk clears it before use, so
+   * nodes left behind by a call that threw never leak into the next one.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private <T> ArrayStack<TreeNode<T>> scratchStack() {
+    return (ArrayStack) stack;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> TreeFold.Cursor<T> cursor(TreeFold.Cursor<Object> cursor) {
+    return (TreeFold.Cursor<T>) (TreeFold.Cursor<?>) cursor;
+  }
+}
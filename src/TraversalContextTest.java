@@ -0,0 +1,172 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+public class TraversalContextTest {
+
+    private static List<TreeNode<Integer>> smallTrees(int count, long seed) {
+        Random random = new Random(seed);
+        List<TreeNode<Integer>> roots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TreeNode<Integer> root = new TreeNode<>(random.nextInt(10));
+            int size = random.nextInt(12);
+            for (int j = 0; j < size; j++) {
+                TreeNode<Integer> current = root;
+                while (true) {
+                    boolean goLeft = random.nextBoolean();
+                    TreeNode<Integer> next = goLeft ? current.left : current.right;
+                    if (next == null) {
+                        TreeNode<Integer> leaf = new TreeNode<>(random.nextInt(10));
+                        if (goLeft) current.left = leaf; else current.right = leaf;
+                        break;
+                    }
+                    current = next;
+                }
+            }
+            roots.add(i % 10 == 0 ? null : root);
+        }
+        return roots;
+    }
+
+    @Test
+    void testBatchMatchesTraversals() {
+        List<TreeNode<Integer>> roots = smallTrees(1_000, 1);
+        TraversalContext context = new TraversalContext();
+        int[] sums = new int[roots.size()];
+        int[] internal = new int[roots.size()];
+        int[] distinct = new int[roots.size()];
+        boolean[] increasing = new boolean[roots.size()];
+        context.sumLeafNodes(roots, sums);
+        context.countInternalNodes(roots, internal);
+        context.countDistinctValues(roots, distinct);
+        context.hasStrictlyIncreasingPath(roots, increasing);
+
+        for (int i = 0; i < roots.size(); i++) {
+            TreeNode<Integer> root = roots.get(i);
+            assertEquals(Traversals.sumLeafNodes(root), sums[i]);
+            assertEquals(Traversals.countInternalNodes(root), internal[i]);
+            assertEquals(Traversals.countDistinctValues(root), distinct[i]);
+            assertEquals(Traversals.hasStrictlyIncreasingPath(root), increasing[i]);
+        }
+    }
+
+    @Test
+    void testGenericMethodsMatchTraversals() {
+        TraversalContext context = new TraversalContext();
+        for (TreeNode<Integer> root : smallTrees(200, 2)) {
+            assertEquals(Traversals.buildPostOrderString(root), context.appendPostOrder(root, new StringBuilder()).toString());
+            List<Integer> levels = new ArrayList<>();
+            context.collectLevelOrderValues(root, levels);
+            assertEquals(Traversals.collectLevelOrderValues(root), levels);
+            List<List<Integer>> paths = new ArrayList<>();
+            context.forEachRootToLeafPath(root, path -> paths.add(new ArrayList<>(path)));
+            assertEquals(Traversals.findAllRootToLeafPaths(root), paths);
+        }
+    }
+
+    @Test
+    void testRejectsShortOutput() {
+        TraversalContext context = new TraversalContext();
+        assertThrows(IllegalArgumentException.class,
+            () -> context.sumLeafNodes(smallTrees(3, 3), new int[2]));
+    }
+
+    @Test
+    void testThrowingCallLeavesContextUsable() {
+        TraversalContext context = new TraversalContext();
+        TreeNode<Integer> wide = new TreeNode<>(1, new TreeNode<>(100), new TreeNode<>(200));
+        assertThrows(IllegalStateException.class, () -> context.forEachRootToLeafPath(wide, path -> {
+            throw new IllegalStateException("stop");
+        }));
+        assertEquals(5, context.sumLeafNodes(new TreeNode<>(5)));
+        List<List<Integer>> paths = new ArrayList<>();
+        context.forEachRootToLeafPath(wide, path -> paths.add(new ArrayList<>(path)));
+        assertEquals(List.of(List.of(1, 100), List.of(1, 200)), paths);
+
+        TreeNode<Integer> nullLeaf = new TreeNode<>(1, new TreeNode<>(null), new TreeNode<>(7));
+        assertThrows(NullPointerException.class, () -> context.sumLeafNodes(nullLeaf));
+        assertEquals(5, context.sumLeafNodes(new TreeNode<>(5)));
+        assertThrows(NullPointerException.class, () -> context.hasStrictlyIncreasingPath(nullLeaf));
+        assertFalse(context.hasStrictlyIncreasingPath(new TreeNode<>(3, new TreeNode<>(2), null)));
+        assertThrows(NullPointerException.class, () -> context.countDistinctValues(nullLeaf));
+        assertEquals(1, context.countDistinctValues(new TreeNode<>(5)));
+
+        assertThrows(IllegalStateException.class, () -> context.collectLevelOrderValues(wide, new AbstractList<Integer>() {
+            @Override public Integer get(int index) { throw new IndexOutOfBoundsException(); }
+            @Override public int size() { return 0; }
+            @Override public boolean add(Integer value) { throw new IllegalStateException("full"); }
+        }));
+        List<Integer> levels = new ArrayList<>();
+        context.collectLevelOrderValues(new TreeNode<>(5), levels);
+        assertEquals(List.of(5), levels);
+    }
+
+    @Test
+    void testSmallTreesAfterLargeTree() {
+        TreeNode<Integer> large = null;
+        for (int i = 1; i <= 100_000; i++) {
+            large = new TreeNode<>(i, large, null);
+        }
+        TraversalContext context = new TraversalContext();
+        assertEquals(100_000, context.countDistinctValues(large));
+        for (TreeNode<Integer> root : smallTrees(200, 5)) {
+            assertEquals(Traversals.countDistinctValues(root), context.countDistinctValues(root));
+        }
+        assertEquals(100_000, context.countDistinctValues(large));
+    }
+
+    @Test
+    void testSteadyStateDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<TreeNode<Integer>> roots = smallTrees(10_000, 4);
+        TraversalContext context = new TraversalContext();
+        int[] out = new int[roots.size()];
+        boolean[] flags = new boolean[roots.size()];
+        for (int round = 0; round < 3; round++) {
+            context.sumLeafNodes(roots, out);
+            context.countDistinctValues(roots, out);
+            context.hasStrictlyIncreasingPath(roots, flags);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        context.sumLeafNodes(roots, out);
+        context.countInternalNodes(roots, out);
+        context.countDistinctValues(roots, out);
+        context.hasStrictlyIncreasingPath(roots, flags);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        // 40,000 traversals; allow a little slack for the measurement itself.
+        assertTrue(allocated < 4_096, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testSteadyStateDoesNotAllocateForMixedSizes() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<TreeNode<Integer>> roots = smallTrees(10_000, 6);
+        // Every thousandth tree is large, so the set grows and then holds few values for its size.
+        for (int i = 0; i < roots.size(); i += 1_000) {
+            TreeNode<Integer> large = null;
+            for (int value = 1; value <= 5_000; value++) {
+                large = new TreeNode<>(value, large, null);
+            }
+            roots.set(i, large);
+        }
+        TraversalContext context = new TraversalContext();
+        int[] out = new int[roots.size()];
+        for (int round = 0; round < 3; round++) {
+            context.countDistinctValues(roots, out);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        context.countDistinctValues(roots, out);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(allocated < 4_096, "allocated " + allocated + " bytes");
+        for (int i = 0; i < roots.size(); i++) {
+            assertEquals(Traversals.countDistinctValues(roots.get(i)), out[i]);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in instrumentation for the linked-tree methods of {@link Traversals}.
+ * Run with {@code -Dtraversals.metrics=true} to record, for every call on a non-null tree,
+ * the nodes visited, the deepest node reached, the peak stack or queue size, the result size and
+ * the elapsed time. Each {@link Record} is passed to the registered {@link Listener}s and folded into
+ * per-method totals, which are published as a JMX MXBean named
+ * {@code Traversals:type=TraversalMetrics,method=<name>}.
+ *
+ * <p>The switch is read once into a {@code static final} field, and instrumented methods only
+ * create a {@link Probe} when it is set. When it is off every probe is null, so the JIT folds the
+ * checks away and the traversals run as if they were not instrumented.
+ */
+public class TraversalMetrics {
+
+  /** Whether instrumentation is on, fixed when the class is loaded. */
+  public static final boolean ENABLED = Boolean.getBoolean("traversals.metrics");
+
+  private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private static final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+
+  /** Receives a record after every instrumented call. */
+  @FunctionalInterface
+  public interface Listener {
+    /**
+     * Called on the traversing thread once a call completes, so it should return quickly.
+     *
+     * @param record the measurements of the call
+     */
+    void onTraversal(Record record);
+  }
+
+  /** The measurements of one call. */
+  public static final class Record {
+    private final String method;
+    private final long nodesVisited;
+    private final int maxDepth;
+    private final int peakFrontier;
+    private final long resultSize;
+    private final long elapsedNanos;
+
+    Record(String method, long nodesVisited, int maxDepth, int peakFrontier, long resultSize, long elapsedNanos) {
+      this.method = method;
+      this.nodesVisited = nodesVisited;
+      this.maxDepth = maxDepth;
+      this.peakFrontier = peakFrontier;
+      this.resultSize = resultSize;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Returns the name of the instrumented method. */
+    public String method() {
+      return method;
+    }
+
+    /** Returns the number of nodes the call visited. */
+    public long nodesVisited() {
+      return nodesVisited;
+    }
+
+    /**
+     * Returns the depth of the deepest node reached, counting the root as 1,
+     * or 0 if the walk does not track depth.
+     */
+    public int maxDepth() {
+      return maxDepth;
+    }
+
+    /** Returns the largest number of nodes waiting on the call's stack or queue at once. */
+    public int peakFrontier() {
+      return peakFrontier;
+    }
+
+    /**
+     * Returns the size of the result: the number of values or paths produced,
+     * or 1 for methods that return a single value.
+     */
+    public long resultSize() {
+      return resultSize;
+    }
+
+    /** Returns the wall-clock duration of the call in nanoseconds. */
+    public long elapsedNanos() {
+      return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return method + "[nodes=" + nodesVisited + ", maxDepth=" + maxDepth + ", peakFrontier=" + peakFrontier
+          + ", resultSize=" + resultSize + ", nanos=" + elapsedNanos + "]";
+    }
+  }
+
+  /**
+   * Accumulates the measurements of a single call. Walks report each visited node together with
+   * their current stack or queue size, and their depth when they track it.
+   */
+  static final class Probe {
+    private final String method;
+    private final long start = System.nanoTime();
+    private long nodesVisited;
+    private int maxDepth;
+    private int peakFrontier;
+
+    Probe(String method) {
+      this.method = method;
+    }
+
+    /** Records a visited node while the given number of nodes is pending. */
+    void visit(int frontier) {
+      nodesVisited++;
+      if (frontier > peakFrontier) {
+        peakFrontier = frontier;
+      }
+    }
+
+    /** Returns the number of nodes recorded so far. */
+    long nodesVisited() {
+      return nodesVisited;
+    }
+
+    /** Records that a node at the given depth was reached. */
+    void depth(int depth) {
+      if (depth > maxDepth) {
+        maxDepth = depth;
+      }
+    }
+
+    /** Ends the call and publishes its record. */
+    void finish(long resultSize) {
+      record(new Record(method, nodesVisited, maxDepth, peakFrontier, resultSize, System.nanoTime() - start));
+    }
+  }
+
+  /**
+   * Per-method totals exported over JMX. The interface name ends in {@code MXBean}, so the platform
+   * MBean server exposes it with open types that any JMX console can read.
+   */
+  public interface MethodStatsMXBean {
+    String getMethod();
+
+    long getCalls();
+
+    long getNodesVisited();
+
+    long getMaxNodesVisited();
+
+    int getMaxDepth();
+
+    int getMaxPeakFrontier();
+
+    long getTotalNanos();
+
+    long getMaxNanos();
+
+    /** Clears every total. */
+    void reset();
+  }
+
+  private static final class MethodStats implements MethodStatsMXBean {
+    private final String method;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nodesVisited = new LongAdder();
+    private final LongAccumulator maxNodesVisited = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxPeakFrontier = new LongAccumulator(Math::max, 0);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    MethodStats(String method) {
+      this.method = method;
+    }
+
+    void add(Record record) {
+      calls.increment();
+      nodesVisited.add(record.nodesVisited);
+      maxNodesVisited.accumulate(record.nodesVisited);
+      maxDepth.accumulate(record.maxDepth);
+      maxPeakFrontier.accumulate(record.peakFrontier);
+      totalNanos.add(record.elapsedNanos);
+      maxNanos.accumulate(record.elapsedNanos);
+    }
+
+    public String getMethod() {
+      return method;
+    }
+
+    public long getCalls() {
+      return calls.sum();
+    }
+
+    public long getNodesVisited() {
+      return nodesVisited.sum();
+    }
+
+    public long getMaxNodesVisited() {
+      return maxNodesVisited.get();
+    }
+
+    public int getMaxDepth() {
+      return (int) maxDepth.get();
+    }
+
+    public int getMaxPeakFrontier() {
+      return (int) maxPeakFrontier.get();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    public void reset() {
+      calls.reset();
+      nodesVisited.reset();
+      maxNodesVisited.reset();
+      maxDepth.reset();
+      maxPeakFrontier.reset();
+      totalNanos.reset();
+      maxNanos.reset();
+    }
+  }
+
+  /**
+   * Starts measuring a call to the given method.
+   *
+   * @param method the name of the instrumented method
+   * @return a probe for the call, or null if instrumentation is off
+   */
+  static Probe start(String method) {
+    return ENABLED ? new Probe(method) : null;
+  }
+
+  /**
+   * Registers a listener to receive a record after every instrumented call.
+   *
+   * @param listener the listener to add
+   */
+  public static void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a previously registered listener.
+   *
+   * @param listener the listener to remove
+   */
+  public static void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Returns the totals recorded so far for the given method.
+   *
+   * @param method the name of the instrumented method
+   * @return the method's totals, or null if no call has been recorded
+   */
+  public static MethodStatsMXBean stats(String method) {
+    return stats.get(method);
+  }
+
+  /**
+   * Publishes a record to the per-method totals and the listeners. The totals for a method are
+   * registered with the platform MBean server the first time it is recorded; if registration fails,
+   * for example because another class loader already registered the name, the totals are still
+   * kept and available from {@link #stats(String)}.
+   */
+  static void record(Record record) {
+    stats.computeIfAbsent(record.method, TraversalMetrics::register).add(record);
+    for (Listener listener : listeners) {
+      listener.onTraversal(record);
+    }
+  }
+
+  private static MethodStats register(String method) {
+    MethodStats methodStats = new MethodStats(method);
+    try {
+      ObjectName name = new ObjectName("Traversals:type=TraversalMetrics,method=" + method);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(methodStats, name);
+    } catch (JMException e) {
+      // Totals stay reachable through stats(method).
+    }
+    return methodStats;
+  }
+}
@@ -0,0 +1,149 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class TraversalMetricsTest {
+
+    @Test
+    void testProbePublishesRecordToListenersAndTotals() {
+        List<TraversalMetrics.Record> records = new ArrayList<>();
+        TraversalMetrics.Listener listener = records::add;
+        TraversalMetrics.addListener(listener);
+        try {
+            TraversalMetrics.Probe probe = new TraversalMetrics.Probe("testProbe");
+            probe.visit(1);
+            probe.visit(3);
+            probe.visit(2);
+            probe.depth(4);
+            probe.depth(2);
+            probe.finish(7);
+        } finally {
+            TraversalMetrics.removeListener(listener);
+        }
+
+        assertEquals(1, records.size());
+        TraversalMetrics.Record record = records.get(0);
+        assertEquals("testProbe", record.method());
+        assertEquals(3, record.nodesVisited());
+        assertEquals(4, record.maxDepth());
+        assertEquals(3, record.peakFrontier());
+        assertEquals(7, record.resultSize());
+        assertTrue(record.elapsedNanos() >= 0);
+
+        TraversalMetrics.MethodStatsMXBean stats = TraversalMetrics.stats("testProbe");
+        assertEquals(1, stats.getCalls());
+        assertEquals(3, stats.getNodesVisited());
+        assertEquals(4, stats.getMaxDepth());
+        stats.reset();
+        assertEquals(0, stats.getCalls());
+    }
+
+    @Test
+    void testTotalsAreExportedOverJmx() throws Exception {
+        TraversalMetrics.record(new TraversalMetrics.Record("testJmx", 10, 3, 2, 1, 500));
+        TraversalMetrics.record(new TraversalMetrics.Record("testJmx", 30, 6, 5, 1, 100));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("Traversals:type=TraversalMetrics,method=testJmx");
+        assertEquals(2L, server.getAttribute(name, "Calls"));
+        assertEquals(40L, server.getAttribute(name, "NodesVisited"));
+        assertEquals(30L, server.getAttribute(name, "MaxNodesVisited"));
+        assertEquals(6, server.getAttribute(name, "MaxDepth"));
+        assertEquals(5, server.getAttribute(name, "MaxPeakFrontier"));
+        assertEquals(600L, server.getAttribute(name, "TotalNanos"));
+        assertEquals(500L, server.getAttribute(name, "MaxNanos"));
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        assumeFalse(TraversalMetrics.ENABLED);
+        List<TraversalMetrics.Record> records = new ArrayList<>();
+        TraversalMetrics.Listener listener = records::add;
+        TraversalMetrics.addListener(listener);
+        try {
+            assertNull(TraversalMetrics.start("sumLeafNodes"));
+            assertEquals(147, Traversals.sumLeafNodes(TestTrees.sample()));
+            assertEquals(List.of(13, -5, 42, 9, 9, 100, 31, 7), Traversals.collectLevelOrderValues(TestTrees.sample()));
+        } finally {
+            TraversalMetrics.removeListener(listener);
+        }
+        assertTrue(records.isEmpty());
+    }
+
+    /** Runs when the suite is started with -Dtraversals.metrics=true. */
+    @Test
+    void testInstrumentedMethodsReportRecords() {
+        assumeTrue(TraversalMetrics.ENABLED);
+        List<TraversalMetrics.Record> records = new ArrayList<>();
+        TraversalMetrics.Listener listener = records::add;
+        TraversalMetrics.addListener(listener);
+        try {
+            Traversals.sumLeafNodes(TestTrees.sample());
+            Traversals.buildPostOrderString(TestTrees.sample());
+            Traversals.collectLevelOrderValues(TestTrees.sample());
+            Traversals.findAllRootToLeafPaths(TestTrees.sample());
+        } finally {
+            TraversalMetrics.removeListener(listener);
+        }
+
+        assertEquals(4, records.size());
+        TraversalMetrics.Record sum = records.get(0);
+        assertEquals("sumLeafNodes", sum.method());
+        assertEquals(8, sum.nodesVisited());
+
+        TraversalMetrics.Record post = records.get(1);
+        assertEquals("writePostOrder", post.method());
+        assertEquals(8, post.resultSize());
+        assertEquals(4, post.maxDepth());
+
+        TraversalMetrics.Record level = records.get(2);
+        assertEquals("collectLevelOrderValues", level.method());
+        assertEquals(8, level.resultSize());
+        assertEquals(3, level.peakFrontier());
+
+        TraversalMetrics.Record paths = records.get(3);
+        assertEquals("forEachRootToLeafPath", paths.method());
+        assertEquals(4, paths.resultSize());
+        assertEquals(4, paths.maxDepth());
+    }
+
+    /** Runs when the suite is started with -Dtraversals.metrics=true. */
+    @Test
+    void testEveryInstrumentedWalkReportsDepth() {
+        assumeTrue(TraversalMetrics.ENABLED);
+        List<TraversalMetrics.Record> records = new ArrayList<>();
+        TraversalMetrics.Listener listener = records::add;
+        TraversalMetrics.addListener(listener);
+        try {
+            Traversals.sumLeafNodes(TestTrees.sample());
+            Traversals.countInternalNodes(TestTrees.sample());
+            Traversals.countDistinctValues(TestTrees.sample());
+            Traversals.hasStrictlyIncreasingPath(TestTrees.sample());
+            Traversals.haveSameShape(TestTrees.sample(), TestTrees.sample());
+            Traversals.collectLevelOrderValues(TestTrees.sample());
+            Traversals.forEachLevel(TestTrees.sample(), (level, offset, values) -> { });
+            Traversals.collectLevels(TestTrees.sample());
+            Traversals.estimateDistinctValues(TestTrees.sample(), 0.05);
+        } finally {
+            TraversalMetrics.removeListener(listener);
+        }
+
+        List<String> methods = new ArrayList<>();
+        for (TraversalMetrics.Record record : records) {
+            methods.add(record.method());
+            // The increasing-path search stops at the leaf 100, one level above the deepest leaves.
+            int depth = record.method().equals("hasStrictlyIncreasingPath") ? 3 : 4;
+            assertEquals(depth, record.maxDepth(), record.method());
+            assertTrue(record.nodesVisited() > 0, record.method());
+        }
+        assertEquals(List.of("sumLeafNodes", "countInternalNodes", "countDistinctValues",
+            "hasStrictlyIncreasingPath", "haveSameShape", "collectLevelOrderValues", "forEachLevel",
+            "collectLevels", "estimateDistinctValues"), methods);
+        assertEquals(4, records.get(6).resultSize());
+        assertEquals(4, records.get(7).resultSize());
+    }
+}
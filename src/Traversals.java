@@ -1,6 +1,18 @@
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class Traversals {
+  /** Cancellable walks poll their flag once every {@code CANCEL_POLL_MASK + 1} nodes. */
+  private static final int CANCEL_POLL_MASK = 1023;
+
+  /** Adds each leaf's value to the running sum; the fold behind {@link #sumLeafNodes(TreeNode)}. */
+  static final TreeFold.IntFold<Integer> LEAF_SUM =
+      (sum, node) -> node.left == null && node.right == null ? sum + node.value : sum;
+  /** Counts the nodes with at least one child; the fold behind {@link #countInternalNodes(TreeNode)}. */
+  static final TreeFold.IntFold<Integer> INTERNAL_COUNT =
+      (count, node) -> node.left != null || node.right != null ? count + 1 : count;
 
   /**
    * Returns the sum of the values of all leaf nodes in the given tree of integers.
@@ -14,12 +26,99 @@ public class Traversals {
     if (node == null) {
       return 0;
     }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("sumLeafNodes");
+    int sum = foldInt(cursor(TreeFold.Order.PRE, probe, node), 0, LEAF_SUM, probe);
+    if (probe != null) {
+      probe.finish(1);
+    }
+    return sum;
+  }
 
-    int val = 0;
-    if (node.left == null && node.right == null) {
-      val = node.value;
+  /**
+   * Iterative core of {@link #sumLeafNodes(TreeNode)} that folds the tree with the given
+   * pre-order {@link TreeFold.Cursor}, whose explicit stack cannot overflow on deep trees.
+   * The cursor is reset first and may be reused by the caller.
+   */
+  static int sumLeafNodes(TreeNode<Integer> node, TreeFold.Cursor<Integer> cursor) {
+    return cursor.reset(node).foldInt(0, LEAF_SUM);
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes in the given tree of primitive integers.
+   * Values are read without unboxing. If node is null, this method returns 0.
+   *
+   * @param node the node of the tree
+   * @return the sum of leaf node values, or 0 if the tree is null
+   */
+  public static int sumLeafNodes(IntTreeNode node) {
+    if (node == null) {
+      return 0;
     }
-    return val + sumLeafNodes(node.left) + sumLeafNodes(node.right);
+
+    int sum = 0;
+    ArrayStack<IntTreeNode> stack = new ArrayStack<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      IntTreeNode current = stack.pop();
+      if (current.left == null && current.right == null) {
+        sum += current.value;
+        continue;
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes in the given compact tree.
+   * Since every node is stored at an index, this is a single linear scan of the arrays.
+   * If tree is null, this method returns 0.
+   *
+   * @param tree the compact tree
+   * @return the sum of leaf node values, or 0 if the tree is null or empty
+   */
+  public static int sumLeafNodes(CompactIntTree tree) {
+    if (tree == null) {
+      return 0;
+    }
+
+    int sum = 0;
+    int[] values = tree.values;
+    int[] left = tree.left;
+    int[] right = tree.right;
+    for (int i = 0; i < values.length; i++) {
+      if (left[i] < 0 && right[i] < 0) {
+        sum += values[i];
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes in the given memory-mapped tree of integers,
+   * reading records in place with a single linear scan. If tree is null, this method returns 0.
+   *
+   * @param tree the mapped tree
+   * @return the sum of leaf node values, or 0 if the tree is null or empty
+   * @throws IllegalStateException if the tree stores strings, or a record holds an invalid child index
+   */
+  public static int sumLeafNodes(MappedTree tree) {
+    if (tree == null) {
+      return 0;
+    }
+
+    int sum = 0;
+    for (int i = 0; i < tree.size(); i++) {
+      if (tree.left(i) < 0 && tree.right(i) < 0) {
+        sum += tree.intValue(i);
+      }
+    }
+    return sum;
   }
 
   /**
@@ -34,12 +133,126 @@ public class Traversals {
     if (node == null) {
       return 0;
     }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("countInternalNodes");
+    int count = foldInt(cursor(TreeFold.Order.PRE, probe, node), 0, INTERNAL_COUNT, probe);
+    if (probe != null) {
+      probe.finish(1);
+    }
+    return count;
+  }
+
+  /**
+   * Iterative core of {@link #countInternalNodes(TreeNode)} backed by the given pre-order cursor.
+   * The cursor is reset first and may be reused by the caller.
+   */
+  static int countInternalNodes(TreeNode<Integer> node, TreeFold.Cursor<Integer> cursor) {
+    return cursor.reset(node).foldInt(0, INTERNAL_COUNT);
+  }
+
+  /**
+   * Returns a cursor over the given tree that also tracks depth when the probe is non-null,
+   * so instrumented walks can report it.
+   */
+  private static <T> TreeFold.Cursor<T> cursor(TreeFold.Order order, TraversalMetrics.Probe probe, TreeNode<T> node) {
+    TreeFold.Cursor<T> cursor = new TreeFold.Cursor<>(order, null);
+    if (probe != null) {
+      cursor.trackDepth();
+    }
+    return cursor.reset(node);
+  }
 
-    int val = 0;
-    if (node.left != null || node.right != null) {
-      val = 1;
+  /**
+   * Runs an int fold over the rest of the cursor's walk. When the probe is non-null, each node is
+   * also reported to it together with the number of nodes the cursor holds and, if the cursor
+   * tracks it, the node's depth; the caller finishes the probe.
+   */
+  private static <T> int foldInt(TreeFold.Cursor<T> cursor, int initial, TreeFold.IntFold<T> fold,
+      TraversalMetrics.Probe probe) {
+    if (probe == null) {
+      return cursor.foldInt(initial, fold);
+    }
+    int accumulator = initial;
+    for (TreeNode<T> node = cursor.next(); node != null; node = cursor.next()) {
+      probe.visit(cursor.pending());
+      probe.depth(cursor.depth());
+      accumulator = fold.apply(accumulator, node);
     }
-    return val + countInternalNodes(node.left) + countInternalNodes(node.right);
+    return accumulator;
+  }
+
+  /**
+   * Counts the number of internal nodes (non-leaf nodes) in the given tree of primitive integers.
+   * If node is null, this method returns 0.
+   *
+   * @param node the node of the tree
+   * @return the count of internal nodes, or 0 if the tree is null
+   */
+  public static int countInternalNodes(IntTreeNode node) {
+    if (node == null) {
+      return 0;
+    }
+
+    int count = 0;
+    ArrayStack<IntTreeNode> stack = new ArrayStack<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      IntTreeNode current = stack.pop();
+      if (current.left == null && current.right == null) {
+        continue;
+      }
+      count++;
+      if (current.right != null) {
+        stack.push(current.right);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Counts the number of internal nodes (non-leaf nodes) in the given compact tree
+   * with a single linear scan of its child arrays. If tree is null, this method returns 0.
+   *
+   * @param tree the compact tree
+   * @return the count of internal nodes, or 0 if the tree is null or empty
+   */
+  public static int countInternalNodes(CompactIntTree tree) {
+    if (tree == null) {
+      return 0;
+    }
+
+    int count = 0;
+    int[] left = tree.left;
+    int[] right = tree.right;
+    for (int i = 0; i < left.length; i++) {
+      if (left[i] >= 0 || right[i] >= 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Counts the number of internal nodes (non-leaf nodes) in the given memory-mapped tree
+   * with a single linear scan of its records. If tree is null, this method returns 0.
+   *
+   * @param tree the mapped tree
+   * @return the count of internal nodes, or 0 if the tree is null or empty
+   */
+  public static int countInternalNodes(MappedTree tree) {
+    if (tree == null) {
+      return 0;
+    }
+
+    int count = 0;
+    for (int i = 0; i < tree.size(); i++) {
+      if (tree.left(i) >= 0 || tree.right(i) >= 0) {
+        count++;
+      }
+    }
+    return count;
   }
 
   /**
@@ -54,7 +267,167 @@ public class Traversals {
    */
   public static <T> String buildPostOrderString(TreeNode<T> node) {
     if (node == null) return "";
-    return buildPostOrderString(node.left) + buildPostOrderString(node.right) + node.value;
+    return appendPostOrder(node, new StringBuilder()).toString();
+  }
+
+  /**
+   * Appends the string representation of each node's value, in post-order, to the given builder.
+   * If node is null, nothing is appended.
+   *
+   * @param node the node of the tree
+   * @param out  the builder to append to
+   * @param <T>  the type of values stored in the tree
+   * @return the given builder
+   */
+  public static <T> StringBuilder appendPostOrder(TreeNode<T> node, StringBuilder out) {
+    try {
+      writePostOrder(node, out);
+    } catch (IOException e) {
+      throw new AssertionError("StringBuilder does not throw IOException", e);
+    }
+    return out;
+  }
+
+  /**
+   * Writes the string representation of each node's value, in post-order, to the given sink.
+   * Values are written as they are visited and nothing is buffered, so the output can be
+   * streamed to a {@link java.io.Writer} or other {@link Appendable} of any size.
+   * If node is null, nothing is written.
+   *
+   * @param node the node of the tree
+   * @param out  the sink to write to
+   * @param <T>  the type of values stored in the tree
+   * @throws IOException if the sink throws
+   */
+  public static <T> void writePostOrder(TreeNode<T> node, Appendable out) throws IOException {
+    if (node == null) {
+      return;
+    }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("writePostOrder");
+    writePostOrder(node, out, new TreeFold.Cursor<>(TreeFold.Order.POST, null), probe);
+    if (probe != null) {
+      probe.finish(probe.nodesVisited());
+    }
+  }
+
+  /**
+   * Core of {@link #writePostOrder(TreeNode, Appendable)} that walks the tree with the given
+   * post-order cursor, reporting each node to the probe if it is non-null. The cursor is reset
+   * first and may be reused by the caller; the caller finishes the probe.
+   */
+  static <T> void writePostOrder(TreeNode<T> node, Appendable out, TreeFold.Cursor<T> cursor,
+      TraversalMetrics.Probe probe) throws IOException {
+    cursor.reset(node);
+    for (TreeNode<T> current = cursor.next(); current != null; current = cursor.next()) {
+      if (probe != null) {
+        // The cursor's stack holds exactly the ancestors of the node being emitted.
+        probe.visit(cursor.pending() + 1);
+        probe.depth(cursor.pending() + 1);
+      }
+      out.append(String.valueOf(current.value));
+    }
+  }
+
+  /**
+   * Creates a string by concatenating the string representation of each node's value
+   * in a post-order traversal of the given compact tree.
+   * If tree is null or empty, returns an empty string.
+   *
+   * @param tree the compact tree
+   * @param <T>  the type of values stored in the tree
+   * @return a post-order traversal string, or an empty string if the tree is null or empty
+   */
+  public static <T> String buildPostOrderString(CompactTree<T> tree) {
+    if (tree == null || tree.size() == 0) return "";
+    StringBuilder result = new StringBuilder();
+    try {
+      writePostOrder(tree, result);
+    } catch (IOException e) {
+      throw new AssertionError("StringBuilder does not throw IOException", e);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Writes the string representation of each node's value in the compact tree, in post-order,
+   * to the given sink without buffering. If tree is null or empty, nothing is written.
+   *
+   * @param tree the compact tree
+   * @param out  the sink to write to
+   * @param <T>  the type of values stored in the tree
+   * @throws IOException if the sink throws
+   */
+  public static <T> void writePostOrder(CompactTree<T> tree, Appendable out) throws IOException {
+    if (tree == null || tree.size() == 0) return;
+    IntStack stack = new IntStack();
+    int current = 0;
+    int lastVisited = -1;
+
+    while (current >= 0 || !stack.isEmpty()) {
+      if (current >= 0) {
+        stack.push(current);
+        current = tree.left[current];
+        continue;
+      }
+      int top = stack.peek();
+      int right = tree.right[top];
+      if (right >= 0 && right != lastVisited) {
+        current = right;
+      } else {
+        out.append(String.valueOf(tree.values[top]));
+        lastVisited = stack.pop();
+      }
+    }
+  }
+
+  /**
+   * Creates a string by concatenating the string representation of each node's value
+   * in a post-order traversal of the given memory-mapped tree.
+   * If tree is null or empty, returns an empty string.
+   *
+   * @param tree the mapped tree
+   * @return a post-order traversal string, or an empty string if the tree is null or empty
+   */
+  public static String buildPostOrderString(MappedTree tree) {
+    if (tree == null || tree.size() == 0) return "";
+    StringBuilder result = new StringBuilder();
+    try {
+      writePostOrder(tree, result);
+    } catch (IOException e) {
+      throw new AssertionError("StringBuilder does not throw IOException", e);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Writes the string representation of each node's value in the memory-mapped tree, in post-order,
+   * to the given sink without buffering. If tree is null or empty, nothing is written.
+   *
+   * @param tree the mapped tree
+   * @param out  the sink to write to
+   * @throws IOException if the sink throws
+   */
+  public static void writePostOrder(MappedTree tree, Appendable out) throws IOException {
+    if (tree == null || tree.size() == 0) return;
+    IntStack stack = new IntStack();
+    int current = 0;
+    int lastVisited = -1;
+
+    while (current >= 0 || !stack.isEmpty()) {
+      if (current >= 0) {
+        stack.push(current);
+        current = tree.left(current);
+        continue;
+      }
+      int top = stack.peek();
+      int right = tree.right(top);
+      if (right >= 0 && right != lastVisited) {
+        current = right;
+      } else {
+        out.append(tree.stringValue(top));
+        lastVisited = stack.pop();
+      }
+    }
   }
 
   /**
@@ -66,22 +439,210 @@ public class Traversals {
    * @return a list of node values in a top-to-bottom order, or an empty list if the tree is null
    */
   public static <T> List<T> collectLevelOrderValues(TreeNode<T> node) {
-    Queue<TreeNode<T>> queue = new LinkedList<>();
-    List<T> holdVals = new LinkedList<>();
+    List<T> holdVals = new ArrayList<>();
+    if (node != null) {
+      collectLevelOrderValues(node, new TreeFold.Cursor<>(TreeFold.Order.LEVEL, null), holdVals);
+    }
+    return holdVals;
+  }
+
+  /**
+   * Collects the values of all nodes in the tree level by level, from top to bottom,
+   * into a list presized for the given number of nodes.
+   * If node is null, returns an empty list.
+   *
+   * @param node         the node of the tree
+   * @param expectedSize the expected number of nodes in the tree
+   * @param <T>          the type of values stored in the tree
+   * @return a list of node values in a top-to-bottom order, or an empty list if the tree is null
+   */
+  public static <T> List<T> collectLevelOrderValues(TreeNode<T> node, int expectedSize) {
+    List<T> holdVals = new ArrayList<>(expectedSize);
+    if (node != null) {
+      collectLevelOrderValues(node, new TreeFold.Cursor<>(TreeFold.Order.LEVEL, null), holdVals);
+    }
+    return holdVals;
+  }
+
+  /**
+   * Breadth-first core shared by the level-order methods, run on the given level-order cursor.
+   * Its queue only ever holds non-null children, so it sees exactly one add and one poll per node.
+   * The cursor is reset first and may be reused by the caller.
+   */
+  static <T> void collectLevelOrderValues(TreeNode<T> node, TreeFold.Cursor<T> cursor, List<? super T> out) {
+    TraversalMetrics.Probe probe = TraversalMetrics.start("collectLevelOrderValues");
+    int start = out.size();
+    if (probe != null) {
+      cursor.trackDepth();
+    }
+    cursor.reset(node);
+    for (TreeNode<T> current = cursor.next(); current != null; current = cursor.next()) {
+      if (probe != null) {
+        probe.visit(cursor.pending());
+        probe.depth(cursor.depth());
+      }
+      out.add(current.value);
+    }
+    if (probe != null) {
+      probe.finish(out.size() - start);
+    }
+  }
 
+  /**
+   * Receives one complete level of a level-by-level traversal.
+   *
+   * @param <T> the type of values stored in the tree
+   */
+  @FunctionalInterface
+  public interface LevelConsumer<T> {
+    /**
+     * Called once per level, top to bottom, as soon as the level has been read.
+     *
+     * @param level  the level's depth, with the root at level 0
+     * @param offset the position of the level's first value in the full level-order sequence
+     * @param values the level's values, left to right
+     */
+    void accept(int level, int offset, List<T> values);
+  }
+
+  /**
+   * Walks the tree level by level and passes each level to the action as soon as it is complete,
+   * so callers can start work on a level without waiting for the rest of the tree.
+   * A single level buffer is shared by all levels: the list handed to the action is a read-only view
+   * that is only valid during that call, so an action that keeps a level must copy it.
+   * If node is null, the action is never called and an empty array is returned.
+   *
+   * @param node   the root of the tree
+   * @param action the action to run on each level
+   * @param <T>    the type of values stored in the tree
+   * @return the number of nodes on each level, from the root level down
+   */
+  public static <T> int[] forEachLevel(TreeNode<T> node, LevelConsumer<T> action) {
     if (node == null) {
-      return holdVals;
+      return new int[0];
+    }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("forEachLevel");
+    int[] widths = forEachLevel(node, action, probe);
+    if (probe != null) {
+      probe.finish(widths.length);
     }
+    return widths;
+  }
 
-    queue.add(node);
-    while (!queue.isEmpty()) {
-      TreeNode<T> current = queue.poll();
-      if (current == null) {
-        continue;
+  /**
+   * Core of {@link #forEachLevel(TreeNode, LevelConsumer)} that reports each visited node and each
+   * level's depth to the probe, if it is non-null. The caller finishes the probe.
+   */
+  private static <T> int[] forEachLevel(TreeNode<T> node, LevelConsumer<T> action, TraversalMetrics.Probe probe) {
+    int[] widths = new int[16];
+    int levels = 0;
+    int offset = 0;
+    List<T> level = new ArrayList<>();
+    List<T> view = Collections.unmodifiableList(level);
+    TreeFold.Cursor<T> cursor = new TreeFold.Cursor<T>(TreeFold.Order.LEVEL, null).reset(node);
+
+    while (cursor.pending() > 0) {
+      // At a level boundary the cursor's queue holds exactly the nodes of the next level.
+      int width = cursor.pending();
+      level.clear();
+      for (int i = 0; i < width; i++) {
+        level.add(cursor.next().value);
+        if (probe != null) {
+          probe.visit(cursor.pending());
+        }
+      }
+      if (probe != null) {
+        probe.depth(levels + 1);
+      }
+      action.accept(levels, offset, view);
+      if (levels == widths.length) {
+        widths = Arrays.copyOf(widths, levels << 1);
+      }
+      widths[levels++] = width;
+      offset += width;
+    }
+    return Arrays.copyOf(widths, levels);
+  }
+
+  /**
+   * Collects the values of the tree level by level, one list per level from top to bottom.
+   * If node is null, returns an empty list.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return one list of values per level, each ordered left to right
+   */
+  public static <T> List<List<T>> collectLevels(TreeNode<T> node) {
+    List<List<T>> levels = new ArrayList<>();
+    if (node == null) {
+      return levels;
+    }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("collectLevels");
+    forEachLevel(node, (level, offset, values) -> levels.add(new ArrayList<>(values)), probe);
+    if (probe != null) {
+      probe.finish(levels.size());
+    }
+    return levels;
+  }
+
+  /**
+   * Collects the values of all nodes in the given compact tree level by level, from top to bottom.
+   * Every node is enqueued exactly once, so the queue is a plain index array sized to the tree.
+   * If tree is null, returns an empty list.
+   *
+   * @param tree the compact tree
+   * @param <T>  the type of values stored in the tree
+   * @return a list of node values in a top-to-bottom order, or an empty list if the tree is null
+   */
+  public static <T> List<T> collectLevelOrderValues(CompactTree<T> tree) {
+    if (tree == null || tree.size() == 0) {
+      return new ArrayList<>();
+    }
+
+    int[] queue = new int[tree.size()];
+    List<T> holdVals = new ArrayList<>(tree.size());
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = 0;
+    while (head < tail) {
+      int current = queue[head++];
+      holdVals.add(tree.value(current));
+      if (tree.left[current] >= 0) {
+        queue[tail++] = tree.left[current];
+      }
+      if (tree.right[current] >= 0) {
+        queue[tail++] = tree.right[current];
+      }
+    }
+    return holdVals;
+  }
+
+  /**
+   * Collects the string values of all nodes in the given memory-mapped tree level by level,
+   * from top to bottom. If tree is null, returns an empty list.
+   *
+   * @param tree the mapped tree
+   * @return a list of node values in a top-to-bottom order, or an empty list if the tree is null
+   */
+  public static List<String> collectLevelOrderValues(MappedTree tree) {
+    if (tree == null || tree.size() == 0) {
+      return new ArrayList<>();
+    }
+
+    int[] queue = new int[tree.size()];
+    List<String> holdVals = new ArrayList<>(tree.size());
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = 0;
+    while (head < tail) {
+      int current = queue[head++];
+      holdVals.add(tree.stringValue(current));
+      if (tree.left(current) >= 0) {
+        queue[tail++] = tree.left(current);
+      }
+      if (tree.right(current) >= 0) {
+        queue[tail++] = tree.right(current);
       }
-      holdVals.add(current.value);
-      queue.add(current.left);
-      queue.add(current.right);
     }
     return holdVals;
   }
@@ -97,20 +658,153 @@ public class Traversals {
     if (node == null) {
       return 0;
     }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("countDistinctValues");
+    int count = TreeStats.compute(node, TreeStats.DISTINCT_COUNT, new ArrayStack<>(), probe).distinctCount();
+    if (probe != null) {
+      probe.finish(1);
+    }
+    return count;
+  }
+
+  /**
+   * Counts the distinct values in the given tree of primitive integers.
+   * Values are collected in a primitive {@link IntHashSet}, so no value is boxed.
+   * If node is null, returns 0.
+   *
+   * @param node the node of the tree
+   * @return the number of unique values in the tree, or 0 if the tree is null
+   */
+  public static int countDistinctValues(IntTreeNode node) {
+    if (node == null) {
+      return 0;
+    }
+
+    IntHashSet set = new IntHashSet();
+    ArrayStack<IntTreeNode> stack = new ArrayStack<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      IntTreeNode current = stack.pop();
+      set.add(current.value);
+      if (current.right != null) {
+        stack.push(current.right);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+      }
+    }
+    return set.size();
+  }
+
+  /**
+   * Counts the distinct values in the given compact tree. A first scan finds the value range;
+   * if the range is dense enough, values are marked in an {@link IntBitmap}, and otherwise they
+   * go into an {@link IntHashSet}. If tree is null, returns 0.
+   *
+   * @param tree the compact tree
+   * @return the number of unique values in the tree, or 0 if the tree is null or empty
+   */
+  public static int countDistinctValues(CompactIntTree tree) {
+    if (tree == null || tree.size() == 0) {
+      return 0;
+    }
+
+    int[] values = tree.values;
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int value : values) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if (IntBitmap.fits(min, max, values.length)) {
+      IntBitmap bitmap = new IntBitmap(min, max);
+      for (int value : values) {
+        bitmap.add(value);
+      }
+      return bitmap.size();
+    }
+    IntHashSet set = new IntHashSet(values.length);
+    for (int value : values) {
+      set.add(value);
+    }
+    return set.size();
+  }
+
+  /**
+   * Estimates the number of distinct values in the given tree with a {@link HyperLogLog} sketch,
+   * using a fixed amount of memory however many values the tree holds. If node is null, returns 0.
+   *
+   * @param node          the node of the tree
+   * @param relativeError the target relative standard error of the estimate, such as 0.01 for 1%
+   * @return the estimated number of unique values in the tree
+   */
+  public static long estimateDistinctValues(TreeNode<Integer> node, double relativeError) {
+    HyperLogLog sketch = HyperLogLog.withRelativeError(relativeError);
+    if (node == null) {
+      return 0;
+    }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("estimateDistinctValues");
+    addToSketch(node, sketch, probe);
+    long estimate = sketch.estimate();
+    if (probe != null) {
+      probe.finish(1);
+    }
+    return estimate;
+  }
 
-    Queue<TreeNode<Integer>> queue = new LinkedList<>();
-    Set<Integer> set = new HashSet<>();
-    queue.offer(node);
+  /**
+   * Adds every value of the given tree to the sketch.
+   */
+  static void addToSketch(TreeNode<Integer> node, HyperLogLog sketch) {
+    addToSketch(node, sketch, null);
+  }
 
-    while (!queue.isEmpty()) {
-      TreeNode<Integer> newNode = queue.poll();
-      if (newNode != null) {
-        set.add(newNode.value);
-        queue.add(newNode.left);
-        queue.add(newNode.right);
+  /**
+   * Adds every value of the given tree to the sketch in a pre-order cursor walk, reporting each
+   * visited node to the probe if it is non-null. The caller finishes the probe.
+   */
+  private static void addToSketch(TreeNode<Integer> node, HyperLogLog sketch, TraversalMetrics.Probe probe) {
+    TreeFold.Cursor<Integer> cursor = cursor(TreeFold.Order.PRE, probe, node);
+    for (TreeNode<Integer> current = cursor.next(); current != null; current = cursor.next()) {
+      if (probe != null) {
+        probe.visit(cursor.pending());
+        probe.depth(cursor.depth());
       }
+      sketch.add(current.value);
+    }
+  }
+
+  /**
+   * Counts the distinct values in the given memory-mapped tree of integers. As with compact trees,
+   * a first scan finds the value range and picks an {@link IntBitmap} or an {@link IntHashSet}.
+   * If tree is null, returns 0.
+   *
+   * @param tree the mapped tree
+   * @return the number of unique values in the tree, or 0 if the tree is null or empty
+   * @throws IllegalStateException if the tree stores strings, or a record holds an invalid child index
+   */
+  public static int countDistinctValues(MappedTree tree) {
+    if (tree == null || tree.size() == 0) {
+      return 0;
     }
 
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < tree.size(); i++) {
+      int value = tree.intValue(i);
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if (IntBitmap.fits(min, max, tree.size())) {
+      IntBitmap bitmap = new IntBitmap(min, max);
+      for (int i = 0; i < tree.size(); i++) {
+        bitmap.add(tree.intValue(i));
+      }
+      return bitmap.size();
+    }
+    IntHashSet set = new IntHashSet(tree.size());
+    for (int i = 0; i < tree.size(); i++) {
+      set.add(tree.intValue(i));
+    }
     return set.size();
   }
 
@@ -126,23 +820,216 @@ public class Traversals {
     if (node == null) {
       return false;
     }
+    TraversalMetrics.Probe probe = TraversalMetrics.start("hasStrictlyIncreasingPath");
+    boolean found = hasStrictlyIncreasingPathFrom(node, null, probe);
+    if (probe != null) {
+      probe.finish(1);
+    }
+    return found;
+  }
 
-    Stack<TreeNode<Integer>> stack = new Stack<>();
-    int setMax = Integer.MIN_VALUE;
-    stack.push(node);
+  /**
+   * Path-aware core of {@link #hasStrictlyIncreasingPath(TreeNode)}. The given node is assumed
+   * to end a strictly increasing path from the root already. Each pending node is paired with its
+   * own parent's value, so a branch is never compared against values from a sibling branch, and
+   * the walk stops at the first qualifying leaf.
+   * If cancelled is non-null, it is polled periodically and the walk gives up once it is set.
+   */
+  static boolean hasStrictlyIncreasingPathFrom(TreeNode<Integer> node, AtomicBoolean cancelled) {
+    return hasStrictlyIncreasingPathFrom(node, cancelled, null);
+  }
+
+  /**
+   * Variant of {@link #hasStrictlyIncreasingPathFrom(TreeNode, AtomicBoolean)} that reports each
+   * visited node to the given probe, if it is non-null. The caller finishes the probe.
+   */
+  static boolean hasStrictlyIncreasingPathFrom(TreeNode<Integer> node, AtomicBoolean cancelled,
+      TraversalMetrics.Probe probe) {
+    return hasStrictlyIncreasingPathFrom(node, cancelled, probe, new ArrayStack<>(), new IntStack());
+  }
+
+  /**
+   * Variant of {@link #hasStrictlyIncreasingPathFrom(TreeNode, AtomicBoolean, TraversalMetrics.Probe)}
+   * backed by the given scratch stacks, which are cleared first and may be reused by the caller.
+   */
+  static boolean hasStrictlyIncreasingPathFrom(TreeNode<Integer> node, AtomicBoolean cancelled,
+      TraversalMetrics.Probe probe, ArrayStack<TreeNode<Integer>> stack, IntStack parentValues) {
+    stack.clear();
+    parentValues.clear();
+    // With a probe, the depth of each pending node is kept alongside it.
+    IntStack depths = null;
+    if (probe != null) {
+      probe.visit(1);
+      probe.depth(1);
+      depths = new IntStack();
+    }
+    if (node.left == null && node.right == null) {
+      return true;
+    }
+
+    pushChildren(node, stack, parentValues);
+    pushDepths(depths, stack.size(), 2);
+    int visited = 0;
 
     while (!stack.isEmpty()) {
-      TreeNode<Integer> newNode = stack.pop();
-      if (newNode != null && newNode.value > setMax) {
-        if (newNode.left == null && newNode.right == null) {
-          return true;
-        }
-        setMax = newNode.value;
-        stack.push(newNode.right);
-        stack.push(newNode.left);
+      if (cancelled != null && (++visited & CANCEL_POLL_MASK) == 0 && cancelled.get()) {
+        return false;
+      }
+      if (probe != null) {
+        probe.visit(stack.size());
+      }
+      TreeNode<Integer> current = stack.pop();
+      int parentValue = parentValues.pop();
+      int depth = 0;
+      if (depths != null) {
+        depth = depths.pop();
+        probe.depth(depth);
+      }
+      if (current.value <= parentValue) {
+        continue;
+      }
+      if (current.left == null && current.right == null) {
+        return true;
+      }
+      pushChildren(current, stack, parentValues);
+      pushDepths(depths, stack.size(), depth + 1);
+    }
+    return false;
+  }
+
+  /**
+   * Pushes the given depth onto the depth stack, if there is one, until it matches the node stack.
+   */
+  private static void pushDepths(IntStack depths, int pending, int depth) {
+    if (depths != null) {
+      while (depths.size() < pending) {
+        depths.push(depth);
+      }
+    }
+  }
+
+  private static void pushChildren(TreeNode<Integer> node, ArrayStack<TreeNode<Integer>> stack, IntStack parentValues) {
+    int value = node.value;
+    if (node.right != null) {
+      stack.push(node.right);
+      parentValues.push(value);
+    }
+    if (node.left != null) {
+      stack.push(node.left);
+      parentValues.push(value);
+    }
+  }
+
+  /**
+   * Determines whether there is at least one root-to-leaf path in the tree of primitive integers
+   * where each successive node's value is strictly greater than the previous node's value.
+   * Each pending node is paired with its own parent's value, so a branch is never compared
+   * against values from a sibling branch. If node is null, returns false.
+   *
+   * @param node the node of the tree
+   * @return true if there exists a strictly increasing root-to-leaf path, false otherwise
+   */
+  public static boolean hasStrictlyIncreasingPath(IntTreeNode node) {
+    if (node == null) {
+      return false;
+    }
+    if (node.left == null && node.right == null) {
+      return true;
+    }
+
+    ArrayStack<IntTreeNode> stack = new ArrayStack<>();
+    IntStack parentValues = new IntStack();
+    pushChildren(node, stack, parentValues);
+
+    while (!stack.isEmpty()) {
+      IntTreeNode current = stack.pop();
+      int parentValue = parentValues.pop();
+      if (current.value <= parentValue) {
+        continue;
+      }
+      if (current.left == null && current.right == null) {
+        return true;
+      }
+      pushChildren(current, stack, parentValues);
+    }
+    return false;
+  }
+
+  private static void pushChildren(IntTreeNode node, ArrayStack<IntTreeNode> stack, IntStack parentValues) {
+    if (node.right != null) {
+      stack.push(node.right);
+      parentValues.push(node.value);
+    }
+    if (node.left != null) {
+      stack.push(node.left);
+      parentValues.push(node.value);
+    }
+  }
+
+  /**
+   * Determines whether there is at least one root-to-leaf path in the compact tree
+   * where each successive node's value is strictly greater than the previous node's value.
+   * A child index is only pushed when its value exceeds its parent's, so every index on the stack
+   * ends a strictly increasing path from the root. If tree is null or empty, returns false.
+   *
+   * @param tree the compact tree
+   * @return true if there exists a strictly increasing root-to-leaf path, false otherwise
+   */
+  public static boolean hasStrictlyIncreasingPath(CompactIntTree tree) {
+    if (tree == null || tree.size() == 0) {
+      return false;
+    }
+
+    int[] values = tree.values;
+    int[] left = tree.left;
+    int[] right = tree.right;
+    IntStack stack = new IntStack();
+    stack.push(0);
+    while (!stack.isEmpty()) {
+      int current = stack.pop();
+      if (left[current] < 0 && right[current] < 0) {
+        return true;
+      }
+      if (right[current] >= 0 && values[right[current]] > values[current]) {
+        stack.push(right[current]);
       }
+      if (left[current] >= 0 && values[left[current]] > values[current]) {
+        stack.push(left[current]);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Determines whether there is at least one strictly increasing root-to-leaf path in the given
+   * memory-mapped tree of integers. If tree is null or empty, returns false.
+   *
+   * @param tree the mapped tree
+   * @return true if there exists a strictly increasing root-to-leaf path, false otherwise
+   * @throws IllegalStateException if the tree stores strings, or a record holds an invalid child index
+   */
+  public static boolean hasStrictlyIncreasingPath(MappedTree tree) {
+    if (tree == null || tree.size() == 0) {
+      return false;
     }
 
+    IntStack stack = new IntStack();
+    stack.push(0);
+    while (!stack.isEmpty()) {
+      int current = stack.pop();
+      int left = tree.left(current);
+      int right = tree.right(current);
+      if (left < 0 && right < 0) {
+        return true;
+      }
+      int value = tree.intValue(current);
+      if (right >= 0 && tree.intValue(right) > value) {
+        stack.push(right);
+      }
+      if (left >= 0 && tree.intValue(left) > value) {
+        stack.push(left);
+      }
+    }
     return false;
   }
 
@@ -158,19 +1045,91 @@ public class Traversals {
    * @return true if the trees have the same shape, false otherwise
    */
   public static <T> boolean haveSameShape(TreeNode<T> nodeA, TreeNode<T> nodeB) {
-    if (nodeA == null && nodeB == null) return true;
-    if ((nodeA != null && nodeB == null) || (nodeA == null && nodeB != null)) return false;
-    return haveSameShape(nodeA.left, nodeB.left) && haveSameShape(nodeA.right, nodeB.right); 
+    // Nodes are pushed in (a, b) pairs so both trees are walked in lockstep.
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    stack.push(nodeA);
+    stack.push(nodeB);
+
+    TraversalMetrics.Probe probe = TraversalMetrics.start("haveSameShape");
+    // With a probe, the depth of each pending pair is kept alongside it.
+    IntStack depths = probe != null ? new IntStack() : null;
+    if (probe != null) depths.push(1);
+    while (!stack.isEmpty()) {
+      TreeNode<T> b = stack.pop();
+      TreeNode<T> a = stack.pop();
+      int depth = probe != null ? depths.pop() : 0;
+      if (a == null && b == null) continue;
+      if (a == null || b == null) {
+        if (probe != null) probe.finish(1);
+        return false;
+      }
+      if (probe != null) {
+        probe.visit(stack.size() / 2 + 1);
+        probe.depth(depth);
+        depths.push(depth + 1);
+        depths.push(depth + 1);
+      }
+      stack.push(a.right);
+      stack.push(b.right);
+      stack.push(a.left);
+      stack.push(b.left);
+    }
+    if (probe != null) probe.finish(1);
+    return true;
+  }
+
+  /**
+   * Checks if two compact trees have the same shape. Compact trees are laid out in pre-order,
+   * so two trees have the same shape exactly when their child index arrays are equal.
+   * If both trees are null, returns true. If one is null and the other is not, returns false.
+   *
+   * @param treeA the first compact tree
+   * @param treeB the second compact tree
+   * @param <T>   the type of values stored in the trees
+   * @return true if the trees have the same shape, false otherwise
+   */
+  public static <T> boolean haveSameShape(CompactTree<T> treeA, CompactTree<T> treeB) {
+    if (treeA == null && treeB == null) return true;
+    if (treeA == null || treeB == null) return false;
+    return Arrays.equals(treeA.left, treeB.left) && Arrays.equals(treeA.right, treeB.right);
   }
 
+  /**
+   * Checks if two compact integer trees have the same shape by comparing their child index arrays,
+   * which are determined by the shape alone in the pre-order layout.
+   * If both trees are null, returns true. If one is null and the other is not, returns false.
+   *
+   * @param treeA the first compact tree
+   * @param treeB the second compact tree
+   * @return true if the trees have the same shape, false otherwise
+   */
+  public static boolean haveSameShape(CompactIntTree treeA, CompactIntTree treeB) {
+    if (treeA == null && treeB == null) return true;
+    if (treeA == null || treeB == null) return false;
+    return Arrays.equals(treeA.left, treeB.left) && Arrays.equals(treeA.right, treeB.right);
+  }
+
+  /**
+   * Checks if two memory-mapped trees have the same shape by comparing their child indices,
+   * which are determined by the shape alone in the pre-order layout.
+   * If both trees are null, returns true. If one is null and the other is not, returns false.
+   *
+   * @param treeA the first mapped tree
+   * @param treeB the second mapped tree
+   * @return true if the trees have the same shape, false otherwise
+   */
+  public static boolean haveSameShape(MappedTree treeA, MappedTree treeB) {
+    if (treeA == null && treeB == null) return true;
+    if (treeA == null || treeB == null) return false;
+    if (treeA.size() != treeB.size()) return false;
+    for (int i = 0; i < treeA.size(); i++) {
+      if (treeA.left(i) != treeB.left(i) || treeA.right(i) != treeB.right(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
 
-  // OPTIONAL CHALLENGE
-  // Very challenging!
-  // Hints:
-  // List.copyOf may be helpful
-  // Consider adding a helper method
-  // Consider keeping the current path in a separate variable
-  // Consider removing the current node from the current path after the node's subtrees have been traversed.
   /**
    * Finds all paths from the root to every leaf in the given tree.
    * Each path is represented as a list of node values from root to leaf.
@@ -192,6 +1151,142 @@ public class Traversals {
    * @return a list of lists, where each inner list represents a root-to-leaf path in pre-order
    */
   public static <T> List<List<T>> findAllRootToLeafPaths(TreeNode<T> node) {
-    return null;
+    List<List<T>> paths = new ArrayList<>();
+    forEachRootToLeafPath(node, path -> paths.add(new ArrayList<>(path)));
+    return paths;
+  }
+
+  /**
+   * Finds all paths from the root to every leaf in the given compact tree, in pre-order.
+   * Nodes are stored in pre-order, so the walk is a single scan over the indices: before a node is
+   * appended, the current path is cut back to the node's parent, which is the nearest node on the
+   * path that links to it. If tree is null or empty, returns an empty list.
+   *
+   * @param tree the compact tree
+   * @param <T>  the type of values stored in the tree
+   * @return a list of lists, where each inner list represents a root-to-leaf path in pre-order
+   */
+  public static <T> List<List<T>> findAllRootToLeafPaths(CompactTree<T> tree) {
+    List<List<T>> paths = new ArrayList<>();
+    if (tree == null) {
+      return paths;
+    }
+
+    IntStack pathIndices = new IntStack();
+    List<T> path = new ArrayList<>();
+    for (int i = 0; i < tree.size(); i++) {
+      while (!pathIndices.isEmpty() && tree.left[pathIndices.peek()] != i && tree.right[pathIndices.peek()] != i) {
+        pathIndices.pop();
+        path.remove(path.size() - 1);
+      }
+      pathIndices.push(i);
+      path.add(tree.value(i));
+      if (tree.left[i] < 0 && tree.right[i] < 0) {
+        paths.add(new ArrayList<>(path));
+      }
+    }
+    return paths;
+  }
+
+  /**
+   * Finds all paths from the root to every leaf in the given memory-mapped tree, in pre-order,
+   * with the same single scan as the compact tree overload. Values are returned as by
+   * {@link MappedTree#stringValue(int)}. If tree is null or empty, returns an empty list.
+   *
+   * @param tree the mapped tree
+   * @return a list of lists, where each inner list represents a root-to-leaf path in pre-order
+   */
+  public static List<List<String>> findAllRootToLeafPaths(MappedTree tree) {
+    List<List<String>> paths = new ArrayList<>();
+    if (tree == null) {
+      return paths;
+    }
+
+    IntStack pathIndices = new IntStack();
+    List<String> path = new ArrayList<>();
+    for (int i = 0; i < tree.size(); i++) {
+      while (!pathIndices.isEmpty() && tree.left(pathIndices.peek()) != i && tree.right(pathIndices.peek()) != i) {
+        pathIndices.pop();
+        path.remove(path.size() - 1);
+      }
+      pathIndices.push(i);
+      path.add(tree.stringValue(i));
+      if (tree.left(i) < 0 && tree.right(i) < 0) {
+        paths.add(new ArrayList<>(path));
+      }
+    }
+    return paths;
+  }
+
+  /**
+   * Passes every root-to-leaf path in the given tree to the action, in pre-order.
+   * A single path buffer is shared by all paths: the list handed to the action is a read-only view
+   * that is only valid during that call, so an action that keeps a path must copy it.
+   * This keeps the memory used at O(depth) regardless of how many leaves the tree has.
+   * If node is null, the action is never called.
+   *
+   * @param node   the root node of the tree
+   * @param action the action to run on each path
+   * @param <T>    the type of values stored in the tree
+   */
+  public static <T> void forEachRootToLeafPath(TreeNode<T> node, Consumer<? super List<T>> action) {
+    if (node == null) {
+      return;
+    }
+
+    TraversalMetrics.Probe probe = TraversalMetrics.start("forEachRootToLeafPath");
+    List<T> path = new ArrayList<>();
+    long paths = forEachRootToLeafPath(node, action, new ArrayStack<>(), new IntStack(), path,
+        Collections.unmodifiableList(path), probe);
+    if (probe != null) {
+      probe.finish(paths);
+    }
+  }
+
+  /**
+   * Core of {@link #forEachRootToLeafPath(TreeNode, Consumer)} backed by the given scratch space:
+   * a stack of pending nodes, their depths, and the path buffer together with the read-only view
+   * of it handed to the action. The scratch is cleared first and may be reused by the caller.
+   * Each visited node is reported to the probe if it is non-null; the caller finishes it.
+   *
+   * @return the number of paths passed to the action
+   */
+  static <T> long forEachRootToLeafPath(TreeNode<T> node, Consumer<? super List<T>> action,
+      ArrayStack<TreeNode<T>> stack, IntStack depths, List<T> path, List<T> view, TraversalMetrics.Probe probe) {
+    stack.clear();
+    depths.clear();
+    path.clear();
+    long paths = 0;
+    stack.push(node);
+    depths.push(0);
+
+    while (!stack.isEmpty()) {
+      if (probe != null) {
+        probe.visit(stack.size());
+      }
+      TreeNode<T> current = stack.pop();
+      int depth = depths.pop();
+      // Backtrack: drop everything below this node's parent before extending the path.
+      path.subList(depth, path.size()).clear();
+      path.add(current.value);
+      if (current.left == null && current.right == null) {
+        if (probe != null) {
+          probe.depth(depth + 1);
+        }
+        paths++;
+        action.accept(view);
+        continue;
+      }
+      if (current.right != null) {
+        stack.push(current.right);
+        depths.push(depth + 1);
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+        depths.push(depth + 1);
+      }
+    }
+    path.clear();
+    return paths;
   }
 }
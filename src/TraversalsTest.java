@@ -208,6 +208,29 @@ public class TraversalsTest {
         assertEquals(expected, Traversals.buildPostOrderString(root));
     }
 
+    @Test
+    void testWritePostOrder_streamsToWriter() throws java.io.IOException {
+        TreeNode<String> root = new TreeNode<>(
+            "A1",
+            new TreeNode<>("Bb2", new TreeNode<>("Xx9"), new TreeNode<>("Kk1")),
+            new TreeNode<>("C3C", null, new TreeNode<>("ZzZ"))
+        );
+        java.io.StringWriter writer = new java.io.StringWriter();
+        Traversals.writePostOrder(root, writer);
+        assertEquals("Xx9Kk1Bb2ZzZC3CA1", writer.toString());
+
+        StringBuilder builder = new StringBuilder(">");
+        assertSame(builder, Traversals.appendPostOrder(root, builder));
+        assertEquals(">Xx9Kk1Bb2ZzZC3CA1", builder.toString());
+    }
+
+    @Test
+    void testWritePostOrder_nullTreeWritesNothing() throws java.io.IOException {
+        StringBuilder builder = new StringBuilder();
+        Traversals.writePostOrder((TreeNode<String>) null, builder);
+        assertEquals("", builder.toString());
+    }
+
     // ---------------------------------------------------------
     // Test: collectLevelOrderValues
     // ---------------------------------------------------------
@@ -250,6 +273,67 @@ public class TraversalsTest {
         assertEquals(expected, Traversals.collectLevelOrderValues(root));
     }
 
+    @Test
+    void testCollectLevelOrderValues_presizedWideTree() {
+        // Complete tree numbered in level order, wide enough to grow the queue several times.
+        int size = 10_000;
+        List<TreeNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add(new TreeNode<>(i));
+        }
+        for (int i = 0; 2 * i + 1 < size; i++) {
+            nodes.get(i).left = nodes.get(2 * i + 1);
+            if (2 * i + 2 < size) nodes.get(i).right = nodes.get(2 * i + 2);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, Traversals.collectLevelOrderValues(nodes.get(0)));
+        assertEquals(expected, Traversals.collectLevelOrderValues(nodes.get(0), size));
+    }
+
+    // ---------------------------------------------------------
+    // Test: forEachLevel / collectLevels
+    // ---------------------------------------------------------
+
+    @Test
+    void testForEachLevel_nullTree() {
+        List<String> seen = new ArrayList<>();
+        assertArrayEquals(new int[0], Traversals.forEachLevel((TreeNode<String>) null, (level, offset, values) -> seen.add("called")));
+        assertTrue(seen.isEmpty());
+        assertEquals(Collections.emptyList(), Traversals.collectLevels((TreeNode<String>) null));
+    }
+
+    @Test
+    void testForEachLevel_generalTree() {
+        /*
+         *            1
+         *          /   \
+         *         2     3
+         *        / \     \
+         *       4   5     6
+         *          /
+         *         7
+         */
+        TreeNode<Integer> root = new TreeNode<>(1,
+            new TreeNode<>(2, new TreeNode<>(4), new TreeNode<>(5, new TreeNode<>(7), null)),
+            new TreeNode<>(3, null, new TreeNode<>(6)));
+
+        List<String> seen = new ArrayList<>();
+        int[] widths = Traversals.forEachLevel(root, (level, offset, values) -> seen.add(level + "@" + offset + values));
+        assertArrayEquals(new int[] {1, 2, 3, 1}, widths);
+        assertEquals(List.of("0@0[1]", "1@1[2, 3]", "2@3[4, 5, 6]", "3@6[7]"), seen);
+        assertEquals(List.of(List.of(1), List.of(2, 3), List.of(4, 5, 6), List.of(7)), Traversals.collectLevels(root));
+    }
+
+    @Test
+    void testForEachLevel_deepTreeGrowsWidths() {
+        int[] widths = Traversals.forEachLevel(rightChain(1000), (level, offset, values) -> assertEquals(level, offset));
+        assertEquals(1000, widths.length);
+        assertTrue(Arrays.stream(widths).allMatch(width -> width == 1));
+    }
+
     // ---------------------------------------------------------
     // Test: countDistinctValues
     // ---------------------------------------------------------
@@ -324,6 +408,16 @@ public class TraversalsTest {
         assertEquals(expected, Traversals.countDistinctValues(root));
     }
 
+    @Test
+    void testEstimateDistinctValues() {
+        TreeNode<Integer> root = null;
+        for (int i = 0; i < 100_000; i++) {
+            root = new TreeNode<>(i % 20_000, root, null);
+        }
+        assertEquals(0, Traversals.estimateDistinctValues(null, 0.01));
+        assertEquals(20_000, Traversals.estimateDistinctValues(root, 0.01), 20_000 * 0.04);
+    }
+
     // ---------------------------------------------------------
     // Test: hasStrictlyIncreasingPath
     // ---------------------------------------------------------
@@ -399,6 +493,31 @@ public class TraversalsTest {
         assertEquals(expected, Traversals.hasStrictlyIncreasingPath(root));
     }
 
+    @Test
+    void testHasStrictlyIncreasingPath_laterBranchAfterBacktracking() {
+        /*
+         *       1
+         *      / \
+         *    10   2
+         *    /
+         *   5
+         *
+         * 1 -> 10 -> 5 fails, but 1 -> 2 is strictly increasing => true
+         */
+        TreeNode<Integer> root = new TreeNode<>(
+            1,
+            new TreeNode<>(10, new TreeNode<>(5), null),
+            new TreeNode<>(2)
+        );
+        assertTrue(Traversals.hasStrictlyIncreasingPath(root));
+    }
+
+    @Test
+    void testHasStrictlyIncreasingPath_minimumValueRoot() {
+        TreeNode<Integer> root = new TreeNode<>(Integer.MIN_VALUE);
+        assertTrue(Traversals.hasStrictlyIncreasingPath(root));
+    }
+
     // ---------------------------------------------------------
     // Test (Challenge): haveSameShape
     // ---------------------------------------------------------
@@ -552,4 +671,146 @@ public class TraversalsTest {
 
         assertEquals(expected, Traversals.findAllRootToLeafPaths(root));
     }
+
+    @Test
+    void testForEachRootToLeafPath_sharesOneBuffer() {
+        TreeNode<Integer> root = new TreeNode<>(
+            1,
+            new TreeNode<>(2, new TreeNode<>(4), new TreeNode<>(5)),
+            new TreeNode<>(3, null, new TreeNode<>(6))
+        );
+        List<String> seen = new ArrayList<>();
+        Traversals.forEachRootToLeafPath(root, path -> {
+            seen.add(path.toString());
+            assertThrows(UnsupportedOperationException.class, () -> path.add(0));
+        });
+        assertEquals(List.of("[1, 2, 4]", "[1, 2, 5]", "[1, 3, 6]"), seen);
+    }
+
+    @Test
+    void testRootToLeafPaths_prefixSharing() {
+        TreeNode<String> root = new TreeNode<>(
+            "R",
+            new TreeNode<>("L", new TreeNode<>("LL"), new TreeNode<>("LR")),
+            new TreeNode<>("RightNode")
+        );
+        RootToLeafPaths<String> paths = RootToLeafPaths.of(root);
+        assertEquals(3, paths.size());
+        assertEquals(3, paths.length(1));
+        assertEquals("LR", paths.leaf(1));
+        assertEquals(List.of("R", "RightNode"), paths.path(2));
+        assertEquals(Traversals.findAllRootToLeafPaths(root), paths.toLists());
+        assertEquals(0, RootToLeafPaths.of(null).size());
+    }
+
+    // ---------------------------------------------------------
+    // Test: deep, list-shaped trees
+    // ---------------------------------------------------------
+
+    private static final int DEEP = 1_000_000;
+
+    /*
+     * 1
+     *  \
+     *   2
+     *    \
+     *     ...
+     *       \
+     *        depth
+     */
+    private static TreeNode<Integer> rightChain(int depth) {
+        TreeNode<Integer> root = null;
+        for (int i = depth; i >= 1; i--) {
+            root = new TreeNode<>(i, null, root);
+        }
+        return root;
+    }
+
+    @Test
+    void testSumLeafNodes_deepTree() {
+        assertEquals(DEEP, Traversals.sumLeafNodes(rightChain(DEEP)));
+    }
+
+    @Test
+    void testCountInternalNodes_deepTree() {
+        assertEquals(DEEP - 1, Traversals.countInternalNodes(rightChain(DEEP)));
+    }
+
+    @Test
+    void testBuildPostOrderString_deepTree() {
+        String result = Traversals.buildPostOrderString(rightChain(DEEP));
+        assertTrue(result.startsWith(DEEP + "" + (DEEP - 1)));
+        assertTrue(result.endsWith("321"));
+    }
+
+    @Test
+    void testFindAllRootToLeafPaths_deepTree() {
+        RootToLeafPaths<Integer> paths = RootToLeafPaths.of(rightChain(DEEP));
+        assertEquals(1, paths.size());
+        assertEquals(DEEP, paths.length(0));
+        assertEquals(DEEP, paths.leaf(0));
+    }
+
+    @Test
+    void testHasStrictlyIncreasingPath_deepTree() {
+        assertTrue(Traversals.hasStrictlyIncreasingPath(rightChain(DEEP)));
+    }
+
+    @Test
+    void testHaveSameShape_deepTrees() {
+        assertTrue(Traversals.haveSameShape(rightChain(DEEP), rightChain(DEEP)));
+        assertFalse(Traversals.haveSameShape(rightChain(DEEP), rightChain(DEEP - 1)));
+    }
+
+    // ---------------------------------------------------------
+    // Test: IntTreeNode overloads
+    // ---------------------------------------------------------
+
+    @Test
+    void testIntTreeNode_fromNullTree() {
+        assertNull(IntTreeNode.from(null));
+        IntTreeNode root = null;
+        assertEquals(0, Traversals.sumLeafNodes(root));
+        assertEquals(0, Traversals.countInternalNodes(root));
+        assertEquals(0, Traversals.countDistinctValues(root));
+        assertFalse(Traversals.hasStrictlyIncreasingPath(root));
+    }
+
+    @Test
+    void testIntTreeNode_matchesBoxedResults() {
+        TreeNode<Integer> boxed = TestTrees.sampleWithZero();
+        IntTreeNode root = IntTreeNode.from(boxed);
+        assertEquals(Traversals.sumLeafNodes(boxed), Traversals.sumLeafNodes(root));
+        assertEquals(Traversals.countInternalNodes(boxed), Traversals.countInternalNodes(root));
+        assertEquals(Traversals.countDistinctValues(boxed), Traversals.countDistinctValues(root));
+        assertEquals(7, Traversals.countDistinctValues(root));
+    }
+
+    @Test
+    void testIntTreeNode_deepTree() {
+        IntTreeNode root = IntTreeNode.from(rightChain(DEEP));
+        assertEquals(DEEP, Traversals.sumLeafNodes(root));
+        assertEquals(DEEP - 1, Traversals.countInternalNodes(root));
+        assertEquals(DEEP, Traversals.countDistinctValues(root));
+        assertTrue(Traversals.hasStrictlyIncreasingPath(root));
+    }
+
+    @Test
+    void testIntTreeNode_increasingPathInLaterBranch() {
+        /*
+         *       1
+         *      / \
+         *    10   2
+         *    /
+         *   5
+         *
+         * 1 -> 10 -> 5 fails, but 1 -> 2 is strictly increasing => true
+         */
+        IntTreeNode root = new IntTreeNode(
+            1,
+            new IntTreeNode(10, new IntTreeNode(5), null),
+            new IntTreeNode(2)
+        );
+        assertTrue(Traversals.hasStrictlyIncreasingPath(root));
+    }
 }
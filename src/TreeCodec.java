@@ -0,0 +1,190 @@
+import java.util.*;
+
+/**
+ * Bulk conversion between linked trees and their flat array encodings: level order with null
+ * markers for absent children, and the pair of pre-order and in-order sequences.
+ * Building is iterative and runs in a single pass over the input, creating every node in the order
+ * of that pass. The JVM hands out consecutive allocations from the same thread-local buffer, so
+ * nodes that are visited together also end up next to each other in memory, which keeps later
+ * traversals in that order cache-friendly.
+ */
+public class TreeCodec {
+
+  /**
+   * Builds a tree from its level-order encoding, in which a null entry marks a missing child.
+   * Children are only listed for nodes that exist, and trailing null markers may be omitted,
+   * so {@code [1, null, 2, 3]} is a root 1 with a right child 2, whose left child is 3.
+   * Because null marks absence, trees with null values cannot be encoded this way.
+   * Nodes are created in level order. If values is empty or starts with null, returns null.
+   *
+   * @param values the level-order encoding
+   * @param <T>    the type of values stored in the tree
+   * @return the root of the built tree, or null for an empty tree
+   * @throws IllegalArgumentException if an entry describes a child of a node that does not exist
+   */
+  public static <T> TreeNode<T> fromLevelOrder(List<? extends T> values) {
+    if (values.isEmpty() || values.get(0) == null) {
+      requireAllNull(values, 0);
+      return null;
+    }
+
+    TreeNode<T> root = new TreeNode<>(values.get(0));
+    RingQueue<TreeNode<T>> parents = new RingQueue<>();
+    parents.add(root);
+    int i = 1;
+    int size = values.size();
+    while (i < size) {
+      TreeNode<T> parent = parents.poll();
+      if (parent == null) {
+        requireAllNull(values, i);
+        break;
+      }
+      T left = values.get(i++);
+      if (left != null) {
+        parent.left = new TreeNode<>(left);
+        parents.add(parent.left);
+      }
+      if (i < size) {
+        T right = values.get(i++);
+        if (right != null) {
+          parent.right = new TreeNode<>(right);
+          parents.add(parent.right);
+        }
+      }
+    }
+    return root;
+  }
+
+  private static void requireAllNull(List<?> values, int from) {
+    for (int i = from; i < values.size(); i++) {
+      if (values.get(i) != null) {
+        throw new IllegalArgumentException("entry " + i + " has no parent: " + values.get(i));
+      }
+    }
+  }
+
+  /**
+   * Encodes a tree in level order, with null marking each missing child of an existing node.
+   * Trailing null markers are dropped, so the result is the shortest encoding accepted by
+   * {@link #fromLevelOrder(List)}. If node is null, returns an empty list.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree; values must not be null
+   * @return the level-order encoding of the tree
+   * @throws IllegalArgumentException if the tree contains a null value
+   */
+  public static <T> List<T> toLevelOrder(TreeNode<T> node) {
+    List<T> values = new ArrayList<>();
+    if (node == null) {
+      return values;
+    }
+
+    RingQueue<TreeNode<T>> queue = new RingQueue<>();
+    queue.add(node);
+    values.add(requireValue(node));
+    int lastValue = 0;
+    while (!queue.isEmpty()) {
+      TreeNode<T> current = queue.poll();
+      lastValue = encodeChild(current.left, values, queue, lastValue);
+      lastValue = encodeChild(current.right, values, queue, lastValue);
+    }
+    values.subList(lastValue + 1, values.size()).clear();
+    return values;
+  }
+
+  /** Appends a child or its null marker, returning the index of the last non-null entry. */
+  private static <T> int encodeChild(TreeNode<T> child, List<T> values, RingQueue<TreeNode<T>> queue, int lastValue) {
+    if (child == null) {
+      values.add(null);
+      return lastValue;
+    }
+    values.add(requireValue(child));
+    queue.add(child);
+    return values.size() - 1;
+  }
+
+  private static <T> T requireValue(TreeNode<T> node) {
+    if (node.value == null) {
+      throw new IllegalArgumentException("null values cannot be encoded in level order");
+    }
+    return node.value;
+  }
+
+  /**
+   * Builds a tree from its pre-order and in-order sequences. The values must be distinct, since
+   * otherwise several trees can share both sequences. Nodes are created in pre-order, in a single
+   * pass that keeps the current chain of left descendants on a stack instead of looking positions
+   * up in a map. If both sequences are empty, returns null.
+   *
+   * @param preOrder the values in pre-order
+   * @param inOrder  the same values in in-order
+   * @param <T>      the type of values stored in the tree
+   * @return the root of the built tree, or null for an empty tree
+   * @throws IllegalArgumentException if the sequences do not describe the same tree
+   */
+  public static <T> TreeNode<T> fromPreOrderAndInOrder(List<? extends T> preOrder, List<? extends T> inOrder) {
+    int size = preOrder.size();
+    if (size != inOrder.size()) {
+      throw new IllegalArgumentException("sequences differ in length: " + size + " and " + inOrder.size());
+    }
+    if (size == 0) {
+      return null;
+    }
+
+    TreeNode<T> root = new TreeNode<>(preOrder.get(0));
+    ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    stack.push(root);
+    int next = 0;
+    for (int i = 1; i < size; i++) {
+      TreeNode<T> parent = stack.peek();
+      if (!Objects.equals(parent.value, inOrder.get(next))) {
+        // The in-order sequence has not reached the top node yet, so the next node is its left child.
+        parent.left = new TreeNode<>(preOrder.get(i));
+        stack.push(parent.left);
+        continue;
+      }
+      // Climb past every node whose left subtree and self are done; the next node is the right
+      // child of the last one.
+      while (!stack.isEmpty() && next < size && Objects.equals(stack.peek().value, inOrder.get(next))) {
+        parent = stack.pop();
+        next++;
+      }
+      parent.right = new TreeNode<>(preOrder.get(i));
+      stack.push(parent.right);
+    }
+
+    Iterator<T> built = TreeStreams.inOrderIterator(root);
+    for (T value : inOrder) {
+      if (!Objects.equals(built.next(), value)) {
+        throw new IllegalArgumentException("sequences do not describe the same tree");
+      }
+    }
+    return root;
+  }
+
+  /**
+   * Returns the values of the tree in pre-order. If node is null, returns an empty list.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return the pre-order sequence
+   */
+  public static <T> List<T> toPreOrder(TreeNode<T> node) {
+    List<T> values = new ArrayList<>();
+    TreeStreams.preOrderIterator(node).forEachRemaining(values::add);
+    return values;
+  }
+
+  /**
+   * Returns the values of the tree in in-order. If node is null, returns an empty list.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return the in-order sequence
+   */
+  public static <T> List<T> toInOrder(TreeNode<T> node) {
+    List<T> values = new ArrayList<>();
+    TreeStreams.inOrderIterator(node).forEachRemaining(values::add);
+    return values;
+  }
+}
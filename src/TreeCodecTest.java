@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+
+public class TreeCodecTest {
+
+    private static TreeNode<Integer> randomTree(int size, long seed) {
+        Random random = new Random(seed);
+        List<TreeNode<Integer>> nodes = new ArrayList<>();
+        TreeNode<Integer> root = new TreeNode<>(0);
+        nodes.add(root);
+        for (int i = 1; i < size; i++) {
+            TreeNode<Integer> parent = nodes.get(random.nextInt(nodes.size()));
+            if (parent.left == null && random.nextBoolean()) {
+                parent.left = new TreeNode<>(i);
+                nodes.add(parent.left);
+            } else if (parent.right == null) {
+                parent.right = new TreeNode<>(i);
+                nodes.add(parent.right);
+            } else {
+                i--;
+            }
+        }
+        return root;
+    }
+
+    private static void assertSameTree(TreeNode<Integer> expected, TreeNode<Integer> actual) {
+        assertTrue(Traversals.haveSameShape(expected, actual));
+        assertEquals(TreeCodec.toPreOrder(expected), TreeCodec.toPreOrder(actual));
+    }
+
+    @Test
+    void testFromLevelOrder() {
+        TreeNode<Integer> root = TreeCodec.fromLevelOrder(Arrays.asList(1, null, 2, 3));
+        assertEquals(1, root.value);
+        assertNull(root.left);
+        assertEquals(2, root.right.value);
+        assertEquals(3, root.right.left.value);
+        assertNull(root.right.right);
+    }
+
+    @Test
+    void testLevelOrderEmptyTree() {
+        assertNull(TreeCodec.fromLevelOrder(List.of()));
+        assertNull(TreeCodec.fromLevelOrder(Arrays.asList((Integer) null, null)));
+        assertEquals(List.of(), TreeCodec.toLevelOrder(null));
+    }
+
+    @Test
+    void testToLevelOrderDropsTrailingMarkers() {
+        TreeNode<String> root = new TreeNode<>("a",
+            new TreeNode<>("b", null, new TreeNode<>("d")),
+            new TreeNode<>("c"));
+        assertEquals(Arrays.asList("a", "b", "c", null, "d"), TreeCodec.toLevelOrder(root));
+    }
+
+    @Test
+    void testLevelOrderRejectsOrphansAndNullValues() {
+        assertThrows(IllegalArgumentException.class, () -> TreeCodec.fromLevelOrder(Arrays.asList(1, null, null, 4)));
+        assertThrows(IllegalArgumentException.class, () -> TreeCodec.fromLevelOrder(Arrays.asList(null, 2)));
+        assertThrows(IllegalArgumentException.class, () -> TreeCodec.toLevelOrder(new TreeNode<Integer>(null)));
+    }
+
+    @Test
+    void testLevelOrderRoundTrip() {
+        for (long seed = 0; seed < 10; seed++) {
+            TreeNode<Integer> root = randomTree(500, seed);
+            assertSameTree(root, TreeCodec.fromLevelOrder(TreeCodec.toLevelOrder(root)));
+        }
+    }
+
+    @Test
+    void testPreOrderAndInOrderRoundTrip() {
+        for (long seed = 0; seed < 10; seed++) {
+            TreeNode<Integer> root = randomTree(500, seed);
+            TreeNode<Integer> rebuilt = TreeCodec.fromPreOrderAndInOrder(TreeCodec.toPreOrder(root), TreeCodec.toInOrder(root));
+            assertSameTree(root, rebuilt);
+        }
+        assertNull(TreeCodec.fromPreOrderAndInOrder(List.of(), List.of()));
+    }
+
+    @Test
+    void testPreOrderAndInOrderRejectsMismatchedSequences() {
+        assertThrows(IllegalArgumentException.class, () -> TreeCodec.fromPreOrderAndInOrder(List.of(1, 2), List.of(1)));
+        assertThrows(IllegalArgumentException.class, () -> TreeCodec.fromPreOrderAndInOrder(List.of(1, 2, 3), List.of(3, 1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> TreeCodec.fromPreOrderAndInOrder(List.of(1, 2, 3), List.of(1, 2, 4)));
+    }
+
+    @Test
+    void testDeepTreesBuildIteratively() {
+        int depth = 1_000_000;
+        List<Integer> preOrder = new ArrayList<>();
+        List<Integer> inOrder = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            preOrder.add(i);
+            inOrder.add(depth - 1 - i);
+        }
+        TreeNode<Integer> leftChain = TreeCodec.fromPreOrderAndInOrder(preOrder, inOrder);
+        assertEquals(depth - 1, Traversals.sumLeafNodes(leftChain));
+        assertEquals(depth - 1, Traversals.countInternalNodes(leftChain));
+    }
+}
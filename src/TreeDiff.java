@@ -0,0 +1,467 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Structural diff between two versions of a tree. Both trees are walked together in pre-order,
+ * and each difference is reported as an {@link Edit}: a subtree present in only one version is
+ * one {@link Kind#ADDED} or {@link Kind#REMOVED} edit, and a node present in both whose value
+ * differs is a {@link Kind#CHANGED} edit. Edits are produced lazily, so asking for the first K
+ * differences, or only whether there is any, stops as soon as they are found.
+ *
+ * <p>Subtrees that are the same object in both versions, as in persistent trees that share
+ * unchanged subtrees between snapshots, are skipped without being walked. Given {@link ContentHashes}
+ * of both versions, subtrees with equal hashes are skipped too, so a diff costs time proportional
+ * to the size of the change rather than the size of the trees, at the cost of missing the
+ * differences in any pair of subtrees whose hashes collide.
+ */
+public class TreeDiff {
+
+  /** The kind of a difference. */
+  public enum Kind {
+    /** A subtree present only in the second tree. */
+    ADDED,
+    /** A subtree present only in the first tree. */
+    REMOVED,
+    /** A node present in both trees with different values. */
+    CHANGED
+  }
+
+  /**
+   * One difference between the trees, located by its path from the root: a string of
+   * {@code 'L'} and {@code 'R'} steps, empty for the root.
+   *
+   * @param <T> the type of values stored in the trees
+   */
+  public static final class Edit<T> {
+    private final Kind kind;
+    private final String path;
+    private final TreeNode<T> before;
+    private final TreeNode<T> after;
+
+    Edit(Kind kind, String path, TreeNode<T> before, TreeNode<T> after) {
+      this.kind = kind;
+      this.path = path;
+      this.before = before;
+      this.after = after;
+    }
+
+    public Kind kind() {
+      return kind;
+    }
+
+    /** Returns the steps from the root to the node, such as {@code "LR"}. */
+    public String path() {
+      return path;
+    }
+
+    /** Returns the node in the first tree, or null for an added subtree. */
+    public TreeNode<T> before() {
+      return before;
+    }
+
+    /** Returns the node in the second tree, or null for a removed subtree. */
+    public TreeNode<T> after() {
+      return after;
+    }
+
+    @Override
+    public String toString() {
+      switch (kind) {
+        case ADDED:
+          return "ADDED " + path + " " + after.value;
+        case REMOVED:
+          return "REMOVED " + path + " " + before.value;
+        default:
+          return "CHANGED " + path + " " + before.value + " -> " + after.value;
+      }
+    }
+  }
+
+  /**
+   * Merkle-style 64-bit hashes of every subtree of a tree, covering both shape and values.
+   * Computing them walks the tree once; keeping them with a snapshot lets every later diff against
+   * that snapshot skip subtrees whose hashes match.
+   *
+   * <p>A subtree hash is only as strong as the hashes of its values. By default, strings, boxed
+   * primitives and null are hashed to 64 bits, so two different subtrees of such values collide
+   * with probability about 2^-64. Any other value falls back to its 32-bit {@code hashCode()},
+   * under which unequal values collide far more often; supply a 64-bit hasher for those through
+   * {@link #of(TreeNode, ToLongFunction)}. On a collision a diff skips the two subtrees and misses
+   * their differences. The hashes describe the tree as it was when they were computed and must be
+   * recomputed if it changes.
+   */
+  public static final class ContentHashes {
+    /** Hash of a null value, kept apart from the hashes of small numbers. */
+    private static final long NULL_VALUE_HASH = 0xC2B2AE3D27D4EB4FL;
+    /** The largest power-of-two table length; it holds trees of up to half as many nodes. */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /** Open-addressing identity table: node {@code nodes[i]} has subtree hash {@code hashes[i]}. */
+    private final TreeNode<?>[] nodes;
+    private final long[] hashes;
+    private final int mask;
+
+    private ContentHashes(int size) {
+      // At most half full, so probe sequences stay short and always reach an empty slot.
+      long capacity = Math.max(4, Long.highestOneBit(Math.max(1L, size) * 2 - 1) << 1);
+      if (capacity > MAX_CAPACITY) {
+        throw new IllegalArgumentException("tree of " + size + " nodes is too large to hash");
+      }
+      this.nodes = new TreeNode<?>[(int) capacity];
+      this.hashes = new long[(int) capacity];
+      this.mask = (int) capacity - 1;
+    }
+
+    /**
+     * Computes the hash of every subtree of the given tree, hashing values with the default hasher.
+     *
+     * @param node the root of the tree, or null for an empty tree
+     * @param <T>  the type of values stored in the tree
+     * @return the hashes of the tree's subtrees
+     */
+    public static <T> ContentHashes of(TreeNode<T> node) {
+      return of(node, ContentHashes::valueHash);
+    }
+
+    /**
+     * Computes the hash of every subtree of the given tree, hashing each non-null value with the
+     * given function. Equal values must hash equally, and unequal values should differ in their
+     * 64-bit hashes; null values are hashed by this class.
+     *
+     * @param node        the root of the tree, or null for an empty tree
+     * @param valueHasher returns a 64-bit hash of a non-null value
+     * @param <T>         the type of values stored in the tree
+     * @return the hashes of the tree's subtrees
+     */
+    public static <T> ContentHashes of(TreeNode<T> node, ToLongFunction<? super T> valueHasher) {
+      ContentHashes table = new ContentHashes(CompactTree.countNodes(node));
+      // Post-order walk, so both children are hashed before their parent.
+      ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+      TreeNode<T> current = node;
+      TreeNode<T> lastVisited = null;
+      while (current != null || !stack.isEmpty()) {
+        if (current != null) {
+          stack.push(current);
+          current = current.left;
+          continue;
+        }
+        TreeNode<T> top = stack.peek();
+        if (top.right != null && top.right != lastVisited) {
+          current = top.right;
+          continue;
+        }
+        long value = top.value == null ? NULL_VALUE_HASH : valueHasher.applyAsLong(top.value);
+        long valueHash = ShapeFingerprint.combine(value, ShapeFingerprint.NULL_HASH);
+        long childrenHash = ShapeFingerprint.combine(table.hashOf(top.left), table.hashOf(top.right));
+        table.put(top, ShapeFingerprint.combine(valueHash, childrenHash));
+        lastVisited = stack.pop();
+      }
+      return table;
+    }
+
+    /**
+     * The default value hasher: 64 bits of the value itself for boxed primitives, salted by type
+     * so that, for example, {@code 1} and {@code 1L} differ as they do under equals, a 64-bit
+     * FNV-1a hash of the characters for strings, and {@code hashCode()} for anything else.
+     */
+    static long valueHash(Object value) {
+      if (value instanceof String) {
+        String string = (String) value;
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < string.length(); i++) {
+          hash = (hash ^ string.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+      }
+      long bits;
+      if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        bits = ((Number) value).longValue();
+      } else if (value instanceof Double) {
+        bits = Double.doubleToLongBits((Double) value);
+      } else if (value instanceof Float) {
+        bits = Float.floatToIntBits((Float) value);
+      } else if (value instanceof Character) {
+        bits = (Character) value;
+      } else if (value instanceof Boolean) {
+        bits = (Boolean) value ? 1 : 0;
+      } else {
+        return value.hashCode();
+      }
+      return ShapeFingerprint.combine(value.getClass().getName().hashCode(), bits);
+    }
+
+    private long hashOf(TreeNode<?> node) {
+      return node == null ? ShapeFingerprint.NULL_HASH : hashes[indexOf(node)];
+    }
+
+    private void put(TreeNode<?> node, long hash) {
+      int i = slot(node);
+      while (nodes[i] != null) {
+        i = (i + 1) & mask;
+      }
+      nodes[i] = node;
+      hashes[i] = hash;
+    }
+
+    /** Returns the table index of the given node, or -1 if it is not part of the hashed tree. */
+    int indexOf(TreeNode<?> node) {
+      int i = slot(node);
+      while (nodes[i] != null) {
+        if (nodes[i] == node) {
+          return i;
+        }
+        i = (i + 1) & mask;
+      }
+      return -1;
+    }
+
+    long hashAt(int index) {
+      return hashes[index];
+    }
+
+    private int slot(TreeNode<?> node) {
+      int h = System.identityHashCode(node) * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the hash of the subtree rooted at the given node.
+     *
+     * @param node a node of the hashed tree
+     * @return the subtree's hash
+     * @throws NoSuchElementException if the node is not part of the hashed tree
+     */
+    public long hash(TreeNode<?> node) {
+      int index = node == null ? -1 : indexOf(node);
+      if (index < 0) {
+        throw new NoSuchElementException("node is not part of the hashed tree");
+      }
+      return hashes[index];
+    }
+  }
+
+  /**
+   * Returns the differences between two trees as a lazy stream, in pre-order.
+   *
+   * @param before the first tree, or null for an empty tree
+   * @param after  the second tree, or null for an empty tree
+   * @param <T>    the type of values stored in the trees
+   * @return a stream of edits turning the first tree into the second
+   */
+  public static <T> Stream<Edit<T>> edits(TreeNode<T> before, TreeNode<T> after) {
+    return edits(before, after, null, null);
+  }
+
+  /**
+   * Returns the differences between two trees as a lazy stream, in pre-order, skipping every pair
+   * of subtrees whose content hashes match.
+   *
+   * @param before       the first tree, or null for an empty tree
+   * @param after        the second tree, or null for an empty tree
+   * @param beforeHashes the hashes of the first tree, or null
+   * @param afterHashes  the hashes of the second tree, or null
+   * @param <T>          the type of values stored in the trees
+   * @return a stream of edits turning the first tree into the second
+   */
+  public static <T> Stream<Edit<T>> edits(TreeNode<T> before, TreeNode<T> after,
+      ContentHashes beforeHashes, ContentHashes afterHashes) {
+    Iterator<Edit<T>> walk = new DiffWalk<>(before, after, "", beforeHashes, afterHashes);
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(walk, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Returns at most the first limit differences between two trees, in pre-order.
+   *
+   * @param before the first tree, or null for an empty tree
+   * @param after  the second tree, or null for an empty tree
+   * @param limit  the most edits to return
+   * @param <T>    the type of values stored in the trees
+   * @return the first edits turning the first tree into the second
+   */
+  public static <T> List<Edit<T>> diff(TreeNode<T> before, TreeNode<T> after, int limit) {
+    List<Edit<T>> result = new ArrayList<>();
+    Iterator<Edit<T>> walk = new DiffWalk<>(before, after, "", null, null);
+    while (result.size() < limit && walk.hasNext()) {
+      result.add(walk.next());
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether two trees have the same shape and equal values, stopping at the first difference.
+   *
+   * @param before the first tree, or null for an empty tree
+   * @param after  the second tree, or null for an empty tree
+   * @param <T>    the type of values stored in the trees
+   * @return true if the trees are equal, false otherwise
+   */
+  public static <T> boolean equal(TreeNode<T> before, TreeNode<T> after) {
+    return !new DiffWalk<>(before, after, "", null, null).hasNext();
+  }
+
+  /**
+   * Returns at most the first limit differences between two trees, in pre-order, diffing subtrees
+   * in parallel on the common pool.
+   *
+   * @param before the first tree, or null for an empty tree
+   * @param after  the second tree, or null for an empty tree
+   * @param limit  the most edits to return
+   * @param <T>    the type of values stored in the trees
+   * @return the first edits turning the first tree into the second
+   */
+  public static <T> List<Edit<T>> parallelDiff(TreeNode<T> before, TreeNode<T> after, int limit) {
+    return parallelDiff(before, after, limit, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns at most the first limit differences between two trees, in pre-order, diffing subtrees
+   * in parallel on the given pool. Each task keeps at most limit edits of its own subtree pair,
+   * which is enough for the merged result to be exactly the first limit edits in pre-order,
+   * the same as {@link #diff(TreeNode, TreeNode, int)}.
+   *
+   * @param before the first tree, or null for an empty tree
+   * @param after  the second tree, or null for an empty tree
+   * @param limit  the most edits to return
+   * @param pool   the pool to run on
+   * @param <T>    the type of values stored in the trees
+   * @return the first edits turning the first tree into the second
+   */
+  public static <T> List<Edit<T>> parallelDiff(TreeNode<T> before, TreeNode<T> after, int limit, ForkJoinPool pool) {
+    if (limit <= 0) {
+      return new ArrayList<>();
+    }
+    return pool.invoke(new DiffTask<>(before, after, "", limit, ParallelTraversals.splitDepth(pool)));
+  }
+
+  /**
+   * Lockstep pre-order walk over pairs of nodes. Each pending pair is stored as two stack entries
+   * plus a code holding its depth and which child it is, so the path to the current pair is kept
+   * in one builder that is truncated and extended as the walk moves.
+   */
+  private static final class DiffWalk<T> implements Iterator<Edit<T>> {
+    private final ArrayStack<TreeNode<T>> pairs = new ArrayStack<>();
+    private final IntStack codes = new IntStack();
+    private final StringBuilder path;
+    private final int prefixLength;
+    private final ContentHashes beforeHashes;
+    private final ContentHashes afterHashes;
+    private Edit<T> ready;
+
+    DiffWalk(TreeNode<T> before, TreeNode<T> after, String prefix,
+        ContentHashes beforeHashes, ContentHashes afterHashes) {
+      this.path = new StringBuilder(prefix);
+      this.prefixLength = prefix.length();
+      this.beforeHashes = beforeHashes;
+      this.afterHashes = afterHashes;
+      pairs.push(before);
+      pairs.push(after);
+      codes.push(0);
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (ready == null) {
+        ready = advance();
+      }
+      return ready != null;
+    }
+
+    @Override
+    public Edit<T> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Edit<T> edit = ready;
+      ready = null;
+      return edit;
+    }
+
+    private Edit<T> advance() {
+      while (!codes.isEmpty()) {
+        int code = codes.pop();
+        TreeNode<T> after = pairs.pop();
+        TreeNode<T> before = pairs.pop();
+        int depth = code >>> 1;
+        if (depth > 0) {
+          path.setLength(prefixLength + depth - 1);
+          path.append((code & 1) == 0 ? 'L' : 'R');
+        }
+        if (before == after || sameHash(before, after)) {
+          continue;
+        }
+        if (before == null) {
+          return new Edit<>(Kind.ADDED, path.toString(), null, after);
+        }
+        if (after == null) {
+          return new Edit<>(Kind.REMOVED, path.toString(), before, null);
+        }
+        pairs.push(before.right);
+        pairs.push(after.right);
+        codes.push((depth + 1) << 1 | 1);
+        pairs.push(before.left);
+        pairs.push(after.left);
+        codes.push((depth + 1) << 1);
+        if (!Objects.equals(before.value, after.value)) {
+          return new Edit<>(Kind.CHANGED, path.toString(), before, after);
+        }
+      }
+      return null;
+    }
+
+    private boolean sameHash(TreeNode<T> before, TreeNode<T> after) {
+      if (beforeHashes == null || afterHashes == null || before == null || after == null) {
+        return false;
+      }
+      int beforeIndex = beforeHashes.indexOf(before);
+      int afterIndex = beforeIndex < 0 ? -1 : afterHashes.indexOf(after);
+      return afterIndex >= 0 && beforeHashes.hashAt(beforeIndex) == afterHashes.hashAt(afterIndex);
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static final class DiffTask<T> extends RecursiveTask<List<Edit<T>>> {
+    private final TreeNode<T> before;
+    private final TreeNode<T> after;
+    private final String path;
+    private final int limit;
+    private final int remainingSplits;
+
+    DiffTask(TreeNode<T> before, TreeNode<T> after, String path, int limit, int remainingSplits) {
+      this.before = before;
+      this.after = after;
+      this.path = path;
+      this.limit = limit;
+      this.remainingSplits = remainingSplits;
+    }
+
+    @Override
+    protected List<Edit<T>> compute() {
+      List<Edit<T>> result = new ArrayList<>();
+      if (before == null || after == null || before == after || !ParallelTraversals.shouldSplit(remainingSplits)) {
+        Iterator<Edit<T>> walk = new DiffWalk<>(before, after, path, null, null);
+        while (result.size() < limit && walk.hasNext()) {
+          result.add(walk.next());
+        }
+        return result;
+      }
+
+      if (!Objects.equals(before.value, after.value)) {
+        result.add(new Edit<>(Kind.CHANGED, path, before, after));
+      }
+      DiffTask<T> leftTask = new DiffTask<>(before.left, after.left, path + 'L', limit, remainingSplits - 1);
+      leftTask.fork();
+      List<Edit<T>> rightEdits = new DiffTask<>(before.right, after.right, path + 'R', limit, remainingSplits - 1).compute();
+      result.addAll(leftTask.join());
+      result.addAll(rightEdits);
+      if (result.size() > limit) {
+        result.subList(limit, result.size()).clear();
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+public class TreeDiffTest {
+
+    /*
+     *   before:      1            after:      1
+     *               / \                      / \
+     *              2   3                    2   7
+     *             / \   \                  /     \
+     *            4   5   6                4       6
+     *                                      \
+     *                                       8
+     */
+    private static TreeNode<Integer> before() {
+        return new TreeNode<>(1,
+            new TreeNode<>(2, new TreeNode<>(4), new TreeNode<>(5)),
+            new TreeNode<>(3, null, new TreeNode<>(6)));
+    }
+
+    private static TreeNode<Integer> after() {
+        return new TreeNode<>(1,
+            new TreeNode<>(2, new TreeNode<>(4, null, new TreeNode<>(8)), null),
+            new TreeNode<>(7, null, new TreeNode<>(6)));
+    }
+
+    private static List<String> describe(List<TreeDiff.Edit<Integer>> edits) {
+        return edits.stream().map(TreeDiff.Edit::toString).collect(Collectors.toList());
+    }
+
+    private static TreeNode<Integer> copy(TreeNode<Integer> node) {
+        return TreeCodec.fromPreOrderAndInOrder(TreeCodec.toPreOrder(node), TreeCodec.toInOrder(node));
+    }
+
+    private static TreeNode<Integer> randomTree(int size, long seed) {
+        Random random = new Random(seed);
+        List<TreeNode<Integer>> nodes = new ArrayList<>();
+        nodes.add(new TreeNode<>(0));
+        while (nodes.size() < size) {
+            TreeNode<Integer> parent = nodes.get(random.nextInt(nodes.size()));
+            TreeNode<Integer> child = new TreeNode<>(nodes.size());
+            if (parent.left == null) {
+                parent.left = child;
+            } else if (parent.right == null) {
+                parent.right = child;
+            } else {
+                continue;
+            }
+            nodes.add(child);
+        }
+        return nodes.get(0);
+    }
+
+    @Test
+    void testEditsInPreOrder() {
+        List<String> expected = List.of("ADDED LLR 8", "REMOVED LR 5", "CHANGED R 3 -> 7");
+        assertEquals(expected, describe(TreeDiff.edits(before(), after()).collect(Collectors.toList())));
+        assertEquals(expected.subList(0, 2), describe(TreeDiff.diff(before(), after(), 2)));
+        assertEquals(expected, describe(TreeDiff.parallelDiff(before(), after(), 10)));
+    }
+
+    @Test
+    void testEmptyTrees() {
+        assertTrue(TreeDiff.equal(null, null));
+        assertEquals(List.of("ADDED  1"), describe(TreeDiff.diff(null, before(), 10)));
+        assertEquals(List.of("REMOVED  1"), describe(TreeDiff.diff(before(), null, 10)));
+        assertTrue(TreeDiff.parallelDiff(before(), after(), 0).isEmpty());
+    }
+
+    @Test
+    void testEqual() {
+        assertTrue(TreeDiff.equal(before(), before()));
+        assertFalse(TreeDiff.equal(before(), after()));
+    }
+
+    @Test
+    void testSharedSubtreesAreSkipped() {
+        // A subtree whose value would throw if compared is shared by reference, so it is never read.
+        TreeNode<Object> shared = new TreeNode<>(new Object() {
+            @Override
+            public boolean equals(Object other) {
+                throw new AssertionError("shared subtree was walked");
+            }
+
+            @Override
+            public int hashCode() {
+                throw new AssertionError("shared subtree was walked");
+            }
+        });
+        TreeNode<Object> a = new TreeNode<>("a", shared, new TreeNode<>("x"));
+        TreeNode<Object> b = new TreeNode<>("a", shared, new TreeNode<>("y"));
+        assertEquals(1, TreeDiff.edits(a, b).count());
+    }
+
+    @Test
+    void testContentHashesSkipEqualSubtrees() {
+        TreeNode<Integer> first = randomTree(2000, 5);
+        TreeNode<Integer> second = copy(first);
+        second.left.left.value = -1;
+        TreeDiff.ContentHashes firstHashes = TreeDiff.ContentHashes.of(first);
+        TreeDiff.ContentHashes secondHashes = TreeDiff.ContentHashes.of(second);
+
+        assertEquals(firstHashes.hash(first.right), secondHashes.hash(second.right));
+        assertNotEquals(firstHashes.hash(first), secondHashes.hash(second));
+        assertThrows(NoSuchElementException.class, () -> firstHashes.hash(second));
+
+        List<TreeDiff.Edit<Integer>> edits = TreeDiff.edits(first, second, firstHashes, secondHashes).collect(Collectors.toList());
+        assertEquals(1, edits.size());
+        assertEquals("LL", edits.get(0).path());
+        assertSame(second.left.left, edits.get(0).after());
+    }
+
+    @Test
+    void testContentHashesSeeValuesWithEqualHashCodes() {
+        // Both pairs have equal 32-bit hashCodes, which must not make their subtrees look equal.
+        assertEquals(Long.valueOf(0L).hashCode(), Long.valueOf(-1L).hashCode());
+        TreeNode<Long> longsBefore = new TreeNode<>(7L, new TreeNode<>(0L), null);
+        TreeNode<Long> longsAfter = new TreeNode<>(7L, new TreeNode<>(-1L), null);
+        assertEquals(1, TreeDiff.edits(longsBefore, longsAfter,
+            TreeDiff.ContentHashes.of(longsBefore), TreeDiff.ContentHashes.of(longsAfter)).count());
+
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        TreeNode<String> stringsBefore = new TreeNode<>("root", null, new TreeNode<>("Aa"));
+        TreeNode<String> stringsAfter = new TreeNode<>("root", null, new TreeNode<>("BB"));
+        assertEquals(List.of("CHANGED R Aa -> BB"), TreeDiff.edits(stringsBefore, stringsAfter,
+            TreeDiff.ContentHashes.of(stringsBefore), TreeDiff.ContentHashes.of(stringsAfter))
+            .map(Object::toString).collect(Collectors.toList()));
+
+        TreeNode<Object> intNode = new TreeNode<>(1);
+        TreeNode<Object> longNode = new TreeNode<>(1L);
+        assertNotEquals(TreeDiff.ContentHashes.of(intNode).hash(intNode), TreeDiff.ContentHashes.of(longNode).hash(longNode));
+    }
+
+    @Test
+    void testContentHashesWithCustomHasher() {
+        TreeNode<int[]> before = new TreeNode<>(new int[] {1, 2}, new TreeNode<>(new int[] {3}), null);
+        TreeNode<int[]> after = new TreeNode<>(new int[] {1, 2}, new TreeNode<>(new int[] {3}), null);
+        TreeDiff.ContentHashes beforeHashes = TreeDiff.ContentHashes.of(before, values -> Arrays.hashCode(values));
+        TreeDiff.ContentHashes afterHashes = TreeDiff.ContentHashes.of(after, values -> Arrays.hashCode(values));
+        assertEquals(beforeHashes.hash(before), afterHashes.hash(after));
+        // Arrays are compared by identity, so only the hashes can tell that these trees hold equal content.
+        assertEquals(0, TreeDiff.edits(before, after, beforeHashes, afterHashes).count());
+    }
+
+    @Test
+    void testParallelDiffMatchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long seed = 0; seed < 5; seed++) {
+                TreeNode<Integer> first = randomTree(5000, seed);
+                TreeNode<Integer> second = randomTree(5000, seed + 100);
+                for (int limit : new int[] {1, 17, 1000, Integer.MAX_VALUE}) {
+                    assertEquals(describe(TreeDiff.diff(first, second, limit)),
+                        describe(TreeDiff.parallelDiff(first, second, limit, pool)));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testDeepTrees() {
+        TreeNode<Integer> first = null;
+        TreeNode<Integer> second = null;
+        for (int i = 1_000_000; i >= 1; i--) {
+            first = new TreeNode<>(i, null, first);
+            second = new TreeNode<>(i == 999_999 ? 0 : i, null, second);
+        }
+        List<TreeDiff.Edit<Integer>> edits = TreeDiff.diff(first, second, 5);
+        assertEquals(1, edits.size());
+        assertEquals(999_998, edits.get(0).path().length());
+    }
+}
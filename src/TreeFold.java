@@ -0,0 +1,437 @@
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A small framework for writing new traversals as folds instead of hand-written loops.
+ * A fold is given an {@link Order}, an optional pruning predicate, an initial accumulator and a
+ * function that combines the accumulator with each visited node. {@link IntFold} and
+ * {@link LongFold} keep the accumulator in a primitive local, so folding a tree boxes nothing
+ * beyond what reading the tree's own values requires.
+ *
+ * <p>Every order runs on the same iterative core, {@link Cursor}, which hands out one node per call
+ * and keeps its pending nodes on a reusable {@link ArrayStack} or {@link RingQueue}. A cursor can be
+ * reset to a new root and reused, so a long-lived cursor traverses any number of trees without
+ * allocating. Depth-first orders use O(depth) extra memory and level order uses O(width).
+ *
+ * <p>For example, the leaf sum is
+ * {@code TreeFold.foldInt(root, Order.PRE, 0, (sum, n) -> n.left == null && n.right == null ? sum + n.value : sum)}.
+ */
+public class TreeFold {
+
+  /** The order in which nodes are visited. */
+  public enum Order {
+    /** Node, left subtree, right subtree. */
+    PRE,
+    /** Left subtree, node, right subtree. */
+    IN,
+    /** Left subtree, right subtree, node. */
+    POST,
+    /** Top to bottom, left to right within each level. */
+    LEVEL
+  }
+
+  /**
+   * Combines an {@code int} accumulator with a visited node.
+   *
+   * @param <T> the type of values stored in the tree
+   */
+  @FunctionalInterface
+  public interface IntFold<T> {
+    int apply(int accumulator, TreeNode<T> node);
+  }
+
+  /**
+   * Combines a {@code long} accumulator with a visited node.
+   *
+   * @param <T> the type of values stored in the tree
+   */
+  @FunctionalInterface
+  public interface LongFold<T> {
+    long apply(long accumulator, TreeNode<T> node);
+  }
+
+  /**
+   * Combines an accumulator object with a visited node. The accumulator may be mutated and
+   * returned, so collecting into a builder or list allocates nothing per node.
+   *
+   * @param <T> the type of values stored in the tree
+   * @param <A> the type of the accumulator
+   */
+  @FunctionalInterface
+  public interface Fold<T, A> {
+    A apply(A accumulator, TreeNode<T> node);
+  }
+
+  /**
+   * Folds the tree's nodes into an {@code int}, in the given order.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param order   the order in which to visit nodes
+   * @param initial the initial accumulator, returned as is for an empty tree
+   * @param fold    the function combining the accumulator with each node
+   * @param <T>     the type of values stored in the tree
+   * @return the final accumulator
+   */
+  public static <T> int foldInt(TreeNode<T> node, Order order, int initial, IntFold<T> fold) {
+    return foldInt(node, order, null, initial, fold);
+  }
+
+  /**
+   * Folds the tree's nodes into an {@code int}, in the given order, skipping every node for which
+   * prune returns true together with its subtree.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param order   the order in which to visit nodes
+   * @param prune   the nodes whose subtrees to skip, or null to visit every node
+   * @param initial the initial accumulator, returned as is for an empty tree
+   * @param fold    the function combining the accumulator with each node
+   * @param <T>     the type of values stored in the tree
+   * @return the final accumulator
+   */
+  public static <T> int foldInt(TreeNode<T> node, Order order, Predicate<? super TreeNode<T>> prune,
+      int initial, IntFold<T> fold) {
+    return new Cursor<T>(order, prune).reset(node).foldInt(initial, fold);
+  }
+
+  /**
+   * Folds the tree's nodes into a {@code long}, in the given order.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param order   the order in which to visit nodes
+   * @param initial the initial accumulator, returned as is for an empty tree
+   * @param fold    the function combining the accumulator with each node
+   * @param <T>     the type of values stored in the tree
+   * @return the final accumulator
+   */
+  public static <T> long foldLong(TreeNode<T> node, Order order, long initial, LongFold<T> fold) {
+    return foldLong(node, order, null, initial, fold);
+  }
+
+  /**
+   * Folds the tree's nodes into a {@code long}, in the given order, skipping every node for which
+   * prune returns true together with its subtree.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param order   the order in which to visit nodes
+   * @param prune   the nodes whose subtrees to skip, or null to visit every node
+   * @param initial the initial accumulator, returned as is for an empty tree
+   * @param fold    the function combining the accumulator with each node
+   * @param <T>     the type of values stored in the tree
+   * @return the final accumulator
+   */
+  public static <T> long foldLong(TreeNode<T> node, Order order, Predicate<? super TreeNode<T>> prune,
+      long initial, LongFold<T> fold) {
+    return new Cursor<T>(order, prune).reset(node).foldLong(initial, fold);
+  }
+
+  /**
+   * Folds the tree's nodes into an accumulator object, in the given order.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param order   the order in which to visit nodes
+   * @param initial the initial accumulator, returned as is for an empty tree
+   * @param fold    the function combining the accumulator with each node
+   * @param <T>     the type of values stored in the tree
+   * @param <A>     the type of the accumulator
+   * @return the final accumulator
+   */
+  public static <T, A> A fold(TreeNode<T> node, Order order, A initial, Fold<T, A> fold) {
+    return fold(node, order, null, initial, fold);
+  }
+
+  /**
+   * Folds the tree's nodes into an accumulator object, in the given order, skipping every node for
+   * which prune returns true together with its subtree.
+   *
+   * @param node    the root of the tree, or null for an empty tree
+   * @param order   the order in which to visit nodes
+   * @param prune   the nodes whose subtrees to skip, or null to visit every node
+   * @param initial the initial accumulator, returned as is for an empty tree
+   * @param fold    the function combining the accumulator with each node
+   * @param <T>     the type of values stored in the tree
+   * @param <A>     the type of the accumulator
+   * @return the final accumulator
+   */
+  public static <T, A> A fold(TreeNode<T> node, Order order, Predicate<? super TreeNode<T>> prune,
+      A initial, Fold<T, A> fold) {
+    return new Cursor<T>(order, prune).reset(node).fold(initial, fold);
+  }
+
+  /**
+   * The iterative core behind every fold: a resettable cursor that returns the next node in its
+   * order on each call to {@link #next()}. Pruned nodes are treated as if they were absent, so the
+   * pruning predicate is tested before a node is queued or descended into, at most twice per node.
+   * It should not have side effects. The tree must not be modified while a cursor is walking it.
+   *
+   * @param <T> the type of values stored in the tree
+   */
+  public static final class Cursor<T> {
+    private final Order order;
+    private final Predicate<? super TreeNode<T>> prune;
+    private final ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+    private final RingQueue<TreeNode<T>> queue;
+    /** For in-order and post-order, the next subtree whose left spine has not been pushed yet. */
+    private TreeNode<T> current;
+    /** For post-order, the node returned last, so a node is returned once its right subtree is done. */
+    private TreeNode<T> lastVisited;
+    /** Whether {@link #trackDepth()} has been called; copied into {@code trackDepth} on reset. */
+    private boolean depthRequested;
+    /** Whether {@link #depth()} is kept up to date in the current walk. */
+    private boolean trackDepth;
+    /** For depth-first orders with depth tracking, the depth of each node on the stack. */
+    private IntStack depths;
+    /** For in-order and post-order with depth tracking, the depth of {@code current}. */
+    private int currentDepth;
+    /** For level order with depth tracking, the nodes of the current level not yet returned. */
+    private int levelRemaining;
+    /** The depth of the node returned last, counting the root as 1. */
+    private int depth;
+
+    /**
+     * Creates a cursor with no tree; call {@link #reset(TreeNode)} to start a walk.
+     *
+     * @param order the order in which to visit nodes
+     * @param prune the nodes whose subtrees to skip, or null to visit every node
+     */
+    public Cursor(Order order, Predicate<? super TreeNode<T>> prune) {
+      this.order = order;
+      this.prune = prune;
+      this.queue = order == Order.LEVEL ? new RingQueue<>() : null;
+    }
+
+    /**
+     * Starts a new walk from the given root, dropping any walk in progress but keeping the
+     * scratch space for reuse.
+     *
+     * @param node the root of the tree, or null for an empty tree
+     * @return this cursor
+     */
+    public Cursor<T> reset(TreeNode<T> node) {
+      stack.clear();
+      if (queue != null) {
+        queue.clear();
+      }
+      if (depths != null) {
+        depths.clear();
+      }
+      trackDepth = depthRequested;
+      current = null;
+      lastVisited = null;
+      currentDepth = 1;
+      levelRemaining = 0;
+      depth = 0;
+      TreeNode<T> root = admit(node);
+      if (root != null) {
+        switch (order) {
+          case PRE:
+            stack.push(root);
+            if (trackDepth) {
+              depths.push(1);
+            }
+            break;
+          case LEVEL:
+            queue.add(root);
+            break;
+          default:
+            current = root;
+            break;
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Returns the next node of the walk.
+     *
+     * @return the next node, or null once every node has been returned
+     */
+    public TreeNode<T> next() {
+      switch (order) {
+        case PRE: {
+          if (stack.isEmpty()) {
+            return null;
+          }
+          TreeNode<T> node = stack.pop();
+          if (trackDepth) {
+            depth = depths.pop();
+          }
+          pushAdmitted(node.right);
+          pushAdmitted(node.left);
+          return node;
+        }
+        case LEVEL: {
+          if (trackDepth && !queue.isEmpty()) {
+            // At a level boundary the queue holds exactly the nodes of the next level.
+            if (levelRemaining == 0) {
+              depth++;
+              levelRemaining = queue.size();
+            }
+            levelRemaining--;
+          }
+          TreeNode<T> node = queue.poll();
+          if (node != null) {
+            TreeNode<T> left = admit(node.left);
+            if (left != null) {
+              queue.add(left);
+            }
+            TreeNode<T> right = admit(node.right);
+            if (right != null) {
+              queue.add(right);
+            }
+          }
+          return node;
+        }
+        case IN: {
+          while (current != null) {
+            pushCurrent();
+            current = admit(current.left);
+          }
+          if (stack.isEmpty()) {
+            return null;
+          }
+          TreeNode<T> node = stack.pop();
+          if (trackDepth) {
+            depth = depths.pop();
+            currentDepth = depth + 1;
+          }
+          current = admit(node.right);
+          return node;
+        }
+        default: {
+          while (true) {
+            if (current != null) {
+              pushCurrent();
+              current = admit(current.left);
+              continue;
+            }
+            if (stack.isEmpty()) {
+              return null;
+            }
+            TreeNode<T> top = stack.peek();
+            if (top.right != null && top.right != lastVisited && admit(top.right) != null) {
+              current = top.right;
+              if (trackDepth) {
+                currentDepth = depths.peek() + 1;
+              }
+            } else {
+              lastVisited = stack.pop();
+              if (trackDepth) {
+                depth = depths.pop();
+              }
+              return lastVisited;
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Makes the cursor keep track of {@link #depth()}, at the cost of one more stack push per node.
+     * Takes effect from the next {@link #reset(TreeNode)}.
+     *
+     * @return this cursor
+     */
+    Cursor<T> trackDepth() {
+      if (!depthRequested) {
+        depthRequested = true;
+        depths = order == Order.LEVEL ? null : new IntStack();
+      }
+      return this;
+    }
+
+    /**
+     * Returns the depth of the node returned last by {@link #next()}, counting the root as 1,
+     * or 0 if depth tracking is off or no node has been returned since the last reset.
+     */
+    int depth() {
+      return depth;
+    }
+
+    /** Pushes {@code current} for in-order and post-order, together with its depth if tracked. */
+    private void pushCurrent() {
+      stack.push(current);
+      if (trackDepth) {
+        depths.push(currentDepth++);
+      }
+    }
+
+    /**
+     * Returns the number of nodes the cursor is holding for later: the pending subtrees or
+     * ancestors on its stack, or the queued nodes of the next levels.
+     */
+    int pending() {
+      return queue != null ? queue.size() : stack.size();
+    }
+
+    private TreeNode<T> admit(TreeNode<T> node) {
+      return node == null || (prune != null && prune.test(node)) ? null : node;
+    }
+
+    private void pushAdmitted(TreeNode<T> node) {
+      TreeNode<T> admitted = admit(node);
+      if (admitted != null) {
+        stack.push(admitted);
+        if (trackDepth) {
+          depths.push(depth + 1);
+        }
+      }
+    }
+
+    /**
+     * Folds the rest of the walk into an {@code int}.
+     *
+     * @param initial the initial accumulator
+     * @param fold    the function combining the accumulator with each node
+     * @return the final accumulator
+     */
+    public int foldInt(int initial, IntFold<T> fold) {
+      int accumulator = initial;
+      for (TreeNode<T> node = next(); node != null; node = next()) {
+        accumulator = fold.apply(accumulator, node);
+      }
+      return accumulator;
+    }
+
+    /**
+     * Folds the rest of the walk into a {@code long}.
+     *
+     * @param initial the initial accumulator
+     * @param fold    the function combining the accumulator with each node
+     * @return the final accumulator
+     */
+    public long foldLong(long initial, LongFold<T> fold) {
+      long accumulator = initial;
+      for (TreeNode<T> node = next(); node != null; node = next()) {
+        accumulator = fold.apply(accumulator, node);
+      }
+      return accumulator;
+    }
+
+    /**
+     * Folds the rest of the walk into an accumulator object.
+     *
+     * @param initial the initial accumulator
+     * @param fold    the function combining the accumulator with each node
+     * @param <A>     the type of the accumulator
+     * @return the final accumulator
+     */
+    public <A> A fold(A initial, Fold<T, A> fold) {
+      A accumulator = initial;
+      for (TreeNode<T> node = next(); node != null; node = next()) {
+        accumulator = fold.apply(accumulator, node);
+      }
+      return accumulator;
+    }
+
+    /**
+     * Passes every remaining node of the walk to the action.
+     *
+     * @param action the action to run on each node
+     */
+    public void forEach(Consumer<? super TreeNode<T>> action) {
+      for (TreeNode<T> node = next(); node != null; node = next()) {
+        action.accept(node);
+      }
+    }
+  }
+}
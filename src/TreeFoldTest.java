@@ -0,0 +1,145 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class TreeFoldTest {
+
+    private static TreeNode<Integer> randomTree(int size, long seed) {
+        Random random = new Random(seed);
+        List<TreeNode<Integer>> nodes = new ArrayList<>();
+        TreeNode<Integer> root = new TreeNode<>(random.nextInt(1000));
+        nodes.add(root);
+        while (nodes.size() < size) {
+            TreeNode<Integer> parent = nodes.get(random.nextInt(nodes.size()));
+            TreeNode<Integer> child = new TreeNode<>(random.nextInt(1000));
+            if (parent.left == null && random.nextBoolean()) {
+                parent.left = child;
+            } else if (parent.right == null) {
+                parent.right = child;
+            } else {
+                continue;
+            }
+            nodes.add(child);
+        }
+        return root;
+    }
+
+    private static List<Integer> values(TreeNode<Integer> root, TreeFold.Order order) {
+        return TreeFold.fold(root, order, new ArrayList<Integer>(), (list, node) -> {
+            list.add(node.value);
+            return list;
+        });
+    }
+
+    @Test
+    void testOrdersMatchTreeStreams() {
+        for (long seed = 0; seed < 10; seed++) {
+            TreeNode<Integer> root = randomTree(300, seed);
+            assertEquals(TreeStreams.preOrder(root).collect(Collectors.toList()), values(root, TreeFold.Order.PRE));
+            assertEquals(TreeStreams.inOrder(root).collect(Collectors.toList()), values(root, TreeFold.Order.IN));
+            assertEquals(TreeStreams.postOrder(root).collect(Collectors.toList()), values(root, TreeFold.Order.POST));
+            assertEquals(Traversals.collectLevelOrderValues(root), values(root, TreeFold.Order.LEVEL));
+        }
+    }
+
+    @Test
+    void testPrimitiveFoldsReproduceTraversals() {
+        TreeNode<Integer> root = randomTree(1000, 42);
+        for (TreeFold.Order order : TreeFold.Order.values()) {
+            assertEquals(Traversals.sumLeafNodes(root), TreeFold.foldInt(root, order, 0,
+                (sum, node) -> node.left == null && node.right == null ? sum + node.value : sum));
+            assertEquals(Traversals.countInternalNodes(root), TreeFold.foldInt(root, order, 0,
+                (count, node) -> node.left != null || node.right != null ? count + 1 : count));
+            assertEquals(1000L * Integer.MAX_VALUE, TreeFold.foldLong(root, order, 0L,
+                (sum, node) -> sum + Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void testPruningSkipsWholeSubtrees() {
+        /*
+         *        1
+         *       / \
+         *      2   3
+         *     / \   \
+         *    4   5   6
+         */
+        TreeNode<Integer> root = new TreeNode<>(1,
+            new TreeNode<>(2, new TreeNode<>(4), new TreeNode<>(5)),
+            new TreeNode<>(3, null, new TreeNode<>(6)));
+        for (TreeFold.Order order : TreeFold.Order.values()) {
+            int visited = TreeFold.foldInt(root, order, node -> node.value == 2, 0, (count, node) -> count + 1);
+            assertEquals(3, visited, order.name());
+        }
+        assertEquals(0, TreeFold.foldInt(root, TreeFold.Order.IN, node -> node.value == 1, 0, (count, node) -> count + 1));
+        assertEquals("421", TreeFold.fold(root, TreeFold.Order.POST, node -> node.value == 5 || node.value == 3,
+            new StringBuilder(), (out, node) -> out.append(node.value)).toString());
+    }
+
+    @Test
+    void testEmptyTree() {
+        for (TreeFold.Order order : TreeFold.Order.values()) {
+            assertEquals(7, TreeFold.foldInt(null, order, 7, (count, node) -> count + 1));
+        }
+    }
+
+    @Test
+    void testCursorIsReusableAcrossTrees() {
+        TreeFold.Cursor<Integer> cursor = new TreeFold.Cursor<>(TreeFold.Order.POST, null);
+        TreeNode<Integer> first = randomTree(100, 1);
+        TreeNode<Integer> second = randomTree(50, 2);
+        assertEquals(100, cursor.reset(first).foldInt(0, (count, node) -> count + 1));
+        cursor.reset(first).next();
+        assertEquals(50, cursor.reset(second).foldInt(0, (count, node) -> count + 1));
+        assertNull(cursor.next());
+    }
+
+    @Test
+    void testDeepTree() {
+        TreeNode<Integer> left = null;
+        TreeNode<Integer> right = null;
+        for (int i = 1_000_000; i >= 1; i--) {
+            left = new TreeNode<>(i, left, null);
+            right = new TreeNode<>(i, null, right);
+        }
+        for (TreeFold.Order order : TreeFold.Order.values()) {
+            assertEquals(1_000_000, TreeFold.foldInt(left, order, 0, (count, node) -> count + 1));
+            assertEquals(1_000_000, TreeFold.foldInt(right, order, 0, (count, node) -> count + 1));
+        }
+    }
+
+    @Test
+    void testCursorTracksDepthInEveryOrder() {
+        TreeNode<Integer> root = randomTree(500, 7);
+        Map<TreeNode<Integer>, Integer> expected = new IdentityHashMap<>();
+        Deque<TreeNode<Integer>> pending = new ArrayDeque<>(List.of(root));
+        expected.put(root, 1);
+        while (!pending.isEmpty()) {
+            TreeNode<Integer> node = pending.pop();
+            for (TreeNode<Integer> child : Arrays.asList(node.left, node.right)) {
+                if (child != null) {
+                    expected.put(child, expected.get(node) + 1);
+                    pending.push(child);
+                }
+            }
+        }
+
+        for (TreeFold.Order order : TreeFold.Order.values()) {
+            TreeFold.Cursor<Integer> cursor = new TreeFold.Cursor<>(order, null);
+            cursor.reset(root);
+            assertEquals(0, cursor.depth());
+            cursor.trackDepth();
+            // Depth tracking starts with the next walk, and stays on across resets.
+            for (int walk = 0; walk < 2; walk++) {
+                int visited = 0;
+                cursor.reset(root);
+                for (TreeNode<Integer> node = cursor.next(); node != null; node = cursor.next()) {
+                    assertEquals(expected.get(node), cursor.depth(), order + " at " + visited);
+                    visited++;
+                }
+                assertEquals(500, visited);
+            }
+        }
+    }
+}
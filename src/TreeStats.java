@@ -0,0 +1,259 @@
+import java.util.*;
+
+/**
+ * Aggregates of a tree of integers computed together in a single traversal.
+ * Callers choose which {@link Aggregate}s they need, and only those are tracked during the walk,
+ * so asking for several aggregates at once costs one pass over the tree instead of one pass each.
+ * Reading an aggregate that was not requested throws {@link IllegalStateException}.
+ */
+public class TreeStats {
+
+  /** An aggregate that can be computed by {@link TreeStats#of(TreeNode, Set)}. */
+  public enum Aggregate {
+    /** The sum of the values of all leaf nodes. */
+    LEAF_SUM,
+    /** The number of nodes with at least one child. */
+    INTERNAL_COUNT,
+    /** The number of distinct values. */
+    DISTINCT_COUNT,
+    /** The number of nodes on the longest root-to-leaf path. */
+    HEIGHT,
+    /** The total number of nodes. */
+    NODE_COUNT,
+    /** The smallest and largest values. */
+    MIN_MAX;
+
+    final int mask = 1 << ordinal();
+  }
+
+  static final int LEAF_SUM = Aggregate.LEAF_SUM.mask;
+  static final int INTERNAL_COUNT = Aggregate.INTERNAL_COUNT.mask;
+  static final int DISTINCT_COUNT = Aggregate.DISTINCT_COUNT.mask;
+  static final int HEIGHT = Aggregate.HEIGHT.mask;
+  static final int NODE_COUNT = Aggregate.NODE_COUNT.mask;
+  static final int MIN_MAX = Aggregate.MIN_MAX.mask;
+  private static final int ALL = (1 << Aggregate.values().length) - 1;
+
+  private final int computed;
+  private final int leafSum;
+  private final int internalCount;
+  private final int distinctCount;
+  private final int height;
+  private final int nodeCount;
+  private final int min;
+  private final int max;
+
+  private TreeStats(int computed, int leafSum, int internalCount, int distinctCount,
+      int height, int nodeCount, int min, int max) {
+    this.computed = computed;
+    this.leafSum = leafSum;
+    this.internalCount = internalCount;
+    this.distinctCount = distinctCount;
+    this.height = height;
+    this.nodeCount = nodeCount;
+    this.min = min;
+    this.max = max;
+  }
+
+  /**
+   * Computes every aggregate of the given tree in one traversal.
+   *
+   * @param node the root of the tree, or null for an empty tree
+   * @return the aggregates of the tree
+   */
+  public static TreeStats of(TreeNode<Integer> node) {
+    return compute(node, ALL, new ArrayStack<>());
+  }
+
+  /**
+   * Computes the chosen aggregates of the given tree in one traversal.
+   *
+   * @param node       the root of the tree, or null for an empty tree
+   * @param aggregates the aggregates to compute
+   * @return the aggregates of the tree
+   */
+  public static TreeStats of(TreeNode<Integer> node, Set<Aggregate> aggregates) {
+    int mask = 0;
+    for (Aggregate aggregate : aggregates) {
+      mask |= aggregate.mask;
+    }
+    return compute(node, mask, new ArrayStack<>());
+  }
+
+  /**
+   * Fused traversal behind every entry point. The aggregates to track are given as a bit mask of
+   * {@link Aggregate#mask} values. The stack is left empty on return and may be reused by the caller.
+   */
+  static TreeStats compute(TreeNode<Integer> node, int mask, ArrayStack<TreeNode<Integer>> stack) {
+    return compute(node, mask, stack, null);
+  }
+
+  /**
+   * Fused traversal that also reports each visited node to the given probe, if it is non-null.
+   * The caller finishes the probe.
+   */
+  static TreeStats compute(TreeNode<Integer> node, int mask, ArrayStack<TreeNode<Integer>> stack,
+      TraversalMetrics.Probe probe) {
+    boolean wantLeafSum = (mask & LEAF_SUM) != 0;
+    boolean wantDistinct = (mask & DISTINCT_COUNT) != 0;
+    boolean wantHeight = (mask & HEIGHT) != 0;
+    boolean wantMinMax = (mask & MIN_MAX) != 0;
+
+    int leafSum = 0;
+    int internalCount = 0;
+    int nodeCount = 0;
+    int height = 0;
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    IntHashSet distinct = wantDistinct ? new IntHashSet() : null;
+    // Depth is also tracked for an attached probe, so it can report the deepest node.
+    boolean trackDepth = wantHeight || probe != null;
+    IntStack depths = trackDepth ? new IntStack() : null;
+
+    if (node != null) {
+      stack.push(node);
+      if (trackDepth) {
+        depths.push(1);
+      }
+    }
+    while (!stack.isEmpty()) {
+      TreeNode<Integer> current = stack.pop();
+      int depth = trackDepth ? depths.pop() : 0;
+      nodeCount++;
+      if (probe != null) {
+        probe.visit(stack.size() + 1);
+        probe.depth(depth);
+      }
+      if (wantDistinct || wantMinMax) {
+        int value = current.value;
+        if (wantDistinct) {
+          distinct.add(value);
+        }
+        if (wantMinMax) {
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+      }
+
+      if (current.left == null && current.right == null) {
+        if (wantLeafSum) {
+          leafSum += current.value;
+        }
+        if (depth > height) {
+          height = depth;
+        }
+        continue;
+      }
+      internalCount++;
+      if (current.right != null) {
+        stack.push(current.right);
+        if (trackDepth) {
+          depths.push(depth + 1);
+        }
+      }
+      if (current.left != null) {
+        stack.push(current.left);
+        if (trackDepth) {
+          depths.push(depth + 1);
+        }
+      }
+    }
+
+    // Node and internal counts fall out of the walk for free, so they are always reported.
+    int computed = mask | NODE_COUNT | INTERNAL_COUNT;
+    return new TreeStats(computed, leafSum, internalCount, wantDistinct ? distinct.size() : 0,
+        height, nodeCount, min, max);
+  }
+
+  /**
+   * Returns whether the given aggregate was computed.
+   *
+   * @param aggregate the aggregate to check
+   * @return true if the aggregate can be read
+   */
+  public boolean has(Aggregate aggregate) {
+    return (computed & aggregate.mask) != 0;
+  }
+
+  /**
+   * Returns the sum of the values of all leaf nodes, or 0 for an empty tree.
+   */
+  public int leafSum() {
+    require(Aggregate.LEAF_SUM);
+    return leafSum;
+  }
+
+  /**
+   * Returns the number of internal (non-leaf) nodes.
+   */
+  public int internalCount() {
+    return internalCount;
+  }
+
+  /**
+   * Returns the number of distinct values.
+   */
+  public int distinctCount() {
+    require(Aggregate.DISTINCT_COUNT);
+    return distinctCount;
+  }
+
+  /**
+   * Returns the number of nodes on the longest root-to-leaf path, or 0 for an empty tree.
+   */
+  public int height() {
+    require(Aggregate.HEIGHT);
+    return height;
+  }
+
+  /**
+   * Returns the total number of nodes.
+   */
+  public int nodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Returns the smallest value in the tree.
+   *
+   * @throws NoSuchElementException if the tree is empty
+   */
+  public int min() {
+    require(Aggregate.MIN_MAX);
+    if (nodeCount == 0) {
+      throw new NoSuchElementException("empty tree has no minimum");
+    }
+    return min;
+  }
+
+  /**
+   * Returns the largest value in the tree.
+   *
+   * @throws NoSuchElementException if the tree is empty
+   */
+  public int max() {
+    require(Aggregate.MIN_MAX);
+    if (nodeCount == 0) {
+      throw new NoSuchElementException("empty tree has no maximum");
+    }
+    return max;
+  }
+
+  private void require(Aggregate aggregate) {
+    if (!has(aggregate)) {
+      throw new IllegalStateException(aggregate + " was not computed");
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(", ", "TreeStats[", "]");
+    if (has(Aggregate.LEAF_SUM)) joiner.add("leafSum=" + leafSum);
+    joiner.add("internalCount=" + internalCount);
+    if (has(Aggregate.DISTINCT_COUNT)) joiner.add("distinctCount=" + distinctCount);
+    if (has(Aggregate.HEIGHT)) joiner.add("height=" + height);
+    joiner.add("nodeCount=" + nodeCount);
+    if (has(Aggregate.MIN_MAX) && nodeCount > 0) joiner.add("min=" + min).add("max=" + max);
+    return joiner.toString();
+  }
+}
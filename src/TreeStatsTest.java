@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+
+public class TreeStatsTest {
+
+    @Test
+    void testAllAggregates() {
+        TreeStats stats = TreeStats.of(TestTrees.sample());
+        assertEquals(147, stats.leafSum());
+        assertEquals(4, stats.internalCount());
+        assertEquals(7, stats.distinctCount());
+        assertEquals(4, stats.height());
+        assertEquals(8, stats.nodeCount());
+        assertEquals(-5, stats.min());
+        assertEquals(100, stats.max());
+    }
+
+    @Test
+    void testSelectedAggregatesOnly() {
+        TreeStats stats = TreeStats.of(TestTrees.sample(), EnumSet.of(TreeStats.Aggregate.LEAF_SUM));
+        assertEquals(147, stats.leafSum());
+        assertTrue(stats.has(TreeStats.Aggregate.NODE_COUNT));
+        assertFalse(stats.has(TreeStats.Aggregate.HEIGHT));
+        assertThrows(IllegalStateException.class, stats::height);
+        assertThrows(IllegalStateException.class, stats::distinctCount);
+        assertThrows(IllegalStateException.class, stats::min);
+    }
+
+    @Test
+    void testNullTree() {
+        TreeStats stats = TreeStats.of(null);
+        assertEquals(0, stats.leafSum());
+        assertEquals(0, stats.internalCount());
+        assertEquals(0, stats.distinctCount());
+        assertEquals(0, stats.height());
+        assertEquals(0, stats.nodeCount());
+        assertThrows(NoSuchElementException.class, stats::min);
+    }
+
+    @Test
+    void testDeepTree() {
+        TreeNode<Integer> root = null;
+        for (int i = 1_000_000; i >= 1; i--) {
+            root = new TreeNode<>(i, root, null);
+        }
+        TreeStats stats = TreeStats.of(root);
+        assertEquals(1_000_000, stats.height());
+        assertEquals(1_000_000, stats.leafSum());
+        assertEquals(1, stats.min());
+    }
+}
@@ -0,0 +1,318 @@
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterators and streams over the values of a tree in pre-order, in-order, post-order and
+ * level order. Nothing is computed up front: each step visits only as many nodes as it needs to
+ * produce the next value, so short-circuiting operations such as {@code findFirst} or
+ * {@code limit(k)} cost O(k) node visits rather than O(n). Extra memory is O(depth) for the
+ * depth-first orders and O(width) for level order.
+ *
+ * <p>The pre-order spliterator splits at subtree boundaries, so parallel pre-order streams divide
+ * the tree among workers. The other orders split by buffering batches, like any iterator-backed stream.
+ *
+ * <p>The tree must not be modified while an iterator or stream over it is in use.
+ */
+public class TreeStreams {
+
+  /**
+   * Returns a lazy stream of the tree's values in pre-order (node, left subtree, right subtree).
+   * If node is null, the stream is empty.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return a stream of values in pre-order
+   */
+  public static <T> Stream<T> preOrder(TreeNode<T> node) {
+    return StreamSupport.stream(new PreOrderSpliterator<>(node), false);
+  }
+
+  /**
+   * Returns a lazy stream of the tree's values in in-order (left subtree, node, right subtree).
+   * If node is null, the stream is empty.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return a stream of values in in-order
+   */
+  public static <T> Stream<T> inOrder(TreeNode<T> node) {
+    return stream(inOrderIterator(node));
+  }
+
+  /**
+   * Returns a lazy stream of the tree's values in post-order (left subtree, right subtree, node).
+   * If node is null, the stream is empty.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return a stream of values in post-order
+   */
+  public static <T> Stream<T> postOrder(TreeNode<T> node) {
+    return stream(postOrderIterator(node));
+  }
+
+  /**
+   * Returns a lazy stream of the tree's values level by level, from top to bottom.
+   * If node is null, the stream is empty.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return a stream of values in level order
+   */
+  public static <T> Stream<T> levelOrder(TreeNode<T> node) {
+    return stream(levelOrderIterator(node));
+  }
+
+  /**
+   * Returns a lazy iterator over the tree's values in pre-order.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return an iterator over values in pre-order
+   */
+  public static <T> Iterator<T> preOrderIterator(TreeNode<T> node) {
+    return Spliterators.iterator(new PreOrderSpliterator<>(node));
+  }
+
+  /**
+   * Returns a lazy iterator over the tree's values in in-order.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return an iterator over values in in-order
+   */
+  public static <T> Iterator<T> inOrderIterator(TreeNode<T> node) {
+    return new Iterator<T>() {
+      private final ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+      private TreeNode<T> current = node;
+
+      @Override
+      public boolean hasNext() {
+        return current != null || !stack.isEmpty();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        while (current != null) {
+          stack.push(current);
+          current = current.left;
+        }
+        TreeNode<T> visited = stack.pop();
+        current = visited.right;
+        return visited.value;
+      }
+    };
+  }
+
+  /**
+   * Returns a lazy iterator over the tree's values in post-order.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return an iterator over values in post-order
+   */
+  public static <T> Iterator<T> postOrderIterator(TreeNode<T> node) {
+    return new Iterator<T>() {
+      private final ArrayStack<TreeNode<T>> stack = new ArrayStack<>();
+      private TreeNode<T> current = node;
+      private TreeNode<T> lastVisited = null;
+
+      @Override
+      public boolean hasNext() {
+        return current != null || !stack.isEmpty();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        while (true) {
+          if (current != null) {
+            stack.push(current);
+            current = current.left;
+            continue;
+          }
+          TreeNode<T> top = stack.peek();
+          if (top.right != null && top.right != lastVisited) {
+            current = top.right;
+          } else {
+            lastVisited = stack.pop();
+            return top.value;
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns a lazy iterator over the tree's values in level order.
+   *
+   * @param node the root of the tree
+   * @param <T>  the type of values stored in the tree
+   * @return an iterator over values in level order
+   */
+  public static <T> Iterator<T> levelOrderIterator(TreeNode<T> node) {
+    RingQueue<TreeNode<T>> queue = new RingQueue<>();
+    if (node != null) {
+      queue.add(node);
+    }
+    return new Iterator<T>() {
+      @Override
+      public boolean hasNext() {
+        return !queue.isEmpty();
+      }
+
+      @Override
+      public T next() {
+        TreeNode<T> current = queue.poll();
+        if (current == null) {
+          throw new NoSuchElementException();
+        }
+        if (current.left != null) {
+          queue.add(current.left);
+        }
+        if (current.right != null) {
+          queue.add(current.right);
+        }
+        return current.value;
+      }
+    };
+  }
+
+  private static <T> Stream<T> stream(Iterator<T> iterator) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+  }
+
+  /**
+   * A pre-order spliterator over a set of pending subtrees. The subtree on top of the deque is
+   * visited next, and each subtree below it follows everything above it in pre-order, so splitting
+   * off all but the bottom subtree hands out a prefix of the remaining traversal. When only one
+   * subtree is left, the split walks down its single-child chain, buffering the values it passes,
+   * to the first node with two children, and hands out the buffered values and its left subtree.
+   */
+  static final class PreOrderSpliterator<T> implements Spliterator<T> {
+    /** The most values a split buffers from a single-child chain before handing them out as a prefix. */
+    static final int MAX_BUFFERED_CHAIN = 1 << 10;
+
+    /** Pending subtrees; the first element is visited next. */
+    private ArrayDeque<TreeNode<T>> pending;
+    /** Values that precede every pending subtree, left behind by a split; null if there are none. */
+    private List<T> head;
+    /** The index of the next value of {@code head} to return. */
+    private int headIndex;
+    private long estimatedSize;
+
+    PreOrderSpliterator(TreeNode<T> node) {
+      pending = new ArrayDeque<>();
+      if (node != null) {
+        pending.push(node);
+      }
+      estimatedSize = node == null ? 0 : Long.MAX_VALUE;
+    }
+
+    private PreOrderSpliterator(ArrayDeque<TreeNode<T>> pending, List<T> head, int headIndex, long estimatedSize) {
+      this.pending = pending;
+      this.head = head;
+      this.headIndex = headIndex;
+      this.estimatedSize = estimatedSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (head != null) {
+        T value = head.get(headIndex++);
+        if (headIndex == head.size()) {
+          head = null;
+          headIndex = 0;
+        }
+        action.accept(value);
+        return true;
+      }
+      TreeNode<T> current = pending.poll();
+      if (current == null) {
+        return false;
+      }
+      if (current.right != null) {
+        pending.push(current.right);
+      }
+      if (current.left != null) {
+        pending.push(current.left);
+      }
+      action.accept(current.value);
+      return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      if (pending.size() >= 2) {
+        // Keep the last subtree; everything before it becomes the prefix.
+        TreeNode<T> last = pending.pollLast();
+        PreOrderSpliterator<T> prefix = new PreOrderSpliterator<>(pending, head, headIndex, estimatedSize >>>= 1);
+        pending = new ArrayDeque<>();
+        pending.push(last);
+        head = null;
+        headIndex = 0;
+        return prefix;
+      }
+      if (pending.size() == 1) {
+        return splitChain();
+      }
+      return null;
+    }
+
+    /**
+     * Splits the only pending subtree. The values down its single-child chain become the prefix,
+     * followed by the left subtree of the first node with two children, whose right subtree is kept.
+     * A chain longer than {@link #MAX_BUFFERED_CHAIN} is handed out in pieces of that length.
+     * Returns null, changing nothing, if the chain ends in a leaf.
+     */
+    private Spliterator<T> splitChain() {
+      List<T> values = new ArrayList<>();
+      if (head != null) {
+        values.addAll(head.subList(headIndex, head.size()));
+      }
+      int buffered = 0;
+      TreeNode<T> current = pending.peek();
+      while ((current.left == null) != (current.right == null)) {
+        if (buffered == MAX_BUFFERED_CHAIN) {
+          // Hand out the chain so far and keep the rest of it.
+          pending.poll();
+          pending.push(current);
+          head = null;
+          headIndex = 0;
+          return new PreOrderSpliterator<>(new ArrayDeque<>(), values, 0, estimatedSize >>>= 1);
+        }
+        values.add(current.value);
+        buffered++;
+        current = current.left != null ? current.left : current.right;
+      }
+      if (current.left == null) {
+        return null;
+      }
+      values.add(current.value);
+      ArrayDeque<TreeNode<T>> prefixPending = new ArrayDeque<>();
+      prefixPending.push(current.left);
+      pending.poll();
+      pending.push(current.right);
+      head = null;
+      headIndex = 0;
+      return new PreOrderSpliterator<>(prefixPending, values, 0, estimatedSize >>>= 1);
+    }
+
+    @Override
+    public long estimateSize() {
+      return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class TreeStreamsTest {
+
+    /*
+     *            "A"
+     *           /   \
+     *        "B"     "C"
+     *        / \       \
+     *     "D"  "E"     "F"
+     *          /
+     *        "G"
+     */
+    private static TreeNode<String> sample() {
+        return new TreeNode<>(
+            "A",
+            new TreeNode<>("B", new TreeNode<>("D"), new TreeNode<>("E", new TreeNode<>("G"), null)),
+            new TreeNode<>("C", null, new TreeNode<>("F"))
+        );
+    }
+
+    private static TreeNode<Integer> wideTree(int size) {
+        List<TreeNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add(new TreeNode<>(i));
+        }
+        for (int i = 0; 2 * i + 1 < size; i++) {
+            nodes.get(i).left = nodes.get(2 * i + 1);
+            if (2 * i + 2 < size) nodes.get(i).right = nodes.get(2 * i + 2);
+        }
+        return nodes.get(0);
+    }
+
+    private static String join(java.util.stream.Stream<String> stream) {
+        return stream.collect(Collectors.joining());
+    }
+
+    @Test
+    void testAllOrders() {
+        assertEquals("ABDEGCF", join(TreeStreams.preOrder(sample())));
+        assertEquals("DBGEACF", join(TreeStreams.inOrder(sample())));
+        assertEquals("DGEBFCA", join(TreeStreams.postOrder(sample())));
+        assertEquals("ABCDEFG", join(TreeStreams.levelOrder(sample())));
+    }
+
+    @Test
+    void testMatchesTraversals() {
+        TreeNode<String> root = sample();
+        assertEquals(Traversals.buildPostOrderString(root), join(TreeStreams.postOrder(root)));
+        assertEquals(Traversals.collectLevelOrderValues(root),
+            TreeStreams.levelOrder(root).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testNullTree() {
+        assertEquals(0, TreeStreams.preOrder(null).count());
+        assertEquals(0, TreeStreams.inOrder(null).count());
+        assertEquals(0, TreeStreams.postOrder(null).count());
+        assertEquals(0, TreeStreams.levelOrder(null).count());
+        assertThrows(NoSuchElementException.class, () -> TreeStreams.inOrderIterator(null).next());
+    }
+
+    @Test
+    void testShortCircuitOnDeepTree() {
+        TreeNode<Integer> root = null;
+        for (int i = 1_000_000; i >= 1; i--) {
+            root = new TreeNode<>(i, root, null);
+        }
+        assertEquals(List.of(1, 2, 3), TreeStreams.preOrder(root).limit(3).collect(Collectors.toList()));
+        assertEquals(Optional.of(1_000_000), TreeStreams.postOrder(root).findFirst());
+        assertEquals(Optional.of(1_000_000), TreeStreams.inOrder(root).findFirst());
+    }
+
+    @Test
+    void testParallelPreOrderKeepsEncounterOrder() {
+        TreeNode<Integer> root = wideTree(100_000);
+        List<Integer> sequential = TreeStreams.preOrder(root).collect(Collectors.toList());
+        List<Integer> parallel = TreeStreams.preOrder(root).parallel().collect(Collectors.toList());
+        assertEquals(100_000, sequential.size());
+        assertEquals(sequential, parallel);
+        assertEquals(99_999L * 100_000 / 2, TreeStreams.preOrder(root).parallel().mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    void testPreOrderSpliteratorSplitsAtSubtrees() {
+        Spliterator<String> spliterator = TreeStreams.preOrder(sample()).spliterator();
+        Spliterator<String> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        StringBuilder out = new StringBuilder();
+        prefix.forEachRemaining(out::append);
+        out.append('|');
+        spliterator.forEachRemaining(out::append);
+        assertEquals("ABDEG|CF", out.toString());
+    }
+
+    @Test
+    void testPreOrderSpliteratorSplitsBelowSingleChildChain() {
+        /*
+         *        A
+         *       /
+         *      B
+         *       \
+         *        C
+         *       / \
+         *      D   E
+         */
+        TreeNode<String> root = new TreeNode<>("A",
+            new TreeNode<>("B", null, new TreeNode<>("C", new TreeNode<>("D"), new TreeNode<>("E"))), null);
+        Spliterator<String> spliterator = TreeStreams.preOrder(root).spliterator();
+        Spliterator<String> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        StringBuilder out = new StringBuilder();
+        prefix.forEachRemaining(out::append);
+        out.append('|');
+        spliterator.forEachRemaining(out::append);
+        assertEquals("ABCD|E", out.toString());
+
+        assertNull(TreeStreams.preOrder(new TreeNode<>("A", new TreeNode<>("B"), null)).spliterator().trySplit());
+    }
+
+    @Test
+    void testParallelPreOrderSplitsLongChains() {
+        int length = 10 * TreeStreams.PreOrderSpliterator.MAX_BUFFERED_CHAIN;
+        TreeNode<Integer> root = null;
+        for (int i = length; i >= 1; i--) {
+            root = i % 2 == 0 ? new TreeNode<>(i, root, null) : new TreeNode<>(i, null, root);
+        }
+        Spliterator<Integer> spliterator = TreeStreams.preOrder(root).spliterator();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        List<Integer> values = new ArrayList<>();
+        prefix.forEachRemaining(values::add);
+        assertEquals(TreeStreams.PreOrderSpliterator.MAX_BUFFERED_CHAIN, values.size());
+        spliterator.forEachRemaining(values::add);
+        assertEquals(TreeStreams.preOrder(root).collect(Collectors.toList()), values);
+        assertEquals(TreeStreams.preOrder(root).collect(Collectors.toList()),
+            TreeStreams.preOrder(root).parallel().collect(Collectors.toList()));
+    }
+}